@@ -0,0 +1,127 @@
+package com.cgvsu.benchmarks;
+
+import com.cgvsu.math.Matrix4f;
+import com.cgvsu.math.Vector2f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.render_engine.GraphicConveyor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Построение матриц конвейера и преобразование больших массивов вершин:
+ * по одной вершине через Vector3f и пакетно через transformVertices.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GraphicConveyorBenchmark {
+
+    private static final int VERTEX_COUNT = 1_000_000;
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+
+    private final Vector3f eye = new Vector3f(10, 20, 100);
+    private final Vector3f target = new Vector3f(0, 0, 0);
+    private final Vector3f up = new Vector3f(0, 1, 0);
+    private final Vector3f translation = new Vector3f(1, 2, 3);
+    private final Vector3f rotation = new Vector3f(0.3f, 0.6f, 0.9f);
+    private final Vector3f scale = new Vector3f(2, 2, 2);
+    private final Matrix4f dest = new Matrix4f();
+
+    private Matrix4f mvp;
+    private Vector3f[] vertices;
+    private float[] packedVertices;
+    private float[] transformed;
+    private final Vector3f vertexDest = new Vector3f();
+    private final Vector2f pointDest = new Vector2f();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        vertices = new Vector3f[VERTEX_COUNT];
+        packedVertices = new float[VERTEX_COUNT * 3];
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            float x = random.nextFloat() * 50 - 25;
+            float y = random.nextFloat() * 50 - 25;
+            float z = random.nextFloat() * 50 - 25;
+            vertices[i] = new Vector3f(x, y, z);
+            packedVertices[i * 3] = x;
+            packedVertices[i * 3 + 1] = y;
+            packedVertices[i * 3 + 2] = z;
+        }
+        transformed = new float[VERTEX_COUNT * 3];
+        mvp = GraphicConveyor.perspective(1, 16f / 9, 0.01f, 1000)
+                .multiply(GraphicConveyor.lookAt(eye, target))
+                .multiply(GraphicConveyor.createModelMatrix(translation, rotation, scale));
+    }
+
+    @Benchmark
+    public Matrix4f lookAt() {
+        return GraphicConveyor.lookAt(eye, target, up);
+    }
+
+    @Benchmark
+    public Matrix4f lookAtInto() {
+        return GraphicConveyor.lookAt(eye, target, up, dest);
+    }
+
+    @Benchmark
+    public Matrix4f perspective() {
+        return GraphicConveyor.perspective(1, 16f / 9, 0.01f, 1000);
+    }
+
+    @Benchmark
+    public Matrix4f perspectiveInto() {
+        return GraphicConveyor.perspective(1, 16f / 9, 0.01f, 1000, dest);
+    }
+
+    @Benchmark
+    public Matrix4f createModelMatrix() {
+        return GraphicConveyor.createModelMatrix(translation, rotation, scale);
+    }
+
+    @Benchmark
+    public Matrix4f createModelMatrixInto() {
+        return GraphicConveyor.createModelMatrix(translation, rotation, scale, dest);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void multiplyMatrix4ByVector3(Blackhole blackhole) {
+        for (Vector3f vertex : vertices) {
+            Vector3f v = GraphicConveyor.multiplyMatrix4ByVector3(mvp, vertex);
+            blackhole.consume(GraphicConveyor.vertexToPoint(v, WIDTH, HEIGHT));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void multiplyMatrix4ByVector3Into(Blackhole blackhole) {
+        for (Vector3f vertex : vertices) {
+            GraphicConveyor.multiplyMatrix4ByVector3(mvp, vertex, vertexDest);
+            blackhole.consume(GraphicConveyor.vertexToPoint(vertexDest, WIDTH, HEIGHT, pointDest));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public float[] transformVertices() {
+        GraphicConveyor.transformVertices(packedVertices, VERTEX_COUNT, mvp, WIDTH, HEIGHT, transformed);
+        return transformed;
+    }
+}
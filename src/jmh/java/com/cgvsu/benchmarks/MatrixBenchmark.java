@@ -0,0 +1,103 @@
+package com.cgvsu.benchmarks;
+
+import com.cgvsu.math.Matrix4f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.math.Vector4f;
+import com.cgvsu.model.ModelTransform;
+import com.cgvsu.render_engine.Camera;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Умножение матриц 4x4 и матрицы на вектор: варианты с созданием результата и с dest-параметром.
+ * Для dest-вариантов gc.alloc.rate.norm должен быть равен нулю.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatrixBenchmark {
+
+    private Matrix4f a;
+    private Matrix4f b;
+    private Matrix4f c;
+    // Обратимые матрицы для обращения: общая (вид-проекция камеры) и аффинная (матрица модели)
+    private Matrix4f viewProjection;
+    private Matrix4f modelMatrix;
+    private Matrix4f dest;
+    private Vector4f vector;
+    private Vector4f vectorDest;
+
+    @Setup
+    public void setup() {
+        float[][] da = new float[4][4];
+        float[][] db = new float[4][4];
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                da[i][j] = i * 4 + j + 1;
+                db[i][j] = (i - j) * 0.5f;
+            }
+        }
+        a = new Matrix4f(da);
+        b = new Matrix4f(db);
+        c = new Matrix4f(a);
+        dest = new Matrix4f();
+        vector = new Vector4f(1, 2, 3, 1);
+        vectorDest = new Vector4f();
+
+        Camera camera = new Camera(new Vector3f(3, 4, 10), new Vector3f(0, 1, 0), 1, 1.5f, 0.1f, 100);
+        viewProjection = new Matrix4f(camera.getViewProjectionMatrix());
+        ModelTransform transform = new ModelTransform();
+        transform.setTranslation(new Vector3f(1, -2, 3));
+        transform.setRotation(new Vector3f(0.3f, -0.7f, 1.1f));
+        transform.setScale(new Vector3f(2, 0.5f, 1.5f));
+        modelMatrix = new Matrix4f(transform.getModelMatrix());
+    }
+
+    @Benchmark
+    public Matrix4f multiply() {
+        return a.multiply(b);
+    }
+
+    @Benchmark
+    public Matrix4f mulInto() {
+        return Matrix4f.mulInto(a, b, dest);
+    }
+
+    @Benchmark
+    public Matrix4f mulIntoThree() {
+        return Matrix4f.mulInto(a, b, c, dest);
+    }
+
+    @Benchmark
+    public Vector4f multiplyVector() {
+        return a.multiply(vector);
+    }
+
+    @Benchmark
+    public Vector4f multiplyVectorInto() {
+        return a.multiply(vector, vectorDest);
+    }
+
+    @Benchmark
+    public Matrix4f invert() {
+        return viewProjection.invertInto(dest);
+    }
+
+    @Benchmark
+    public Matrix4f invertAffine() {
+        return modelMatrix.invertAffineInto(dest);
+    }
+}
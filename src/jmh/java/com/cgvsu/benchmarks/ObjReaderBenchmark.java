@@ -0,0 +1,107 @@
+package com.cgvsu.benchmarks;
+
+import com.cgvsu.model.Model;
+import com.cgvsu.objreader.MeshCache;
+import com.cgvsu.objreader.ObjReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение OBJ-сетки 400x400 (v, vt, vn и грани v/vt/vn, около 30 МБ текста) из памяти и из файла.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ObjReaderBenchmark {
+
+    private static final int GRID_SIZE = 400;
+
+    private byte[] content;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(1);
+        StringBuilder obj = new StringBuilder();
+        for (int y = 0; y <= GRID_SIZE; y++) {
+            for (int x = 0; x <= GRID_SIZE; x++) {
+                obj.append(String.format(Locale.ROOT, "v %.6f %.6f %.6f%n",
+                        x * 0.1f, y * 0.1f, random.nextFloat() - 0.5f));
+                obj.append(String.format(Locale.ROOT, "vt %.6f %.6f%n",
+                        x / (float) GRID_SIZE, y / (float) GRID_SIZE));
+                obj.append(String.format(Locale.ROOT, "vn %.6f %.6f %.6f%n",
+                        random.nextFloat(), random.nextFloat(), 1f));
+            }
+        }
+        for (int y = 0; y < GRID_SIZE; y++) {
+            for (int x = 0; x < GRID_SIZE; x++) {
+                int a = y * (GRID_SIZE + 1) + x + 1;
+                int b = a + 1;
+                int c = a + GRID_SIZE + 2;
+                int d = a + GRID_SIZE + 1;
+                obj.append("f ").append(a).append('/').append(a).append('/').append(a)
+                        .append(' ').append(b).append('/').append(b).append('/').append(b)
+                        .append(' ').append(c).append('/').append(c).append('/').append(c)
+                        .append(' ').append(d).append('/').append(d).append('/').append(d).append('\n');
+            }
+        }
+        content = obj.toString().getBytes(StandardCharsets.UTF_8);
+        file = Files.createTempFile("grid", ".obj");
+        Files.write(file, content);
+        MeshCache.read(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+        Files.delete(MeshCache.cacheFile(file));
+    }
+
+    @Benchmark
+    public Model readStream() throws IOException {
+        return ObjReader.read(new ByteArrayInputStream(content));
+    }
+
+    @Benchmark
+    public Model readParallel() {
+        return ObjReader.readParallel(content);
+    }
+
+    // Файл только что записан и лежит в кэше страниц
+    @Benchmark
+    public Model readPath() throws IOException {
+        return ObjReader.read(file);
+    }
+
+    @Benchmark
+    public Model readMapped() throws IOException {
+        return ObjReader.readParallel(file);
+    }
+
+    // Кэш записан в setup, разбора текста нет
+    @Benchmark
+    public Model readCached() throws IOException {
+        return MeshCache.read(file);
+    }
+}
@@ -0,0 +1,95 @@
+package com.cgvsu.benchmarks;
+
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+import com.cgvsu.render_engine.Camera;
+import com.cgvsu.render_engine.FrameBuffer;
+import com.cgvsu.render_engine.RenderEngine;
+import com.cgvsu.render_engine.TileRasterizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сплошная заливка сетки из ~2M треугольников в кадр 1920x1080: в одном потоке
+ * и плитками с разным числом потоков.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SolidRenderBenchmark {
+
+    private static final int GRID_SIZE = 1000;
+
+    @Param({"1", "4", "16"})
+    public int threads;
+
+    private final Camera camera = new Camera(
+            new Vector3f(0, 0, 120), new Vector3f(0, 0, 0), 1, 16f / 9, 0.1f, 1000);
+    private final FrameBuffer frameBuffer = new FrameBuffer(1920, 1080);
+    private Model model;
+    private List<Model> scene;
+    private ForkJoinPool pool;
+    private TileRasterizer rasterizer;
+
+    @Setup
+    public void setup() {
+        model = new Model();
+        for (int y = 0; y <= GRID_SIZE; y++) {
+            for (int x = 0; x <= GRID_SIZE; x++) {
+                float u = x * 0.1f - GRID_SIZE * 0.05f;
+                float v = y * 0.1f - GRID_SIZE * 0.05f;
+                model.vertices.add(new Vector3f(u, v, (float) Math.sin(u) * (float) Math.cos(v)));
+            }
+        }
+        for (int y = 0; y < GRID_SIZE; y++) {
+            for (int x = 0; x < GRID_SIZE; x++) {
+                int corner = y * (GRID_SIZE + 1) + x;
+                Polygon polygon = new Polygon();
+                polygon.setVertexIndices(new ArrayList<>(
+                        List.of(corner, corner + 1, corner + GRID_SIZE + 2, corner + GRID_SIZE + 1)));
+                model.polygons.add(polygon);
+            }
+        }
+        scene = List.of(model);
+        pool = new ForkJoinPool(threads);
+        rasterizer = new TileRasterizer(TileRasterizer.DEFAULT_TILE_SIZE, pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public FrameBuffer renderSolid() {
+        frameBuffer.clear(0xFFFFFFFF);
+        RenderEngine.renderSolid(frameBuffer, camera, model);
+        return frameBuffer;
+    }
+
+    @Benchmark
+    public FrameBuffer renderSolidTiled() {
+        frameBuffer.clear(0xFFFFFFFF);
+        RenderEngine.renderSolid(frameBuffer, camera, scene, rasterizer);
+        return frameBuffer;
+    }
+}
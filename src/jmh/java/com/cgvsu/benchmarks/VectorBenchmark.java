@@ -0,0 +1,73 @@
+package com.cgvsu.benchmarks;
+
+import com.cgvsu.math.Vector3f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Операции Vector3f: создающие новый объект и записывающие результат в dest.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VectorBenchmark {
+
+    private Vector3f a;
+    private Vector3f b;
+    private Vector3f dest;
+
+    @Setup
+    public void setup() {
+        a = new Vector3f(1, 2, 3);
+        b = new Vector3f(-4, 0.5f, 7);
+        dest = new Vector3f();
+    }
+
+    @Benchmark
+    public Vector3f add() {
+        return a.add(b);
+    }
+
+    @Benchmark
+    public Vector3f addInto() {
+        return a.addInto(b, dest);
+    }
+
+    @Benchmark
+    public Vector3f cross() {
+        return a.cross(b);
+    }
+
+    @Benchmark
+    public Vector3f crossInto() {
+        return a.crossInto(b, dest);
+    }
+
+    @Benchmark
+    public Vector3f normalized() {
+        return a.normalized();
+    }
+
+    @Benchmark
+    public Vector3f normalizedInto() {
+        return a.normalizedInto(dest);
+    }
+
+    @Benchmark
+    public float dot() {
+        return a.dot(b);
+    }
+}
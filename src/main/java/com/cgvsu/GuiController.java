@@ -2,15 +2,15 @@ package com.cgvsu;
 
 import com.cgvsu.math.Vector3f;
 import com.cgvsu.model.Model;
-import com.cgvsu.objreader.ObjReader;
+import com.cgvsu.objreader.MeshCache;
 import com.cgvsu.objwriter.ObjWriter;
 import com.cgvsu.removers.PolygonRemover;
 import com.cgvsu.removers.VertexRemover;
+import com.cgvsu.render_engine.BackgroundRenderer;
 import com.cgvsu.render_engine.Camera;
-import com.cgvsu.render_engine.RenderEngine;
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import com.cgvsu.render_engine.RenderMode;
+import com.cgvsu.render_engine.TileRasterizer;
+import javafx.animation.AnimationTimer;
 import javafx.fxml.FXML;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
@@ -21,10 +21,8 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
 import java.io.File;
-import java.nio.file.Files;
 import java.util.*;
 
 public class GuiController {
@@ -39,6 +37,13 @@ public class GuiController {
     @FXML private Button deleteVertexBtn, deletePolygonBtn;
     @FXML private CheckBox deleteFreeVerticesCheckBox;
     @FXML private VBox modelListVBox;
+    @FXML private ComboBox<RenderMode> renderModeComboBox;
+    @FXML private CheckBox backFaceCullingCheckBox;
+    @FXML private CheckBox antialiasedLinesCheckBox;
+    @FXML private CheckBox hiddenLineRemovalCheckBox;
+    @FXML private CheckBox adaptiveResolutionCheckBox;
+    @FXML private CheckBox progressiveRenderingCheckBox;
+    @FXML private Label renderStatsLabel;
 
     private final ArrayList<Model> models = new ArrayList<>();
     private final ArrayList<CheckBox> modelVisibilityCheckboxes = new ArrayList<>();
@@ -46,6 +51,32 @@ public class GuiController {
     private int activeModelIndex = -1;
     private final Camera camera = new Camera(new Vector3f(0,0,100), new Vector3f(0,0,0), 1,1,0.01f,1000);
     private boolean isUpdatingFields = false;
+    private static final int BACKGROUND_COLOR = 0xFFFFFFFF;
+    private static final int LINE_COLOR = 0xFF000000;
+    private final BackgroundRenderer renderer = new BackgroundRenderer(BACKGROUND_COLOR, LINE_COLOR, new TileRasterizer());
+    private final ArrayList<Model> visibleModels = new ArrayList<>();
+
+    // Кадр перерисовывается только после изменений сцены; все запросы за один импульс JavaFX
+    // объединяются в один снимок для потока отрисовки. Таймер показывает готовые кадры и
+    // останавливается, когда новых запросов нет и поток отрисовки свободен
+    private final AnimationTimer renderTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (renderRequested) {
+                renderRequested = false;
+                requestFrame();
+            }
+            presentFrame();
+            if (!renderRequested && !renderer.isBusy()) {
+                stop();
+                renderTimerRunning = false;
+            }
+        }
+    };
+    private boolean renderRequested;
+    private boolean renderTimerRunning;
+    private long framesRendered;
+    private long renderRequests;
 
     public void setScene(Scene scene) {
         scene.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
@@ -58,6 +89,7 @@ public class GuiController {
                 case S -> camera.movePosition(new Vector3f(0, -2.5f, 0));
                 default -> { return; }
             }
+            requestRender();
             canvas.requestFocus();
             e.consume();
         });
@@ -69,6 +101,9 @@ public class GuiController {
         anchorPane.widthProperty().addListener((a,b,c)->canvas.setWidth(c.doubleValue()-260));
         anchorPane.heightProperty().addListener((a,b,c)->canvas.setHeight(c.doubleValue()-30));
 
+        renderModeComboBox.getItems().setAll(RenderMode.values());
+        renderModeComboBox.setValue(RenderMode.WIREFRAME_PATH);
+
         setTransformControls(false);
         txField.textProperty().addListener((observable, oldValue, newValue) -> {
             if (!isUpdatingFields && getActiveModel() != null && !newValue.isEmpty()) {
@@ -147,17 +182,60 @@ public class GuiController {
                 } catch (NumberFormatException ignored) {}
             }
         });
-        Timeline t = new Timeline(new KeyFrame(Duration.millis(16), e -> {
-            var g = canvas.getGraphicsContext2D();
-            g.clearRect(0,0,canvas.getWidth(),canvas.getHeight());
-            camera.setAspectRatio((float)(canvas.getWidth()/canvas.getHeight()));
-            for (int i = 0; i < models.size(); i++) {
-                if(modelVisibilityCheckboxes.get(i).isSelected())
-                    RenderEngine.render(g,camera,models.get(i),(int)canvas.getWidth(),(int)canvas.getHeight());
-            }
-        }));
-        t.setCycleCount(Animation.INDEFINITE);
-        t.play();
+        for (TextField field : Arrays.asList(txField, tyField, tzField, rxField, ryField, rzField, sxField, syField, szField)) {
+            field.textProperty().addListener((observable, oldValue, newValue) -> requestRender());
+        }
+        canvas.widthProperty().addListener((observable, oldValue, newValue) -> requestRender());
+        canvas.heightProperty().addListener((observable, oldValue, newValue) -> requestRender());
+        renderModeComboBox.valueProperty().addListener((observable, oldValue, newValue) -> requestRender());
+        backFaceCullingCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> requestRender());
+        antialiasedLinesCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> requestRender());
+        hiddenLineRemovalCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> requestRender());
+        adaptiveResolutionCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> requestRender());
+        progressiveRenderingCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> requestRender());
+        requestRender();
+    }
+
+    private void requestRender() {
+        renderRequested = true;
+        renderRequests++;
+        if (!renderTimerRunning) {
+            renderTimerRunning = true;
+            renderTimer.start();
+        }
+    }
+
+    // Снимок сцены для потока отрисовки; сам кадр строится в фоне
+    private void requestFrame() {
+        int width = (int) canvas.getWidth();
+        int height = (int) canvas.getHeight();
+        camera.setAspectRatio((float)(canvas.getWidth()/canvas.getHeight()));
+        visibleModels.clear();
+        for (int i = 0; i < models.size(); i++) {
+            if(modelVisibilityCheckboxes.get(i).isSelected())
+                visibleModels.add(models.get(i));
+        }
+        renderer.requestFrame(camera, visibleModels, renderModeComboBox.getValue(),
+                backFaceCullingCheckBox.isSelected(), antialiasedLinesCheckBox.isSelected(),
+                hiddenLineRemovalCheckBox.isSelected(), adaptiveResolutionCheckBox.isSelected(),
+                progressiveRenderingCheckBox.isSelected(), width, height);
+    }
+
+    private void presentFrame() {
+        BackgroundRenderer.Frame frame = renderer.pollFrame();
+        if (frame == null) return;
+        frame.present(canvas.getGraphicsContext2D());
+        String frameStats = frame.getStats();
+        float frameScale = frame.getScale();
+        renderer.releaseFrame(frame);
+
+        framesRendered++;
+        String statsText = "frames: " + framesRendered + ", render requests: " + renderRequests
+                + String.format(Locale.ROOT, ", scale: %.2f", frameScale)
+                + "\n" + frameStats;
+        if (!statsText.equals(renderStatsLabel.getText())) {
+            renderStatsLabel.setText(statsText);
+        }
     }
 
     @FXML
@@ -168,12 +246,13 @@ public class GuiController {
         if (f == null) return;
 
         try {
-            Model model = ObjReader.read(Files.readString(f.toPath()));
+            Model model = MeshCache.read(f.toPath());
             models.add(model);
             int index = models.size()-1;
 
             CheckBox cb = new CheckBox("Model "+models.size());
             cb.setSelected(true);
+            cb.selectedProperty().addListener((observable, oldValue, newValue) -> requestRender());
             modelVisibilityCheckboxes.add(cb);
 
             RadioButton rb = new RadioButton();
@@ -188,6 +267,7 @@ public class GuiController {
             activeModelIndex = index;
             loadActiveModelToFields();
             setTransformControls(true);
+            requestRender();
             canvas.requestFocus();
 
         } catch (Exception ex) {
@@ -245,6 +325,7 @@ public class GuiController {
         m.getTransform().getScale().setY(1);
         m.getTransform().getScale().setZ(1);
         loadActiveModelToFields();
+        requestRender();
     }
 
     @FXML private void onResetAllTransformsButtonClick() {
@@ -260,6 +341,7 @@ public class GuiController {
             m.getTransform().getScale().setZ(1);
         }
         loadActiveModelToFields();
+        requestRender();
     }
 
     @FXML private void onDeleteVertices() {
@@ -267,6 +349,7 @@ public class GuiController {
         if(m==null) return;
         VertexRemover.deleteVertices(m, parse(vertexIndicesField.getText()), true);
         vertexIndicesField.clear();
+        requestRender();
     }
 
     @FXML private void onDeletePolygons() {
@@ -274,6 +357,7 @@ public class GuiController {
         if(m==null) return;
         PolygonRemover.deletePolygons(m, parse(polygonIndicesField.getText()), deleteFreeVerticesCheckBox.isSelected());
         polygonIndicesField.clear();
+        requestRender();
     }
 
     @FXML private void onSaveModel() throws Exception {
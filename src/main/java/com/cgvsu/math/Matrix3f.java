@@ -5,7 +5,7 @@ import com.cgvsu.exceptions.MathException;
 /**
  * Класс {@code Matrix3f} представляет квадратную матрицу размером 3x3
  * и предоставляет основные операции линейной алгебры:
- * сложение, вычитание, умножение, транспонирование и вычисление определителя.
+ * сложение, вычитание, умножение, транспонирование, обращение и вычисление определителя.
  */
 public class Matrix3f {
 
@@ -159,6 +159,35 @@ public class Matrix3f {
         return MatrixMath.determinant3(this.data);
     }
 
+    /**
+     * Возвращает обратную матрицу.
+     *
+     * @return новая матрица — обратная к текущей
+     * @throws MathException если матрица вырождена
+     */
+    public Matrix3f invert() {
+        return invertInto(new Matrix3f());
+    }
+
+    /**
+     * Записывает обратную матрицу в {@code dest}.
+     *
+     * @param dest матрица для результата (может совпадать с текущей)
+     * @return {@code dest}
+     * @throws MathException если матрица вырождена
+     */
+    public Matrix3f invertInto(Matrix3f dest) {
+        MatrixMath.invert3(this.data, dest.data);
+        return dest;
+    }
+
+    /**
+     * Внутренний массив для методов пакета, заполняющих матрицу без копирования.
+     */
+    float[][] data() {
+        return data;
+    }
+
     /**
      * Сравнивает текущую матрицу с другой на равенство
      * с учётом погрешности вычислений с плавающей точкой.
@@ -3,18 +3,25 @@ package com.cgvsu.math;
 
 import com.cgvsu.exceptions.MathException;
 
+import java.util.Arrays;
+
 
 /**
  * Класс {@code Matrix4f} представляет квадратную матрицу размером 4x4
  * и предоставляет основные операции линейной алгебры:
- * сложение, вычитание, умножение и транспонирование.
+ * сложение, вычитание, умножение, транспонирование и обращение.
+ * <p>
+ * Помимо операций, возвращающих новую матрицу, класс содержит варианты
+ * {@code ...Into}, которые записывают результат в заранее созданную матрицу
+ * и не выделяют память. Их следует использовать в цикле отрисовки.
  */
 public class Matrix4f {
 
-    /**_
-     * Внутреннее представление матрицы в виде двумерного массива 4x4.
+    /**
+     * Внутреннее представление матрицы: плоский массив из 16 элементов,
+     * хранящихся по строкам (элемент {@code (row, col)} лежит в {@code data[row * 4 + col]}).
      */
-    private final float[][] data;
+    private final float[] data;
 
     /**
      * Создаёт матрицу 4x4 на основе переданного двумерного массива.
@@ -26,23 +33,41 @@ public class Matrix4f {
         if (data.length != 4 || data[0].length != 4) {
             throw new MathException("Матрица должна быть размером 4x4");
         }
-        this.data = new float[4][4];
+        this.data = new float[16];
         for (int i = 0; i < 4; i++) {
-            System.arraycopy(data[i], 0, this.data[i], 0, 4);
+            System.arraycopy(data[i], 0, this.data, i * 4, 4);
         }
     }
-    /*private Matrix4f(float[][] d, boolean x) {
-        this.data = d;
-    }*/
+
+    /**
+     * Создаёт матрицу 4x4 на основе плоского массива из 16 элементов,
+     * записанных по строкам.
+     *
+     * @param data массив из 16 элементов
+     * @throws MathException если длина массива не равна 16
+     */
+    public Matrix4f(float[] data) {
+        if (data.length != 16) {
+            throw new MathException("Матрица должна быть размером 4x4");
+        }
+        this.data = data.clone();
+    }
+
+    /**
+     * Создаёт копию другой матрицы 4x4.
+     *
+     * @param other исходная матрица
+     */
+    public Matrix4f(Matrix4f other) {
+        this.data = other.data.clone();
+    }
 
     /**
      * Создаёт единичную матрицу 4x4.
      */
     public Matrix4f() {
-        this.data = new float[4][4];
-        for (int i = 0; i < 4; i++) {
-            data[i][i] = 1.0F;
-        }
+        this.data = new float[16];
+        setIdentity();
     }
 
     /**
@@ -51,7 +76,7 @@ public class Matrix4f {
      * @return нулевая матрица
      */
     public static Matrix4f zero() {
-        return new Matrix4f(new float[4][4]);
+        return new Matrix4f(new float[16]);
     }
 
     /**
@@ -71,7 +96,75 @@ public class Matrix4f {
      * @return значение элемента матрицы
      */
     public float get(int row, int col) {
-        return data[row][col];
+        return data[row * 4 + col];
+    }
+
+    /**
+     * Устанавливает значение элемента матрицы по индексам.
+     *
+     * @param row номер строки (0..3)
+     * @param col номер столбца (0..3)
+     * @param value новое значение элемента
+     */
+    public void set(int row, int col, float value) {
+        data[row * 4 + col] = value;
+    }
+
+    /**
+     * Копирует в текущую матрицу все элементы другой матрицы.
+     *
+     * @param other исходная матрица
+     * @return текущая матрица
+     */
+    public Matrix4f set(Matrix4f other) {
+        System.arraycopy(other.data, 0, data, 0, 16);
+        return this;
+    }
+
+    /**
+     * Копирует в текущую матрицу 16 элементов плоского массива, записанных по строкам.
+     *
+     * @param src массив из 16 элементов
+     * @return текущая матрица
+     */
+    public Matrix4f set(float[] src) {
+        System.arraycopy(src, 0, data, 0, 16);
+        return this;
+    }
+
+    /**
+     * Копирует элементы матрицы (по строкам) в переданный массив.
+     *
+     * @param dest массив длиной не меньше 16
+     * @return переданный массив
+     */
+    public float[] copyTo(float[] dest) {
+        System.arraycopy(data, 0, dest, 0, 16);
+        return dest;
+    }
+
+    /**
+     * Превращает текущую матрицу в нулевую.
+     *
+     * @return текущая матрица
+     */
+    public Matrix4f setZero() {
+        Arrays.fill(data, 0.0F);
+        return this;
+    }
+
+    /**
+     * Превращает текущую матрицу в единичную.
+     *
+     * @return текущая матрица
+     */
+    public Matrix4f setIdentity() {
+        Arrays.fill(data, 0.0F);
+        data[0] = 1.0F;
+        data[5] = 1.0F;
+        data[10] = 1.0F;
+        data[15] = 1.0F;
+        return this;
     }
 
     /**
@@ -81,23 +174,21 @@ public class Matrix4f {
      * @return новая матрица — результат сложения
      */
     public Matrix4f add(Matrix4f other) {
-        return new Matrix4f(
-                MatrixMath.add(this.data, other.data, 4)
-        );
+        return addInto(other, new Matrix4f());
     }
 
     /**
-     * Устанавливает значение элемента матрицы по индексам.
+     * Складывает текущую матрицу с другой и записывает результат в {@code dest}.
      *
-     * @param row номер строки (0..3)
-     * @param col номер столбца (0..3)
-     * @param value новое значение элемента
+     * @param other матрица-слагаемое
+     * @param dest матрица для результата (может совпадать с операндами)
+     * @return {@code dest}
      */
-    public void set(int row, int col, float value) {
-        data[row][col] = value;
+    public Matrix4f addInto(Matrix4f other, Matrix4f dest) {
+        MatrixMath.add4(this.data, other.data, dest.data);
+        return dest;
     }
 
-
     /**
      * Вычитает из текущей матрицы другую матрицу 4x4.
      *
@@ -105,21 +196,76 @@ public class Matrix4f {
      * @return новая матрица — результат вычитания
      */
     public Matrix4f subtract(Matrix4f other) {
-        return new Matrix4f(
-                MatrixMath.subtract(this.data, other.data, 4)
-        );
+        return subtractInto(other, new Matrix4f());
+    }
+
+    /**
+     * Вычитает из текущей матрицы другую и записывает результат в {@code dest}.
+     *
+     * @param other матрица-вычитаемое
+     * @param dest матрица для результата (может совпадать с операндами)
+     * @return {@code dest}
+     */
+    public Matrix4f subtractInto(Matrix4f other, Matrix4f dest) {
+        MatrixMath.subtract4(this.data, other.data, dest.data);
+        return dest;
     }
 
     /**
      * Умножает текущую матрицу на другую матрицу 4x4.
      *
      * @param other матрица-множитель
-     * @return новая матрица  результат умножения
+     * @return новая матрица — результат умножения
      */
     public Matrix4f multiply(Matrix4f other) {
-        return new Matrix4f(
-                MatrixMath.multiply(this.data, other.data, 4)
-        );
+        return mulInto(this, other, new Matrix4f());
+    }
+
+    /**
+     * Умножает текущую матрицу на другую и записывает результат в {@code dest}.
+     *
+     * @param other матрица-множитель
+     * @param dest матрица для результата (может совпадать с операндами)
+     * @return {@code dest}
+     */
+    public Matrix4f multiplyInto(Matrix4f other, Matrix4f dest) {
+        return mulInto(this, other, dest);
+    }
+
+    /**
+     * Вычисляет произведение {@code a * b} и записывает его в {@code dest},
+     * не выделяя память. {@code dest} может совпадать с {@code a} или {@code b}.
+     *
+     * @param a левая матрица
+     * @param b правая матрица
+     * @param dest матрица для результата
+     * @return {@code dest}
+     */
+    public static Matrix4f mulInto(Matrix4f a, Matrix4f b, Matrix4f dest) {
+        MatrixMath.multiply4(a.data, b.data, dest.data);
+        return dest;
+    }
+
+    /**
+     * Вычисляет произведение {@code a * b * c} и записывает его в {@code dest}.
+     * {@code dest} может совпадать с любым из операндов.
+     *
+     * @param a левая матрица
+     * @param b средняя матрица
+     * @param c правая матрица
+     * @param dest матрица для результата
+     * @return {@code dest}
+     */
+    public static Matrix4f mulInto(Matrix4f a, Matrix4f b, Matrix4f c, Matrix4f dest) {
+        if (dest == c) {
+            // a * (b * c): промежуточный результат можно хранить прямо в dest
+            MatrixMath.multiply4(b.data, c.data, dest.data);
+            MatrixMath.multiply4(a.data, dest.data, dest.data);
+        } else {
+            MatrixMath.multiply4(a.data, b.data, dest.data);
+            MatrixMath.multiply4(dest.data, c.data, dest.data);
+        }
+        return dest;
     }
 
     /**
@@ -129,27 +275,38 @@ public class Matrix4f {
      * @return новый вектор — результат умножения
      */
     public Vector4f multiply(Vector4f v) {
-        float x = data[0][0] * v.getX()
-                + data[0][1] * v.getY()
-                + data[0][2] * v.getZ()
-                + data[0][3] * v.getW();
+        return multiply(v, new Vector4f());
+    }
 
-        float y = data[1][0] * v.getX()
-                + data[1][1] * v.getY()
-                + data[1][2] * v.getZ()
-                + data[1][3] * v.getW();
+    /**
+     * Умножает матрицу 4x4 на вектор размерности 4 и записывает результат в {@code dest}.
+     *
+     * @param v вектор-множитель
+     * @param dest вектор для результата (может совпадать с {@code v})
+     * @return {@code dest}
+     */
+    public Vector4f multiply(Vector4f v, Vector4f dest) {
+        float x = data[0] * v.getX()
+                + data[1] * v.getY()
+                + data[2] * v.getZ()
+                + data[3] * v.getW();
+
+        float y = data[4] * v.getX()
+                + data[5] * v.getY()
+                + data[6] * v.getZ()
+                + data[7] * v.getW();
 
-        float z = data[2][0] * v.getX()
-                + data[2][1] * v.getY()
-                + data[2][2] * v.getZ()
-                + data[2][3] * v.getW();
+        float z = data[8] * v.getX()
+                + data[9] * v.getY()
+                + data[10] * v.getZ()
+                + data[11] * v.getW();
 
-        float w = data[3][0] * v.getX()
-                + data[3][1] * v.getY()
-                + data[3][2] * v.getZ()
-                + data[3][3] * v.getW();
+        float w = data[12] * v.getX()
+                + data[13] * v.getY()
+                + data[14] * v.getZ()
+                + data[15] * v.getW();
 
-        return new Vector4f(x, y, z, w);
+        return dest.set(x, y, z, w);
     }
 
     /**
@@ -158,9 +315,78 @@ public class Matrix4f {
      * @return новая матрица - транспонированная к текущей
      */
     public Matrix4f transpose() {
-        return new Matrix4f(
-                MatrixMath.transpose(this.data, 4)
-        );
+        return transposeInto(new Matrix4f());
+    }
+
+    /**
+     * Записывает транспонированную матрицу в {@code dest}.
+     *
+     * @param dest матрица для результата (может совпадать с текущей)
+     * @return {@code dest}
+     */
+    public Matrix4f transposeInto(Matrix4f dest) {
+        MatrixMath.transpose4(this.data, dest.data);
+        return dest;
+    }
+
+    /**
+     * Возвращает обратную матрицу.
+     *
+     * @return новая матрица — обратная к текущей
+     * @throws MathException если матрица вырождена
+     */
+    public Matrix4f invert() {
+        return invertInto(new Matrix4f());
+    }
+
+    /**
+     * Записывает обратную матрицу в {@code dest}.
+     *
+     * @param dest матрица для результата (может совпадать с текущей)
+     * @return {@code dest}
+     * @throws MathException если матрица вырождена
+     */
+    public Matrix4f invertInto(Matrix4f dest) {
+        MatrixMath.invert4(this.data, dest.data);
+        return dest;
+    }
+
+    /**
+     * Возвращает обратную матрицу для аффинного преобразования
+     * (последняя строка равна (0, 0, 0, 1)), например матрицы модели или вида.
+     * Работает заметно быстрее {@link #invert()}.
+     *
+     * @return новая матрица — обратная к текущей
+     * @throws MathException если блок 3x3 вырожден
+     */
+    public Matrix4f invertAffine() {
+        return invertAffineInto(new Matrix4f());
+    }
+
+    /**
+     * Записывает в {@code dest} обратную матрицу аффинного преобразования.
+     * Последняя строка текущей матрицы не проверяется и считается равной (0, 0, 0, 1).
+     *
+     * @param dest матрица для результата (может совпадать с текущей)
+     * @return {@code dest}
+     * @throws MathException если блок 3x3 вырожден
+     */
+    public Matrix4f invertAffineInto(Matrix4f dest) {
+        MatrixMath.invertAffine4(this.data, dest.data);
+        return dest;
+    }
+
+    /**
+     * Записывает в {@code dest} матрицу нормалей — транспонированную обратную
+     * к левому верхнему блоку 3x3. Ею преобразуются нормали при неравномерном масштабе.
+     *
+     * @param dest матрица 3x3 для результата
+     * @return {@code dest}
+     * @throws MathException если блок 3x3 вырожден
+     */
+    public Matrix3f normalMatrix(Matrix3f dest) {
+        MatrixMath.normalMatrix4(this.data, dest.data());
+        return dest;
     }
 
     /**
@@ -176,11 +402,9 @@ public class Matrix4f {
         if (obj == null || getClass() != obj.getClass()) return false;
 
         Matrix4f other = (Matrix4f) obj;
-        for (int i = 0; i < 4; i++) {
-            for (int j = 0; j < 4; j++) {
-                if (Math.abs(this.data[i][j] - other.data[i][j]) >= 1e-10) {
-                    return false;
-                }
+        for (int i = 0; i < 16; i++) {
+            if (Math.abs(this.data[i] - other.data[i]) >= 1e-10) {
+                return false;
             }
         }
         return true;
@@ -197,7 +421,7 @@ public class Matrix4f {
         for (int i = 0; i < 4; i++) {
             sb.append("[");
             for (int j = 0; j < 4; j++) {
-                sb.append(String.format("%.4f", data[i][j]));
+                sb.append(String.format("%.4f", data[i * 4 + j]));
                 if (j < 3) sb.append(", ");
             }
             sb.append("]\n");
@@ -5,8 +5,8 @@ import com.cgvsu.exceptions.MathException;
 
 /**
  * Вспомогательный класс с общей математикой для квадратных матриц.
- * Предоставляет методы сложения, вычитания, умножения, транспонирования
- * и вычисления определителя для использования в {@link Matrix3f} и {@link Matrix4f}.
+ * Предоставляет методы сложения, вычитания, умножения, транспонирования,
+ * обращения и вычисления определителя для использования в {@link Matrix3f} и {@link Matrix4f}.
  */
 final class MatrixMath {
 
@@ -118,6 +118,266 @@ final class MatrixMath {
         return result;
     }
 
+    /**
+     * Складывает две матрицы 4x4, хранящиеся в плоских массивах по строкам,
+     * и записывает результат в {@code dest}.
+     *
+     * @param a    первая матрица
+     * @param b    вторая матрица
+     * @param dest массив для результата (может совпадать с {@code a} или {@code b})
+     */
+    static void add4(float[] a, float[] b, float[] dest) {
+        for (int i = 0; i < 16; i++) {
+            dest[i] = a[i] + b[i];
+        }
+    }
+
+    /**
+     * Вычитает одну матрицу 4x4 из другой (плоское хранение по строкам)
+     * и записывает результат в {@code dest}.
+     *
+     * @param a    уменьшаемое
+     * @param b    вычитаемое
+     * @param dest массив для результата (может совпадать с {@code a} или {@code b})
+     */
+    static void subtract4(float[] a, float[] b, float[] dest) {
+        for (int i = 0; i < 16; i++) {
+            dest[i] = a[i] - b[i];
+        }
+    }
+
+    /**
+     * Умножает две матрицы 4x4 (плоское хранение по строкам) без выделения памяти.
+     * Цикл развёрнут полностью; операнды сначала читаются в локальные переменные,
+     * поэтому {@code dest} может совпадать с {@code a} или {@code b}.
+     *
+     * @param a    левая матрица
+     * @param b    правая матрица
+     * @param dest массив для результата {@code a * b}
+     */
+    static void multiply4(float[] a, float[] b, float[] dest) {
+        float a00 = a[0], a01 = a[1], a02 = a[2], a03 = a[3];
+        float a10 = a[4], a11 = a[5], a12 = a[6], a13 = a[7];
+        float a20 = a[8], a21 = a[9], a22 = a[10], a23 = a[11];
+        float a30 = a[12], a31 = a[13], a32 = a[14], a33 = a[15];
+        float b00 = b[0], b01 = b[1], b02 = b[2], b03 = b[3];
+        float b10 = b[4], b11 = b[5], b12 = b[6], b13 = b[7];
+        float b20 = b[8], b21 = b[9], b22 = b[10], b23 = b[11];
+        float b30 = b[12], b31 = b[13], b32 = b[14], b33 = b[15];
+
+        dest[0] = a00 * b00 + a01 * b10 + a02 * b20 + a03 * b30;
+        dest[1] = a00 * b01 + a01 * b11 + a02 * b21 + a03 * b31;
+        dest[2] = a00 * b02 + a01 * b12 + a02 * b22 + a03 * b32;
+        dest[3] = a00 * b03 + a01 * b13 + a02 * b23 + a03 * b33;
+        dest[4] = a10 * b00 + a11 * b10 + a12 * b20 + a13 * b30;
+        dest[5] = a10 * b01 + a11 * b11 + a12 * b21 + a13 * b31;
+        dest[6] = a10 * b02 + a11 * b12 + a12 * b22 + a13 * b32;
+        dest[7] = a10 * b03 + a11 * b13 + a12 * b23 + a13 * b33;
+        dest[8] = a20 * b00 + a21 * b10 + a22 * b20 + a23 * b30;
+        dest[9] = a20 * b01 + a21 * b11 + a22 * b21 + a23 * b31;
+        dest[10] = a20 * b02 + a21 * b12 + a22 * b22 + a23 * b32;
+        dest[11] = a20 * b03 + a21 * b13 + a22 * b23 + a23 * b33;
+        dest[12] = a30 * b00 + a31 * b10 + a32 * b20 + a33 * b30;
+        dest[13] = a30 * b01 + a31 * b11 + a32 * b21 + a33 * b31;
+        dest[14] = a30 * b02 + a31 * b12 + a32 * b22 + a33 * b32;
+        dest[15] = a30 * b03 + a31 * b13 + a32 * b23 + a33 * b33;
+    }
+
+    /**
+     * Транспонирует матрицу 4x4 (плоское хранение по строкам).
+     *
+     * @param a    исходная матрица
+     * @param dest массив для результата (может совпадать с {@code a})
+     */
+    static void transpose4(float[] a, float[] dest) {
+        for (int i = 0; i < 4; i++) {
+            for (int j = i + 1; j < 4; j++) {
+                float t = a[i * 4 + j];
+                dest[i * 4 + j] = a[j * 4 + i];
+                dest[j * 4 + i] = t;
+            }
+            dest[i * 5] = a[i * 5];
+        }
+    }
+
+    /**
+     * Обращает матрицу 4x4 общего вида (плоское хранение по строкам) через
+     * алгебраические дополнения, выраженные через миноры 2x2.
+     *
+     * @param a    исходная матрица
+     * @param dest массив для обратной матрицы (может совпадать с {@code a})
+     * @throws MathException если матрица вырождена
+     */
+    static void invert4(float[] a, float[] dest) {
+        float a00 = a[0], a01 = a[1], a02 = a[2], a03 = a[3];
+        float a10 = a[4], a11 = a[5], a12 = a[6], a13 = a[7];
+        float a20 = a[8], a21 = a[9], a22 = a[10], a23 = a[11];
+        float a30 = a[12], a31 = a[13], a32 = a[14], a33 = a[15];
+
+        // миноры 2x2 верхних двух строк
+        float s0 = a00 * a11 - a10 * a01;
+        float s1 = a00 * a12 - a10 * a02;
+        float s2 = a00 * a13 - a10 * a03;
+        float s3 = a01 * a12 - a11 * a02;
+        float s4 = a01 * a13 - a11 * a03;
+        float s5 = a02 * a13 - a12 * a03;
+
+        // миноры 2x2 нижних двух строк
+        float c5 = a22 * a33 - a32 * a23;
+        float c4 = a21 * a33 - a31 * a23;
+        float c3 = a21 * a32 - a31 * a22;
+        float c2 = a20 * a33 - a30 * a23;
+        float c1 = a20 * a32 - a30 * a22;
+        float c0 = a20 * a31 - a30 * a21;
+
+        float det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+        if (Math.abs(det) < 1e-10) {
+            throw new MathException("Матрица вырождена");
+        }
+        float inv = 1.0F / det;
+
+        dest[0] = (a11 * c5 - a12 * c4 + a13 * c3) * inv;
+        dest[1] = (-a01 * c5 + a02 * c4 - a03 * c3) * inv;
+        dest[2] = (a31 * s5 - a32 * s4 + a33 * s3) * inv;
+        dest[3] = (-a21 * s5 + a22 * s4 - a23 * s3) * inv;
+
+        dest[4] = (-a10 * c5 + a12 * c2 - a13 * c1) * inv;
+        dest[5] = (a00 * c5 - a02 * c2 + a03 * c1) * inv;
+        dest[6] = (-a30 * s5 + a32 * s2 - a33 * s1) * inv;
+        dest[7] = (a20 * s5 - a22 * s2 + a23 * s1) * inv;
+
+        dest[8] = (a10 * c4 - a11 * c2 + a13 * c0) * inv;
+        dest[9] = (-a00 * c4 + a01 * c2 - a03 * c0) * inv;
+        dest[10] = (a30 * s4 - a31 * s2 + a33 * s0) * inv;
+        dest[11] = (-a20 * s4 + a21 * s2 - a23 * s0) * inv;
+
+        dest[12] = (-a10 * c3 + a11 * c1 - a12 * c0) * inv;
+        dest[13] = (a00 * c3 - a01 * c1 + a02 * c0) * inv;
+        dest[14] = (-a30 * s3 + a31 * s1 - a32 * s0) * inv;
+        dest[15] = (a20 * s3 - a21 * s1 + a22 * s0) * inv;
+    }
+
+    /**
+     * Обращает аффинную матрицу 4x4 (последняя строка равна (0, 0, 0, 1)):
+     * обращается только левый верхний блок 3x3, перенос получается как {@code -A^-1 * t}.
+     * Последняя строка исходной матрицы не проверяется.
+     *
+     * @param a    исходная аффинная матрица
+     * @param dest массив для обратной матрицы (может совпадать с {@code a})
+     * @throws MathException если блок 3x3 вырожден
+     */
+    static void invertAffine4(float[] a, float[] dest) {
+        float a00 = a[0], a01 = a[1], a02 = a[2], tx = a[3];
+        float a10 = a[4], a11 = a[5], a12 = a[6], ty = a[7];
+        float a20 = a[8], a21 = a[9], a22 = a[10], tz = a[11];
+
+        // алгебраические дополнения блока 3x3
+        float c00 = a11 * a22 - a12 * a21;
+        float c01 = a12 * a20 - a10 * a22;
+        float c02 = a10 * a21 - a11 * a20;
+
+        float det = a00 * c00 + a01 * c01 + a02 * c02;
+        if (Math.abs(det) < 1e-10) {
+            throw new MathException("Матрица вырождена");
+        }
+        float inv = 1.0F / det;
+
+        float i00 = c00 * inv;
+        float i01 = (a02 * a21 - a01 * a22) * inv;
+        float i02 = (a01 * a12 - a02 * a11) * inv;
+        float i10 = c01 * inv;
+        float i11 = (a00 * a22 - a02 * a20) * inv;
+        float i12 = (a02 * a10 - a00 * a12) * inv;
+        float i20 = c02 * inv;
+        float i21 = (a01 * a20 - a00 * a21) * inv;
+        float i22 = (a00 * a11 - a01 * a10) * inv;
+
+        dest[0] = i00;
+        dest[1] = i01;
+        dest[2] = i02;
+        dest[3] = -(i00 * tx + i01 * ty + i02 * tz);
+        dest[4] = i10;
+        dest[5] = i11;
+        dest[6] = i12;
+        dest[7] = -(i10 * tx + i11 * ty + i12 * tz);
+        dest[8] = i20;
+        dest[9] = i21;
+        dest[10] = i22;
+        dest[11] = -(i20 * tx + i21 * ty + i22 * tz);
+        dest[12] = 0.0F;
+        dest[13] = 0.0F;
+        dest[14] = 0.0F;
+        dest[15] = 1.0F;
+    }
+
+    /**
+     * Вычисляет матрицу нормалей — транспонированную обратную к левому верхнему блоку 3x3
+     * матрицы 4x4. Она равна матрице алгебраических дополнений, делённой на определитель.
+     *
+     * @param a    исходная матрица 4x4 (плоское хранение по строкам)
+     * @param dest матрица 3x3 для результата
+     * @throws MathException если блок 3x3 вырожден
+     */
+    static void normalMatrix4(float[] a, float[][] dest) {
+        float a00 = a[0], a01 = a[1], a02 = a[2];
+        float a10 = a[4], a11 = a[5], a12 = a[6];
+        float a20 = a[8], a21 = a[9], a22 = a[10];
+
+        float c00 = a11 * a22 - a12 * a21;
+        float c01 = a12 * a20 - a10 * a22;
+        float c02 = a10 * a21 - a11 * a20;
+
+        float det = a00 * c00 + a01 * c01 + a02 * c02;
+        if (Math.abs(det) < 1e-10) {
+            throw new MathException("Матрица вырождена");
+        }
+        float inv = 1.0F / det;
+
+        dest[0][0] = c00 * inv;
+        dest[0][1] = c01 * inv;
+        dest[0][2] = c02 * inv;
+        dest[1][0] = (a02 * a21 - a01 * a22) * inv;
+        dest[1][1] = (a00 * a22 - a02 * a20) * inv;
+        dest[1][2] = (a01 * a20 - a00 * a21) * inv;
+        dest[2][0] = (a01 * a12 - a02 * a11) * inv;
+        dest[2][1] = (a02 * a10 - a00 * a12) * inv;
+        dest[2][2] = (a00 * a11 - a01 * a10) * inv;
+    }
+
+    /**
+     * Обращает матрицу 3x3.
+     *
+     * @param a    исходная матрица 3x3
+     * @param dest матрица для результата (может совпадать с {@code a})
+     * @throws MathException если матрица вырождена
+     */
+    static void invert3(float[][] a, float[][] dest) {
+        checkSize(a, 3);
+        float a00 = a[0][0], a01 = a[0][1], a02 = a[0][2];
+        float a10 = a[1][0], a11 = a[1][1], a12 = a[1][2];
+        float a20 = a[2][0], a21 = a[2][1], a22 = a[2][2];
+
+        float c00 = a11 * a22 - a12 * a21;
+        float c01 = a12 * a20 - a10 * a22;
+        float c02 = a10 * a21 - a11 * a20;
+
+        float det = a00 * c00 + a01 * c01 + a02 * c02;
+        if (Math.abs(det) < 1e-10) {
+            throw new MathException("Матрица вырождена");
+        }
+        float inv = 1.0F / det;
+
+        dest[0][0] = c00 * inv;
+        dest[0][1] = (a02 * a21 - a01 * a22) * inv;
+        dest[0][2] = (a01 * a12 - a02 * a11) * inv;
+        dest[1][0] = c01 * inv;
+        dest[1][1] = (a00 * a22 - a02 * a20) * inv;
+        dest[1][2] = (a02 * a10 - a00 * a12) * inv;
+        dest[2][0] = c02 * inv;
+        dest[2][1] = (a01 * a20 - a00 * a21) * inv;
+        dest[2][2] = (a00 * a11 - a01 * a10) * inv;
+    }
+
     /**
      * Вычисляет определитель матрицы 3x3.
      *
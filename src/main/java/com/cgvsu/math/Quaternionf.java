@@ -0,0 +1,325 @@
+package com.cgvsu.math;
+
+import com.cgvsu.exceptions.MathException;
+
+/**
+ * Класс {@code Quaternionf} представляет кватернион {@code w + xi + yj + zk}
+ * и используется для хранения поворотов. Единичный кватернион задаёт поворот,
+ * произведение {@code a * b} соответствует повороту {@code b}, за которым следует {@code a}
+ * (как и произведение матриц поворота для векторов-столбцов).
+ */
+public class Quaternionf {
+
+    private float x;
+    private float y;
+    private float z;
+    private float w;
+
+    /**
+     * Создаёт кватернион по компонентам.
+     *
+     * @param x мнимая часть при i
+     * @param y мнимая часть при j
+     * @param z мнимая часть при k
+     * @param w действительная часть
+     */
+    public Quaternionf(float x, float y, float z, float w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+    }
+
+    /**
+     * Создаёт единичный кватернион (отсутствие поворота).
+     */
+    public Quaternionf() {
+        this(0, 0, 0, 1);
+    }
+
+    /**
+     * Создаёт копию другого кватерниона.
+     *
+     * @param other исходный кватернион
+     */
+    public Quaternionf(Quaternionf other) {
+        this(other.x, other.y, other.z, other.w);
+    }
+
+    /**
+     * Создаёт кватернион поворота на угол вокруг оси.
+     *
+     * @param axis  ось поворота (нормализуется)
+     * @param angle угол в радианах
+     * @return новый единичный кватернион
+     * @throws MathException если ось нулевая
+     */
+    public static Quaternionf fromAxisAngle(Vector3f axis, float angle) {
+        Vector3f n = axis.normalized();
+        float half = angle * 0.5f;
+        float sin = (float) Math.sin(half);
+        return new Quaternionf(n.getX() * sin, n.getY() * sin, n.getZ() * sin, (float) Math.cos(half));
+    }
+
+    /**
+     * Создаёт кватернион, соответствующий матрице поворота {@code Rx * Ry * Rz}
+     * (тот же порядок, что и в {@code ModelTransform}).
+     *
+     * @param rx угол поворота вокруг X в радианах
+     * @param ry угол поворота вокруг Y в радианах
+     * @param rz угол поворота вокруг Z в радианах
+     * @return новый единичный кватернион
+     */
+    public static Quaternionf fromEuler(float rx, float ry, float rz) {
+        return new Quaternionf().setEuler(rx, ry, rz);
+    }
+
+    public float getX() { return x; }
+    public float getY() { return y; }
+    public float getZ() { return z; }
+    public float getW() { return w; }
+
+    /**
+     * Присваивает компоненты без создания нового объекта.
+     *
+     * @return текущий кватернион
+     */
+    public Quaternionf set(float x, float y, float z, float w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+        return this;
+    }
+
+    /**
+     * Копирует компоненты другого кватерниона.
+     *
+     * @param other исходный кватернион
+     * @return текущий кватернион
+     */
+    public Quaternionf set(Quaternionf other) {
+        return set(other.x, other.y, other.z, other.w);
+    }
+
+    /**
+     * Записывает в текущий кватернион поворот {@code Rx * Ry * Rz}.
+     *
+     * @return текущий кватернион
+     */
+    public Quaternionf setEuler(float rx, float ry, float rz) {
+        float cx = (float) Math.cos(rx * 0.5f), sx = (float) Math.sin(rx * 0.5f);
+        float cy = (float) Math.cos(ry * 0.5f), sy = (float) Math.sin(ry * 0.5f);
+        float cz = (float) Math.cos(rz * 0.5f), sz = (float) Math.sin(rz * 0.5f);
+
+        // qx * qy * qz, раскрытое произведение
+        return set(
+                sx * cy * cz + cx * sy * sz,
+                cx * sy * cz - sx * cy * sz,
+                cx * cy * sz + sx * sy * cz,
+                cx * cy * cz - sx * sy * sz
+        );
+    }
+
+    /**
+     * Вычисляет углы Эйлера, для которых {@code Rx * Ry * Rz} совпадает с поворотом кватерниона.
+     * При вырожденном случае (поворот вокруг Y на ±90°) угол вокруг Z считается нулевым.
+     *
+     * @param dest вектор для углов (x, y, z) в радианах
+     * @return {@code dest}
+     */
+    public Vector3f toEuler(Vector3f dest) {
+        float r02 = 2 * (x * z + y * w);
+        float ry = (float) Math.asin(Math.max(-1.0f, Math.min(1.0f, r02)));
+        if (Math.abs(r02) < 0.9999999f) {
+            float r12 = 2 * (y * z - x * w);
+            float r22 = 1 - 2 * (x * x + y * y);
+            float r01 = 2 * (x * y - z * w);
+            float r00 = 1 - 2 * (y * y + z * z);
+            return dest.set((float) Math.atan2(-r12, r22), ry, (float) Math.atan2(-r01, r00));
+        }
+        float r21 = 2 * (y * z + x * w);
+        float r11 = 1 - 2 * (x * x + z * z);
+        return dest.set((float) Math.atan2(r21, r11), ry, 0);
+    }
+
+    /**
+     * Вычисляет произведение {@code this * other}.
+     *
+     * @param other правый множитель
+     * @return новый кватернион — результат умножения
+     */
+    public Quaternionf multiply(Quaternionf other) {
+        return multiplyInto(other, new Quaternionf());
+    }
+
+    /**
+     * Вычисляет произведение {@code this * other} и записывает его в {@code dest}.
+     *
+     * @param other правый множитель
+     * @param dest кватернион для результата (может совпадать с операндами)
+     * @return {@code dest}
+     */
+    public Quaternionf multiplyInto(Quaternionf other, Quaternionf dest) {
+        return dest.set(
+                w * other.x + x * other.w + y * other.z - z * other.y,
+                w * other.y - x * other.z + y * other.w + z * other.x,
+                w * other.z + x * other.y - y * other.x + z * other.w,
+                w * other.w - x * other.x - y * other.y - z * other.z
+        );
+    }
+
+    /**
+     * Возвращает сопряжённый кватернион (для единичного — обратный поворот).
+     *
+     * @return новый кватернион
+     */
+    public Quaternionf conjugate() {
+        return new Quaternionf(-x, -y, -z, w);
+    }
+
+    /**
+     * Скалярное произведение кватернионов как 4-мерных векторов.
+     */
+    public float dot(Quaternionf other) {
+        return x * other.x + y * other.y + z * other.z + w * other.w;
+    }
+
+    /**
+     * Длина (норма) кватерниона.
+     */
+    public float length() {
+        return (float) Math.sqrt(x * x + y * y + z * z + w * w);
+    }
+
+    /**
+     * Нормализует текущий кватернион.
+     *
+     * @return текущий кватернион
+     * @throws MathException если кватернион нулевой
+     */
+    public Quaternionf normalize() {
+        float len = length();
+        if (len < 1e-10) {
+            throw new MathException("Не удается нормализовать нулевой кватернион");
+        }
+        return set(x / len, y / len, z / len, w / len);
+    }
+
+    /**
+     * Возвращает новый нормализованный кватернион.
+     *
+     * @throws MathException если кватернион нулевой
+     */
+    public Quaternionf normalized() {
+        return new Quaternionf(this).normalize();
+    }
+
+    /**
+     * Сферическая линейная интерполяция между текущим и другим единичным кватернионом.
+     *
+     * @param other конечный поворот
+     * @param t параметр от 0 (текущий) до 1 ({@code other})
+     * @return новый кватернион
+     */
+    public Quaternionf slerp(Quaternionf other, float t) {
+        return slerp(this, other, t, new Quaternionf());
+    }
+
+    /**
+     * Сферическая линейная интерполяция между единичными кватернионами {@code a} и {@code b}.
+     * Интерполяция идёт по кратчайшей дуге; при почти совпадающих поворотах
+     * используется нормализованная линейная интерполяция.
+     *
+     * @param a начальный поворот
+     * @param b конечный поворот
+     * @param t параметр от 0 до 1
+     * @param dest кватернион для результата (может совпадать с {@code a} или {@code b})
+     * @return {@code dest}
+     */
+    public static Quaternionf slerp(Quaternionf a, Quaternionf b, float t, Quaternionf dest) {
+        float cos = a.dot(b);
+        float bx = b.x, by = b.y, bz = b.z, bw = b.w;
+        if (cos < 0) {
+            cos = -cos;
+            bx = -bx;
+            by = -by;
+            bz = -bz;
+            bw = -bw;
+        }
+
+        float ka;
+        float kb;
+        if (cos > 0.9995f) {
+            ka = 1 - t;
+            kb = t;
+        } else {
+            float angle = (float) Math.acos(cos);
+            float sin = (float) Math.sin(angle);
+            ka = (float) Math.sin((1 - t) * angle) / sin;
+            kb = (float) Math.sin(t * angle) / sin;
+        }
+
+        dest.set(
+                ka * a.x + kb * bx,
+                ka * a.y + kb * by,
+                ka * a.z + kb * bz,
+                ka * a.w + kb * bw
+        );
+        return dest.normalize();
+    }
+
+    /**
+     * Записывает в {@code dest} матрицу поворота единичного кватерниона.
+     * Последние строка и столбец становятся как у единичной матрицы.
+     *
+     * @param dest матрица для результата
+     * @return {@code dest}
+     */
+    public Matrix4f toRotationMatrix(Matrix4f dest) {
+        float xx = x * x, yy = y * y, zz = z * z;
+        float xy = x * y, xz = x * z, yz = y * z;
+        float wx = w * x, wy = w * y, wz = w * z;
+
+        dest.set(0, 0, 1 - 2 * (yy + zz));
+        dest.set(0, 1, 2 * (xy - wz));
+        dest.set(0, 2, 2 * (xz + wy));
+        dest.set(0, 3, 0);
+
+        dest.set(1, 0, 2 * (xy + wz));
+        dest.set(1, 1, 1 - 2 * (xx + zz));
+        dest.set(1, 2, 2 * (yz - wx));
+        dest.set(1, 3, 0);
+
+        dest.set(2, 0, 2 * (xz - wy));
+        dest.set(2, 1, 2 * (yz + wx));
+        dest.set(2, 2, 1 - 2 * (xx + yy));
+        dest.set(2, 3, 0);
+
+        dest.set(3, 0, 0);
+        dest.set(3, 1, 0);
+        dest.set(3, 2, 0);
+        dest.set(3, 3, 1);
+        return dest;
+    }
+
+    /**
+     * Сравнивает кватернионы покомпонентно с учётом погрешности.
+     * Кватернионы {@code q} и {@code -q} задают один поворот, но равными не считаются.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        Quaternionf other = (Quaternionf) obj;
+        return Math.abs(x - other.x) < 1e-10 &&
+                Math.abs(y - other.y) < 1e-10 &&
+                Math.abs(z - other.z) < 1e-10 &&
+                Math.abs(w - other.w) < 1e-10;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Quaternionf(%.4f, %.4f, %.4f, %.4f)", x, y, z, w);
+    }
+}
@@ -19,6 +19,20 @@ public class Vector2f {
     public float getX() { return x; }
     public float getY() { return y; }
 
+    public void setX(float x) { this.x = x; }
+    public void setY(float y) { this.y = y; }
+
+    // Присваивание без создания нового объекта
+    public Vector2f set(float x, float y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    public Vector2f set(Vector2f other) {
+        return set(other.x, other.y);
+    }
+
     /***
      * Сложение двух векторов
      * @param other другой вектор для сложения
@@ -28,16 +42,31 @@ public class Vector2f {
         return new Vector2f(this.x + other.x, this.y + other.y);
     }
 
+    // Сложение с записью результата в dest (dest может совпадать с this или other)
+    public Vector2f addInto(Vector2f other, Vector2f dest) {
+        return dest.set(this.x + other.x, this.y + other.y);
+    }
+
     // Вычитание
     public Vector2f subtract(Vector2f other) {
         return new Vector2f(this.x - other.x, this.y - other.y);
     }
 
+    // Вычитание с записью результата в dest
+    public Vector2f subtractInto(Vector2f other, Vector2f dest) {
+        return dest.set(this.x - other.x, this.y - other.y);
+    }
+
     // Умножение на скаляр
     public Vector2f multiply(float scalar) {
         return new Vector2f(this.x * scalar, this.y * scalar);
     }
 
+    // Умножение на скаляр с записью результата в dest
+    public Vector2f multiplyInto(float scalar, Vector2f dest) {
+        return dest.set(this.x * scalar, this.y * scalar);
+    }
+
     // Деление на скаляр
     public Vector2f divide(float scalar) {
         if (Math.abs(scalar) < 1e-10) {
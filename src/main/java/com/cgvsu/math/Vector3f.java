@@ -22,21 +22,48 @@ public class Vector3f {
     public float getY() { return y; }
     public float getZ() { return z; }
 
+    // Присваивание без создания нового объекта
+    public Vector3f set(float x, float y, float z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    public Vector3f set(Vector3f other) {
+        return set(other.x, other.y, other.z);
+    }
+
     // Сложение
     public Vector3f add(Vector3f other) {
         return new Vector3f(this.x + other.x, this.y + other.y, this.z + other.z);
     }
 
+    // Сложение с записью результата в dest (dest может совпадать с this или other)
+    public Vector3f addInto(Vector3f other, Vector3f dest) {
+        return dest.set(this.x + other.x, this.y + other.y, this.z + other.z);
+    }
+
     // Вычитание
     public Vector3f subtract(Vector3f other) {
         return new Vector3f(this.x - other.x, this.y - other.y, this.z - other.z);
     }
 
+    // Вычитание с записью результата в dest
+    public Vector3f subtractInto(Vector3f other, Vector3f dest) {
+        return dest.set(this.x - other.x, this.y - other.y, this.z - other.z);
+    }
+
     // Умножение на скаляр
     public Vector3f multiply(float scalar) {
         return new Vector3f(this.x * scalar, this.y * scalar, this.z * scalar);
     }
 
+    // Умножение на скаляр с записью результата в dest
+    public Vector3f multiplyInto(float scalar, Vector3f dest) {
+        return dest.set(this.x * scalar, this.y * scalar, this.z * scalar);
+    }
+
     // Деление на скаляр
     public Vector3f divide(float scalar) {
         if (Math.abs(scalar) < 1e-10) {
@@ -81,12 +108,50 @@ public class Vector3f {
         return this.x * other.x + this.y * other.y + this.z * other.z;
     }
 
+    // Нормализованный вектор с записью результата в dest
+    public Vector3f normalizedInto(Vector3f dest) {
+        float len = length();
+        if (len < 1e-10) {
+            throw new MathException("Не удается нормализовать нулевой вектор");
+        }
+        return dest.set(this.x / len, this.y / len, this.z / len);
+    }
+
     // Векторное произведение
     public Vector3f cross(Vector3f other) {
+        return crossInto(other, new Vector3f());
+    }
+
+    // Векторное произведение с записью результата в dest (dest может совпадать с this или other)
+    public Vector3f crossInto(Vector3f other, Vector3f dest) {
         float newX = this.y * other.z - this.z * other.y;
         float newY = this.z * other.x - this.x * other.z;
         float newZ = this.x * other.y - this.y * other.x;
-        return new Vector3f(newX, newY, newZ);
+        return dest.set(newX, newY, newZ);
+    }
+
+    /**
+     * Преобразует точку матрицей 4x4 (w = 1) с перспективным делением
+     * и записывает результат в dest. Если w близко к нулю, деление не выполняется.
+     *
+     * @param matrix матрица преобразования
+     * @param dest вектор для результата (может совпадать с this)
+     * @return dest
+     */
+    public Vector3f transformPoint(Matrix4f matrix, Vector3f dest) {
+        float resultX = matrix.get(0, 0) * x + matrix.get(0, 1) * y +
+                matrix.get(0, 2) * z + matrix.get(0, 3);
+        float resultY = matrix.get(1, 0) * x + matrix.get(1, 1) * y +
+                matrix.get(1, 2) * z + matrix.get(1, 3);
+        float resultZ = matrix.get(2, 0) * x + matrix.get(2, 1) * y +
+                matrix.get(2, 2) * z + matrix.get(2, 3);
+        float resultW = matrix.get(3, 0) * x + matrix.get(3, 1) * y +
+                matrix.get(3, 2) * z + matrix.get(3, 3);
+
+        if (Math.abs(resultW) > 1e-10) {
+            return dest.set(resultX / resultW, resultY / resultW, resultZ / resultW);
+        }
+        return dest.set(resultX, resultY, resultZ);
     }
 
     @Override
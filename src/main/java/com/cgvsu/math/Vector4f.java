@@ -24,6 +24,24 @@ public class Vector4f {
     public float getZ() { return z; }
     public float getW() { return w; }
 
+    public void setX(float x) { this.x = x; }
+    public void setY(float y) { this.y = y; }
+    public void setZ(float z) { this.z = z; }
+    public void setW(float w) { this.w = w; }
+
+    // Присваивание без создания нового объекта
+    public Vector4f set(float x, float y, float z, float w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+        return this;
+    }
+
+    public Vector4f set(Vector4f other) {
+        return set(other.x, other.y, other.z, other.w);
+    }
+
     // Сложение
     public Vector4f add(Vector4f other) {
         return new Vector4f(
@@ -34,6 +52,16 @@ public class Vector4f {
         );
     }
 
+    // Сложение с записью результата в dest (dest может совпадать с this или other)
+    public Vector4f addInto(Vector4f other, Vector4f dest) {
+        return dest.set(
+                this.x + other.x,
+                this.y + other.y,
+                this.z + other.z,
+                this.w + other.w
+        );
+    }
+
     // Вычитание
     public Vector4f subtract(Vector4f other) {
         return new Vector4f(
@@ -44,6 +72,16 @@ public class Vector4f {
         );
     }
 
+    // Вычитание с записью результата в dest
+    public Vector4f subtractInto(Vector4f other, Vector4f dest) {
+        return dest.set(
+                this.x - other.x,
+                this.y - other.y,
+                this.z - other.z,
+                this.w - other.w
+        );
+    }
+
     // Умножение на скаляр
     public Vector4f multiply(float scalar) {
         return new Vector4f(
@@ -54,6 +92,16 @@ public class Vector4f {
         );
     }
 
+    // Умножение на скаляр с записью результата в dest
+    public Vector4f multiplyInto(float scalar, Vector4f dest) {
+        return dest.set(
+                this.x * scalar,
+                this.y * scalar,
+                this.z * scalar,
+                this.w * scalar
+        );
+    }
+
     // Деление на скаляр
     public Vector4f divide(float scalar) {
         if (Math.abs(scalar) < 1e-10) {
@@ -12,7 +12,92 @@ public class Model {
     public ArrayList<Polygon> polygons = new ArrayList<Polygon>();
     private final ModelTransform transform = new ModelTransform();
 
+    // Версия геометрии: по ней сбрасываются кэши, построенные по вершинам и полигонам
+    private long geometryVersion;
+
+    // Ограничивающие объёмы в координатах модели, считаются при первом запросе после изменения геометрии
+    private final Vector3f boundsMin = new Vector3f();
+    private final Vector3f boundsMax = new Vector3f();
+    private final Vector3f boundingSphereCenter = new Vector3f();
+    private float boundingSphereRadius;
+    private long boundsVersion = -1;
+    private int boundsVertexCount = -1;
+
     public ModelTransform getTransform() {
         return transform;
     }
+
+    public long getGeometryVersion() {
+        return geometryVersion;
+    }
+
+    /**
+     * Вызывается после любого изменения vertices или polygons (удаление, перестроение индексов).
+     */
+    public void markGeometryChanged() {
+        geometryVersion++;
+    }
+
+    // Углы ограничивающего параллелепипеда (AABB); у модели без вершин - нулевые.
+    // Возвращаемые векторы принадлежат модели, изменять их нельзя
+    public Vector3f getBoundsMin() {
+        updateBounds();
+        return boundsMin;
+    }
+
+    public Vector3f getBoundsMax() {
+        updateBounds();
+        return boundsMax;
+    }
+
+    public Vector3f getBoundingSphereCenter() {
+        updateBounds();
+        return boundingSphereCenter;
+    }
+
+    // Радиус ограничивающей сферы; -1 у модели без вершин
+    public float getBoundingSphereRadius() {
+        updateBounds();
+        return boundingSphereRadius;
+    }
+
+    private void updateBounds() {
+        if (boundsVersion == geometryVersion && boundsVertexCount == vertices.size()) {
+            return;
+        }
+        boundsVersion = geometryVersion;
+        boundsVertexCount = vertices.size();
+
+        if (vertices.isEmpty()) {
+            boundsMin.set(0, 0, 0);
+            boundsMax.set(0, 0, 0);
+            boundingSphereCenter.set(0, 0, 0);
+            boundingSphereRadius = -1;
+            return;
+        }
+
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+        for (Vector3f v : vertices) {
+            minX = Math.min(minX, v.getX());
+            minY = Math.min(minY, v.getY());
+            minZ = Math.min(minZ, v.getZ());
+            maxX = Math.max(maxX, v.getX());
+            maxY = Math.max(maxY, v.getY());
+            maxZ = Math.max(maxZ, v.getZ());
+        }
+        boundsMin.set(minX, minY, minZ);
+        boundsMax.set(maxX, maxY, maxZ);
+
+        // Центр сферы - центр AABB, радиус - до самой дальней вершины (не больше половины диагонали)
+        float centerX = (minX + maxX) * 0.5f, centerY = (minY + maxY) * 0.5f, centerZ = (minZ + maxZ) * 0.5f;
+        float maxDistanceSquared = 0;
+        for (Vector3f v : vertices) {
+            float dx = v.getX() - centerX, dy = v.getY() - centerY, dz = v.getZ() - centerZ;
+            maxDistanceSquared = Math.max(maxDistanceSquared, dx * dx + dy * dy + dz * dz);
+        }
+        boundingSphereCenter.set(centerX, centerY, centerZ);
+        // nextUp - чтобы округление не сделало сферу меньше самой дальней вершины
+        boundingSphereRadius = Math.nextUp((float) Math.sqrt(maxDistanceSquared));
+    }
 }
@@ -1,5 +1,7 @@
 package com.cgvsu.model;
 
+import com.cgvsu.math.Matrix4f;
+import com.cgvsu.math.Quaternionf;
 import com.cgvsu.math.Vector3f;
 
 public class ModelTransform {
@@ -7,6 +9,21 @@ public class ModelTransform {
     private Vector3f rotation;
     private Vector3f scale;
 
+    // Кэш мировой матрицы. Компоненты доступны снаружи как изменяемые Vector3f
+    // (их правят поля ввода GUI), поэтому изменения отслеживаются сравнением
+    // с последними учтёнными значениями, а не только через сеттеры.
+    private final Matrix4f modelMatrix = new Matrix4f();
+    private final float[] snapshot = new float[9];
+    private long version;
+    private boolean dirty = true;
+
+    // Поворот можно задать кватернионом. Тогда матрица строится из него,
+    // а углы Эйлера в rotation пересчитываются только когда их запрашивают (для полей GUI).
+    // Изменение углов Эйлера возвращает преобразование в режим углов.
+    private final Quaternionf orientation = new Quaternionf();
+    private boolean useOrientation;
+    private boolean eulerStale;
+
     public ModelTransform() {
         this.translation = new Vector3f(0, 0, 0);
         this.rotation = new Vector3f(0, 0, 0);
@@ -15,13 +32,182 @@ public class ModelTransform {
 
 
     public Vector3f getTranslation() { return translation; }
-    public void setTranslation(Vector3f translation) { this.translation = translation; }
+    public void setTranslation(Vector3f translation) {
+        this.translation = translation;
+        markDirty();
+    }
+
+    public Vector3f getRotation() {
+        if (eulerStale) {
+            orientation.toEuler(rotation);
+            snapshot[3] = rotation.getX();
+            snapshot[4] = rotation.getY();
+            snapshot[5] = rotation.getZ();
+            eulerStale = false;
+        }
+        return rotation;
+    }
+    public void setRotation(Vector3f rotation) {
+        this.rotation = rotation;
+        useOrientation = false;
+        eulerStale = false;
+        markDirty();
+    }
+
+    /**
+     * Возвращает поворот в виде кватерниона (копия).
+     */
+    public Quaternionf getOrientation() {
+        if (!useOrientation) {
+            sync();
+            return Quaternionf.fromEuler(rotation.getX(), rotation.getY(), rotation.getZ());
+        }
+        return new Quaternionf(orientation);
+    }
 
-    public Vector3f getRotation() { return rotation; }
-    public void setRotation(Vector3f rotation) { this.rotation = rotation; }
+    /**
+     * Задаёт поворот кватернионом. Кватернион копируется и нормализуется.
+     */
+    public void setOrientation(Quaternionf orientation) {
+        this.orientation.set(orientation).normalize();
+        switchToOrientation();
+    }
+
+    /**
+     * Дополнительно поворачивает модель: новый поворот = delta * текущий.
+     * Не требует тригонометрии, поэтому подходит для покадровой анимации.
+     */
+    public void rotate(Quaternionf delta) {
+        if (!useOrientation) {
+            sync();
+            orientation.setEuler(rotation.getX(), rotation.getY(), rotation.getZ());
+        }
+        delta.multiplyInto(orientation, orientation).normalize();
+        switchToOrientation();
+    }
+
+    public boolean isOrientationMode() {
+        return useOrientation;
+    }
 
     public Vector3f getScale() { return scale; }
-    public void setScale(Vector3f scale) { this.scale = scale; }
+    public void setScale(Vector3f scale) {
+        this.scale = scale;
+        markDirty();
+    }
+
+    /**
+     * Номер версии преобразования. Увеличивается при каждом изменении
+     * переноса, поворота или масштаба (в том числе через изменение компонент векторов).
+     */
+    public long getVersion() {
+        sync();
+        return version;
+    }
 
+    /**
+     * Возвращает мировую матрицу M = T * Rx * Ry * Rz * S. Матрица пересчитывается
+     * только после изменения преобразования. Возвращается внутренний объект - его нельзя изменять.
+     */
+    public Matrix4f getModelMatrix() {
+        sync();
+        if (dirty) {
+            if (useOrientation) {
+                compose(translation, orientation, scale, modelMatrix);
+            } else {
+                compose(translation, rotation, scale, modelMatrix);
+            }
+            dirty = false;
+        }
+        return modelMatrix;
+    }
+
+    /**
+     * Строит матрицу T * Rx * Ry * Rz * S в замкнутом виде, без перемножения
+     * отдельных матриц: поворот раскрыт аналитически, масштаб умножает столбцы,
+     * перенос записывается в последний столбец.
+     */
+    public static Matrix4f compose(Vector3f translation, Vector3f rotation, Vector3f scale, Matrix4f dest) {
+        float cx = (float) Math.cos(rotation.getX());
+        float sx = (float) Math.sin(rotation.getX());
+        float cy = (float) Math.cos(rotation.getY());
+        float sy = (float) Math.sin(rotation.getY());
+        float cz = (float) Math.cos(rotation.getZ());
+        float sz = (float) Math.sin(rotation.getZ());
+        float scaleX = scale.getX();
+        float scaleY = scale.getY();
+        float scaleZ = scale.getZ();
+
+        dest.set(0, 0, cy * cz * scaleX);
+        dest.set(0, 1, -cy * sz * scaleY);
+        dest.set(0, 2, sy * scaleZ);
+        dest.set(0, 3, translation.getX());
+
+        dest.set(1, 0, (cx * sz + sx * sy * cz) * scaleX);
+        dest.set(1, 1, (cx * cz - sx * sy * sz) * scaleY);
+        dest.set(1, 2, -sx * cy * scaleZ);
+        dest.set(1, 3, translation.getY());
+
+        dest.set(2, 0, (sx * sz - cx * sy * cz) * scaleX);
+        dest.set(2, 1, (sx * cz + cx * sy * sz) * scaleY);
+        dest.set(2, 2, cx * cy * scaleZ);
+        dest.set(2, 3, translation.getZ());
+
+        dest.set(3, 0, 0);
+        dest.set(3, 1, 0);
+        dest.set(3, 2, 0);
+        dest.set(3, 3, 1);
+        return dest;
+    }
+
+    /**
+     * Строит матрицу T * R * S, где R - поворот единичного кватерниона.
+     */
+    public static Matrix4f compose(Vector3f translation, Quaternionf orientation, Vector3f scale, Matrix4f dest) {
+        orientation.toRotationMatrix(dest);
+        for (int row = 0; row < 3; row++) {
+            dest.set(row, 0, dest.get(row, 0) * scale.getX());
+            dest.set(row, 1, dest.get(row, 1) * scale.getY());
+            dest.set(row, 2, dest.get(row, 2) * scale.getZ());
+        }
+        dest.set(0, 3, translation.getX());
+        dest.set(1, 3, translation.getY());
+        dest.set(2, 3, translation.getZ());
+        return dest;
+    }
+
+    private void switchToOrientation() {
+        sync();
+        useOrientation = true;
+        eulerStale = true;
+        markDirty();
+    }
+
+    private void markDirty() {
+        version++;
+        dirty = true;
+    }
+
+    private void sync() {
+        boolean rotationChanged = !eulerStale && changed(3, rotation);
+        if (rotationChanged && useOrientation) {
+            // углы поправили вручную - дальше поворот задаётся ими
+            useOrientation = false;
+        }
+        if (changed(0, translation) | rotationChanged | changed(6, scale)) {
+            markDirty();
+        }
+    }
 
-}
\ No newline at end of file
+    private boolean changed(int offset, Vector3f v) {
+        boolean changed = Float.compare(snapshot[offset], v.getX()) != 0
+                || Float.compare(snapshot[offset + 1], v.getY()) != 0
+                || Float.compare(snapshot[offset + 2], v.getZ()) != 0;
+        if (changed) {
+            snapshot[offset] = v.getX();
+            snapshot[offset + 1] = v.getY();
+            snapshot[offset + 2] = v.getZ();
+        }
+        return changed;
+    }
+}
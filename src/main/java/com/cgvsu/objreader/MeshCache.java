@@ -0,0 +1,465 @@
+package com.cgvsu.objreader;
+
+import com.cgvsu.math.Vector2f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Двоичный кэш разобранных OBJ-файлов. После первого разбора модель сохраняется рядом
+ * с исходным файлом (имя + CACHE_SUFFIX); следующие загрузки отображают кэш в память
+ * и обходятся без разбора текста.
+ * <p>
+ * Формат (little-endian):
+ * <pre>
+ * int    MAGIC, VERSION
+ * long   размер исходного файла, время изменения (мс), CRC32C всего содержимого
+ * int    число вершин V, текстурных вершин T, нормалей N, полигонов P
+ * int    число индексов вершин, текстурных вершин и нормалей во всех полигонах
+ * int    длина пути к исходному файлу в байтах UTF-8, затем сам путь, дополненный до 4 байт
+ * float  V * 3 координаты вершин, T * 2 текстурные координаты, N * 3 координаты нормалей
+ * int    для вершин, текстурных вершин и нормалей: P + 1 смещение (CSR) и массив индексов
+ * int    CRC32C всех предыдущих байт
+ * </pre>
+ * Кэш считается устаревшим, если не совпадает путь, размер, время изменения или хэш исходного
+ * файла, и повреждённым, если не совпадает CRC или данные не согласованы. В обоих случаях
+ * файл разбирается заново и кэш перезаписывается.
+ */
+public final class MeshCache {
+
+	public static final String CACHE_SUFFIX = ".meshcache";
+
+	private static final int MAGIC = 0x434A424F; // "OBJC" в little-endian
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = 64;
+
+	private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+	// Наибольший участок кэша, отображаемый одним буфером
+	private static final int MAX_REGION_SIZE = 1 << 30;
+
+	private MeshCache() {
+	}
+
+	/**
+	 * Загружает модель из кэша рядом с файлом, а если кэша нет или он устарел - разбирает файл
+	 * (ObjReader.readParallel) и записывает кэш.
+	 */
+	public static Model read(Path objFile) throws IOException {
+		return read(objFile, cacheFile(objFile));
+	}
+
+	/**
+	 * То же, что read(Path), с кэшем в указанном файле (например, в отдельном каталоге кэша).
+	 * Ошибка записи кэша не мешает загрузке: модель возвращается, кэш будет записан в другой раз.
+	 */
+	public static Model read(Path objFile, Path cacheFile) throws IOException {
+		Key key = Key.of(objFile);
+		Model model = load(cacheFile, key);
+		if (model != null) {
+			return model;
+		}
+
+		model = ObjReader.readParallel(objFile);
+		try {
+			write(cacheFile, key, model);
+		} catch (IOException e) {
+			// Например, каталог только для чтения: кэш необязателен
+			Files.deleteIfExists(temporaryFile(cacheFile));
+		}
+		return model;
+	}
+
+	public static Path cacheFile(Path objFile) {
+		return objFile.resolveSibling(objFile.getFileName() + CACHE_SUFFIX);
+	}
+
+	// Ключ кэша: по нему видно, что исходный файл не менялся
+	private static final class Key {
+		private final byte[] path;
+		private final long size;
+		private final long modifiedMillis;
+		private final long hash;
+
+		private Key(byte[] path, long size, long modifiedMillis, long hash) {
+			this.path = path;
+			this.size = size;
+			this.modifiedMillis = modifiedMillis;
+			this.hash = hash;
+		}
+
+		// Ключ снимается до разбора: если файл изменится во время разбора, кэш окажется устаревшим
+		static Key of(Path objFile) throws IOException {
+			Path absolute = objFile.toAbsolutePath().normalize();
+			try (FileChannel channel = FileChannel.open(absolute, StandardOpenOption.READ)) {
+				long size = channel.size();
+				return new Key(absolute.toString().getBytes(StandardCharsets.UTF_8), size,
+						Files.getLastModifiedTime(absolute).toMillis(), contentHash(channel, size));
+			}
+		}
+	}
+
+	// CRC32C всего файла. Проверка кэша читает исходник целиком, но CRC32C считается быстрее,
+	// чем файл читается с диска, а отображённые страницы затем пригодятся разбору при промахе
+	private static long contentHash(FileChannel channel, long size) throws IOException {
+		CRC32C crc = new CRC32C();
+		for (long from = 0; from < size; from += MAX_REGION_SIZE) {
+			crc.update(channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(MAX_REGION_SIZE, size - from)));
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Загружает модель из кэша; null, если кэша нет, он устарел или повреждён.
+	 */
+	static Model load(Path objFile, Path cacheFile) throws IOException {
+		return load(cacheFile, Key.of(objFile));
+	}
+
+	// Кэш больше 2 ГБ нельзя отобразить одним буфером: он отображается участками по regionSize байт
+	static Model load(Path objFile, Path cacheFile, int regionSize) throws IOException {
+		return load(cacheFile, Key.of(objFile), regionSize);
+	}
+
+	private static Model load(Path cacheFile, Key key) throws IOException {
+		return load(cacheFile, key, MAX_REGION_SIZE);
+	}
+
+	private static Model load(Path cacheFile, Key key, int regionSize) throws IOException {
+		if (!Files.isRegularFile(cacheFile)) {
+			return null;
+		}
+		MappedFile data;
+		try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE + Integer.BYTES) {
+				return null;
+			}
+			data = new MappedFile(channel, regionSize);
+		}
+
+		if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION
+				|| data.getLong(8) != key.size || data.getLong(16) != key.modifiedMillis || data.getLong(24) != key.hash) {
+			return null;
+		}
+		int vertexCount = data.getInt(32);
+		int textureVertexCount = data.getInt(36);
+		int normalCount = data.getInt(40);
+		int polygonCount = data.getInt(44);
+		int vertexIndexCount = data.getInt(48);
+		int textureIndexCount = data.getInt(52);
+		int normalIndexCount = data.getInt(56);
+		int pathLength = data.getInt(60);
+		int[] counts = {vertexCount, textureVertexCount, normalCount, polygonCount,
+				vertexIndexCount, textureIndexCount, normalIndexCount, pathLength};
+		if (Arrays.stream(counts).anyMatch(count -> count < 0)) {
+			return null;
+		}
+		// Начала разделов файла
+		long vertices = HEADER_SIZE + align(pathLength);
+		long textureVertices = vertices + 4L * 3 * vertexCount;
+		long normals = textureVertices + 4L * 2 * textureVertexCount;
+		long vertexOffsets = normals + 4L * 3 * normalCount;
+		long vertexIndices = vertexOffsets + 4L * (polygonCount + 1L);
+		long textureOffsets = vertexIndices + 4L * vertexIndexCount;
+		long textureIndices = textureOffsets + 4L * (polygonCount + 1L);
+		long normalOffsets = textureIndices + 4L * textureIndexCount;
+		long normalIndices = normalOffsets + 4L * (polygonCount + 1L);
+		long crcPosition = normalIndices + 4L * normalIndexCount;
+		if (crcPosition + Integer.BYTES != data.size()) {
+			return null;
+		}
+
+		byte[] path = new byte[pathLength];
+		data.get(HEADER_SIZE, path);
+		if (!Arrays.equals(path, key.path)) {
+			return null;
+		}
+		if ((int) data.crc(crcPosition) != data.getInt(crcPosition)) {
+			return null;
+		}
+
+		Model model = new Model();
+		model.vertices.ensureCapacity(vertexCount);
+		for (long p = vertices; p < textureVertices; p += 12) {
+			model.vertices.add(new Vector3f(data.getFloat(p), data.getFloat(p + 4), data.getFloat(p + 8)));
+		}
+		model.textureVertices.ensureCapacity(textureVertexCount);
+		for (long p = textureVertices; p < normals; p += 8) {
+			model.textureVertices.add(new Vector2f(data.getFloat(p), data.getFloat(p + 4)));
+		}
+		model.normals.ensureCapacity(normalCount);
+		for (long p = normals; p < vertexOffsets; p += 12) {
+			model.normals.add(new Vector3f(data.getFloat(p), data.getFloat(p + 4), data.getFloat(p + 8)));
+		}
+
+		model.polygons.ensureCapacity(polygonCount);
+		for (int i = 0; i < polygonCount; i++) {
+			ArrayList<Integer> polygonVertices =
+					indices(data, vertexOffsets, vertexIndices, vertexIndexCount, i, vertexCount);
+			ArrayList<Integer> polygonTextureVertices =
+					indices(data, textureOffsets, textureIndices, textureIndexCount, i, textureVertexCount);
+			ArrayList<Integer> polygonNormals =
+					indices(data, normalOffsets, normalIndices, normalIndexCount, i, normalCount);
+			// Полигон без текстурных координат или нормалей хранит пустой список, с ними - не меньше 3 индексов
+			if (polygonVertices == null || polygonVertices.isEmpty()
+					|| polygonTextureVertices == null || polygonNormals == null
+					|| !polygonTextureVertices.isEmpty() && polygonTextureVertices.size() != polygonVertices.size()
+					|| !polygonNormals.isEmpty() && polygonNormals.size() != polygonVertices.size()) {
+				return null;
+			}
+			Polygon polygon = new Polygon();
+			polygon.setVertexIndices(polygonVertices);
+			if (!polygonTextureVertices.isEmpty()) {
+				polygon.setTextureVertexIndices(polygonTextureVertices);
+			}
+			if (!polygonNormals.isEmpty()) {
+				polygon.setNormalIndices(polygonNormals);
+			}
+			model.polygons.add(polygon);
+		}
+		return model;
+	}
+
+	// Индексы полигона из CSR (offsets и indices - позиции разделов в файле); null, если смещения
+	// или индексы вне допустимых границ
+	private static ArrayList<Integer> indices(MappedFile data, long offsets, long indices, int indexCount,
+			int polygon, int size) {
+		int from = data.getInt(offsets + 4L * polygon);
+		int to = data.getInt(offsets + 4L * (polygon + 1));
+		if (from < 0 || to < from || to > indexCount || to - from == 1 || to - from == 2) {
+			return null;
+		}
+		ArrayList<Integer> result = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++) {
+			int index = data.getInt(indices + 4L * i);
+			if (index < 0 || index >= size) {
+				return null;
+			}
+			result.add(index);
+		}
+		return result;
+	}
+
+	/**
+	 * Файл, отображённый в память участками по regionSize байт. Все значения кэша выровнены
+	 * по своему размеру, а regionSize кратен 8, поэтому ни одно значение не пересекает границу участков.
+	 */
+	private static final class MappedFile {
+		private final ByteBuffer[] regions;
+		private final int regionSize;
+		private final long size;
+
+		MappedFile(FileChannel channel, int regionSize) throws IOException {
+			if (regionSize <= 0 || regionSize % Long.BYTES != 0) {
+				throw new IllegalArgumentException("Region size must be a positive multiple of 8: " + regionSize);
+			}
+			this.regionSize = regionSize;
+			this.size = channel.size();
+			regions = new ByteBuffer[(int) ((size + regionSize - 1) / regionSize)];
+			for (int i = 0; i < regions.length; i++) {
+				long from = (long) i * regionSize;
+				regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(regionSize, size - from))
+						.order(ByteOrder.LITTLE_ENDIAN);
+			}
+		}
+
+		long size() {
+			return size;
+		}
+
+		int getInt(long position) {
+			return regions[(int) (position / regionSize)].getInt((int) (position % regionSize));
+		}
+
+		long getLong(long position) {
+			return regions[(int) (position / regionSize)].getLong((int) (position % regionSize));
+		}
+
+		float getFloat(long position) {
+			return regions[(int) (position / regionSize)].getFloat((int) (position % regionSize));
+		}
+
+		void get(long position, byte[] bytes) {
+			for (int i = 0; i < bytes.length; i++) {
+				long p = position + i;
+				bytes[i] = regions[(int) (p / regionSize)].get((int) (p % regionSize));
+			}
+		}
+
+		// CRC32C байт [0, to)
+		long crc(long to) {
+			CRC32C crc = new CRC32C();
+			for (int i = 0; (long) i * regionSize < to; i++) {
+				crc.update(regions[i].slice(0, (int) Math.min(regionSize, to - (long) i * regionSize)));
+			}
+			return crc.getValue();
+		}
+	}
+
+	private static int align(int size) {
+		return (size + 3) & ~3;
+	}
+
+	/**
+	 * Записывает кэш во временный файл и переименовывает его, так что читатель не увидит
+	 * наполовину записанный кэш.
+	 */
+	private static void write(Path cacheFile, Key key, Model model) throws IOException {
+		List<Polygon> polygons = model.polygons;
+		int vertexIndexCount = 0;
+		int textureIndexCount = 0;
+		int normalIndexCount = 0;
+		for (Polygon polygon : polygons) {
+			vertexIndexCount += polygon.getVertexIndices().size();
+			textureIndexCount += polygon.getTextureVertexIndices().size();
+			normalIndexCount += polygon.getNormalIndices().size();
+		}
+
+		Path temporary = temporaryFile(cacheFile);
+		try (Output output = new Output(FileChannel.open(temporary,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+			output.putInt(MAGIC);
+			output.putInt(VERSION);
+			output.putLong(key.size);
+			output.putLong(key.modifiedMillis);
+			output.putLong(key.hash);
+			output.putInt(model.vertices.size());
+			output.putInt(model.textureVertices.size());
+			output.putInt(model.normals.size());
+			output.putInt(polygons.size());
+			output.putInt(vertexIndexCount);
+			output.putInt(textureIndexCount);
+			output.putInt(normalIndexCount);
+			output.putInt(key.path.length);
+			output.putBytes(Arrays.copyOf(key.path, align(key.path.length)));
+
+			for (Vector3f v : model.vertices) {
+				output.putFloat(v.getX());
+				output.putFloat(v.getY());
+				output.putFloat(v.getZ());
+			}
+			for (Vector2f vt : model.textureVertices) {
+				output.putFloat(vt.getX());
+				output.putFloat(vt.getY());
+			}
+			for (Vector3f vn : model.normals) {
+				output.putFloat(vn.getX());
+				output.putFloat(vn.getY());
+				output.putFloat(vn.getZ());
+			}
+
+			writeIndices(output, polygons, 0);
+			writeIndices(output, polygons, 1);
+			writeIndices(output, polygons, 2);
+			output.putCrc();
+		}
+
+		try {
+			Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	// attribute: 0 - вершины, 1 - текстурные вершины, 2 - нормали
+	private static void writeIndices(Output output, List<Polygon> polygons, int attribute) throws IOException {
+		int offset = 0;
+		output.putInt(offset);
+		for (Polygon polygon : polygons) {
+			offset += indicesOf(polygon, attribute).size();
+			output.putInt(offset);
+		}
+		for (Polygon polygon : polygons) {
+			for (int index : indicesOf(polygon, attribute)) {
+				output.putInt(index);
+			}
+		}
+	}
+
+	private static List<Integer> indicesOf(Polygon polygon, int attribute) {
+		return switch (attribute) {
+			case 0 -> polygon.getVertexIndices();
+			case 1 -> polygon.getTextureVertexIndices();
+			default -> polygon.getNormalIndices();
+		};
+	}
+
+	private static Path temporaryFile(Path cacheFile) {
+		return cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+	}
+
+	// Буферизованная запись little-endian с подсчётом CRC32C
+	private static final class Output implements AutoCloseable {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		private final CRC32C crc = new CRC32C();
+
+		Output(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		void putInt(int value) throws IOException {
+			reserve(Integer.BYTES);
+			buffer.putInt(value);
+		}
+
+		void putLong(long value) throws IOException {
+			reserve(Long.BYTES);
+			buffer.putLong(value);
+		}
+
+		void putFloat(float value) throws IOException {
+			reserve(Float.BYTES);
+			buffer.putFloat(value);
+		}
+
+		void putBytes(byte[] bytes) throws IOException {
+			for (byte b : bytes) {
+				reserve(1);
+				buffer.put(b);
+			}
+		}
+
+		// CRC всех записанных байт; записывается последним
+		void putCrc() throws IOException {
+			flush();
+			buffer.putInt((int) crc.getValue());
+			flush();
+		}
+
+		private void reserve(int bytes) throws IOException {
+			if (buffer.remaining() < bytes) {
+				flush();
+			}
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			crc.update(buffer.duplicate());
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+}
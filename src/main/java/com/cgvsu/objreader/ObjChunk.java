@@ -0,0 +1,226 @@
+package com.cgvsu.objreader;
+
+import com.cgvsu.math.Vector2f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Polygon;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Часть файла для параллельного чтения. Разбор идёт в два прохода:
+ * <ol>
+ *     <li>parse() - строки участка разбираются в массивы примитивов; индексы граней сохраняются
+ *     как записаны в файле, вместе с числом элементов участка, прочитанных до грани;</li>
+ *     <li>build() - когда известно, сколько элементов во всех предыдущих участках (смещения),
+ *     создаются объекты модели, а индексы переводятся в номера списков так же, как при
+ *     последовательном чтении.</li>
+ * </ol>
+ * Строки разбирает тот же ObjLineParser, что и при последовательном чтении. Ошибка в любом
+ * проходе только отмечается (isFailed): сообщение и номер строки получает последовательное чтение.
+ */
+final class ObjChunk implements ObjLineParser.Sink {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private static final byte HAS_TEXTURE = 1;
+	private static final byte HAS_NORMAL = 2;
+
+	private final ObjLineReader lines;
+
+	private float[] vertices = new float[3 * INITIAL_CAPACITY];
+	private int vertexCount;
+	private float[] textureVertices = new float[2 * INITIAL_CAPACITY];
+	private int textureVertexCount;
+	private float[] normals = new float[3 * INITIAL_CAPACITY];
+	private int normalCount;
+
+	// Углы грани i - [faceStarts[i], faceStarts[i + 1]) массивов corner*
+	private int[] faceStarts = new int[INITIAL_CAPACITY + 1];
+	private byte[] faceFlags = new byte[INITIAL_CAPACITY];
+	// Число вершин, текстурных вершин и нормалей участка перед гранью: от них считаются отрицательные индексы
+	private int[] faceContext = new int[3 * INITIAL_CAPACITY];
+	private int faceCount;
+	private int[] cornerVertices = new int[4 * INITIAL_CAPACITY];
+	private int[] cornerTextureVertices = new int[4 * INITIAL_CAPACITY];
+	private int[] cornerNormals = new int[4 * INITIAL_CAPACITY];
+	// Индексы текущей грани, уже записанные в corner*
+	private int faceVertexCount;
+	private int faceTextureVertexCount;
+	private int faceNormalCount;
+
+	// Смещения участка в общих списках модели
+	int vertexOffset;
+	int textureVertexOffset;
+	int normalOffset;
+	int polygonOffset;
+
+	private volatile boolean failed;
+
+	ObjChunk(ObjLineReader lines) {
+		this.lines = lines;
+	}
+
+	int getVertexCount() {
+		return vertexCount;
+	}
+
+	int getTextureVertexCount() {
+		return textureVertexCount;
+	}
+
+	int getNormalCount() {
+		return normalCount;
+	}
+
+	int getFaceCount() {
+		return faceCount;
+	}
+
+	boolean isFailed() {
+		return failed;
+	}
+
+	void parse() {
+		ObjLineParser parser = new ObjLineParser();
+		try {
+			while (lines.next()) {
+				parser.parseLine(lines.getBuffer(), lines.getLineStart(), lines.getLineEnd(), lines.getLineInd(), this);
+			}
+		} catch (ObjReaderException e) {
+			failed = true;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void vertex(float x, float y, float z) {
+		vertices = ensureCapacity(vertices, 3 * vertexCount + 3);
+		vertices[3 * vertexCount] = x;
+		vertices[3 * vertexCount + 1] = y;
+		vertices[3 * vertexCount + 2] = z;
+		vertexCount++;
+	}
+
+	@Override
+	public void textureVertex(float u, float v) {
+		textureVertices = ensureCapacity(textureVertices, 2 * textureVertexCount + 2);
+		textureVertices[2 * textureVertexCount] = u;
+		textureVertices[2 * textureVertexCount + 1] = v;
+		textureVertexCount++;
+	}
+
+	@Override
+	public void normal(float x, float y, float z) {
+		normals = ensureCapacity(normals, 3 * normalCount + 3);
+		normals[3 * normalCount] = x;
+		normals[3 * normalCount + 1] = y;
+		normals[3 * normalCount + 2] = z;
+		normalCount++;
+	}
+
+	// Индексы грани складываются как записаны в файле; границы проверяются в build()
+	@Override
+	public void beginFace(int vertexCount) {
+		int first = faceStarts[faceCount];
+		cornerVertices = ensureCapacity(cornerVertices, first + vertexCount);
+		cornerTextureVertices = ensureCapacity(cornerTextureVertices, first + vertexCount);
+		cornerNormals = ensureCapacity(cornerNormals, first + vertexCount);
+		faceVertexCount = 0;
+		faceTextureVertexCount = 0;
+		faceNormalCount = 0;
+	}
+
+	@Override
+	public void vertexIndex(int index, int lineInd) {
+		cornerVertices[faceStarts[faceCount] + faceVertexCount++] = index;
+	}
+
+	@Override
+	public void textureVertexIndex(int index, int lineInd) {
+		cornerTextureVertices[faceStarts[faceCount] + faceTextureVertexCount++] = index;
+	}
+
+	@Override
+	public void normalIndex(int index, int lineInd) {
+		cornerNormals[faceStarts[faceCount] + faceNormalCount++] = index;
+	}
+
+	@Override
+	public void endFace(boolean hasTextureVertices, boolean hasNormals) {
+		if (faceCount + 1 == faceFlags.length) {
+			int capacity = faceFlags.length * 2;
+			faceFlags = Arrays.copyOf(faceFlags, capacity);
+			faceStarts = Arrays.copyOf(faceStarts, capacity + 1);
+			faceContext = Arrays.copyOf(faceContext, 3 * capacity);
+		}
+		faceFlags[faceCount] = (byte) ((hasTextureVertices ? HAS_TEXTURE : 0) | (hasNormals ? HAS_NORMAL : 0));
+		faceContext[3 * faceCount] = vertexCount;
+		faceContext[3 * faceCount + 1] = textureVertexCount;
+		faceContext[3 * faceCount + 2] = normalCount;
+		faceStarts[faceCount + 1] = faceStarts[faceCount] + faceVertexCount;
+		faceCount++;
+	}
+
+	/**
+	 * Создаёт объекты участка на его местах в общих массивах. Вызывается после parse(),
+	 * когда смещения уже заданы.
+	 */
+	void build(Vector3f[] allVertices, Vector2f[] allTextureVertices, Vector3f[] allNormals, Polygon[] allPolygons) {
+		for (int i = 0; i < vertexCount; i++) {
+			allVertices[vertexOffset + i] = new Vector3f(vertices[3 * i], vertices[3 * i + 1], vertices[3 * i + 2]);
+		}
+		for (int i = 0; i < textureVertexCount; i++) {
+			allTextureVertices[textureVertexOffset + i] = new Vector2f(textureVertices[2 * i], textureVertices[2 * i + 1]);
+		}
+		for (int i = 0; i < normalCount; i++) {
+			allNormals[normalOffset + i] = new Vector3f(normals[3 * i], normals[3 * i + 1], normals[3 * i + 2]);
+		}
+
+		try {
+			for (int face = 0; face < faceCount; face++) {
+				int first = faceStarts[face];
+				int n = faceStarts[face + 1] - first;
+				Polygon polygon = new Polygon();
+				polygon.setVertexIndices(
+						resolve(cornerVertices, first, n, vertexOffset + faceContext[3 * face]));
+				if ((faceFlags[face] & HAS_TEXTURE) != 0) {
+					polygon.setTextureVertexIndices(
+							resolve(cornerTextureVertices, first, n, textureVertexOffset + faceContext[3 * face + 1]));
+				}
+				if ((faceFlags[face] & HAS_NORMAL) != 0) {
+					polygon.setNormalIndices(
+							resolve(cornerNormals, first, n, normalOffset + faceContext[3 * face + 2]));
+				}
+				allPolygons[polygonOffset + face] = polygon;
+			}
+		} catch (ObjReaderException e) {
+			failed = true;
+		}
+
+		// Модель построена, промежуточные массивы больше не нужны
+		vertices = textureVertices = normals = null;
+		faceStarts = faceContext = cornerVertices = cornerTextureVertices = cornerNormals = null;
+		faceFlags = null;
+	}
+
+	// size - число элементов списка к моменту грани, как model.vertices.size() при последовательном чтении
+	private static ArrayList<Integer> resolve(int[] indices, int first, int n, int size) {
+		ArrayList<Integer> result = new ArrayList<>(n);
+		for (int i = first; i < first + n; i++) {
+			result.add(ObjReader.resolveIndex(indices[i], size, -1));
+		}
+		return result;
+	}
+
+	private static float[] ensureCapacity(float[] array, int size) {
+		return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+	}
+
+	private static int[] ensureCapacity(int[] array, int size) {
+		return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+	}
+}
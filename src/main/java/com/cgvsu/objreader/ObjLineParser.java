@@ -0,0 +1,127 @@
+package com.cgvsu.objreader;
+
+/**
+ * Разбор строки OBJ в байтах с проверками формата. Результат передаётся приёмнику (Sink):
+ * последовательное чтение сразу строит модель, параллельное складывает числа в массивы участка.
+ * Так проверки и их сообщения существуют в одном месте для обоих способов чтения.
+ */
+final class ObjLineParser {
+
+	private static final String V = "v";
+	private static final String VT = "vt";
+	private static final String VN = "vn";
+	private static final String F = "f";
+
+	/**
+	 * Приёмник разобранных элементов. Индексы граней передаются как записаны в файле (с 1,
+	 * отрицательные - от конца), сразу после разбора каждого: приёмник может проверять их
+	 * в том же порядке, что и строку.
+	 */
+	interface Sink {
+		void vertex(float x, float y, float z);
+
+		void textureVertex(float u, float v);
+
+		void normal(float x, float y, float z);
+
+		// Начало грани из vertexCount вершин
+		void beginFace(int vertexCount);
+
+		void vertexIndex(int index, int lineInd);
+
+		void textureVertexIndex(int index, int lineInd);
+
+		void normalIndex(int index, int lineInd);
+
+		// Грань прошла проверки; у неё есть текстурные координаты и/или нормали во всех вершинах
+		void endFace(boolean hasTextureVertices, boolean hasNormals);
+	}
+
+	private final ObjTokenizer tokens = new ObjTokenizer();
+
+	void parseLine(byte[] buffer, int start, int end, int lineInd, Sink sink) {
+		int count = tokens.tokenize(buffer, start, end);
+		if (count == 0) {
+			return;
+		}
+
+		int keywordStart = tokens.getStart(0);
+		int keywordEnd = tokens.getEnd(0);
+		int nArgs = count - 1;
+
+		if (ObjTokenizer.equals(buffer, keywordStart, keywordEnd, V)) {
+			if (nArgs != 3) {
+				throw new ObjReaderException("Vertex must have exactly 3 coordinates.", lineInd);
+			}
+			sink.vertex(parseFloat(buffer, 1, lineInd), parseFloat(buffer, 2, lineInd), parseFloat(buffer, 3, lineInd));
+		} else if (ObjTokenizer.equals(buffer, keywordStart, keywordEnd, VT)) {
+			if (nArgs < 2) {
+				throw new ObjReaderException("Texture vertex must have at least 2 coordinates.", lineInd);
+			}
+			sink.textureVertex(parseFloat(buffer, 1, lineInd), parseFloat(buffer, 2, lineInd));
+		} else if (ObjTokenizer.equals(buffer, keywordStart, keywordEnd, VN)) {
+			if (nArgs != 3) {
+				throw new ObjReaderException("Normal must have exactly 3 coordinates.", lineInd);
+			}
+			sink.normal(parseFloat(buffer, 1, lineInd), parseFloat(buffer, 2, lineInd), parseFloat(buffer, 3, lineInd));
+		} else if (ObjTokenizer.equals(buffer, keywordStart, keywordEnd, F)) {
+			parseFace(buffer, nArgs, lineInd, sink);
+		}
+	}
+
+	private float parseFloat(byte[] buffer, int token, int lineInd) {
+		return ObjTokenizer.parseFloat(buffer, tokens.getStart(token), tokens.getEnd(token), lineInd);
+	}
+
+	// То же, что ObjReader.parseFace(List<String>, ...), но слова вершин делятся на части по '/' прямо в буфере
+	private void parseFace(byte[] buffer, int nArgs, int lineInd, Sink sink) {
+		if (nArgs < 3) {
+			throw new ObjReaderException("Polygon must have at least 3 vertices.", lineInd);
+		}
+
+		sink.beginFace(nArgs);
+		int nTexture = 0;
+		int nNormal = 0;
+		for (int token = 1; token <= nArgs; token++) {
+			int end = tokens.getEnd(token);
+			int partStart = tokens.getStart(token);
+			int partEnd = indexOf(buffer, partStart, end, (byte) '/');
+			sink.vertexIndex(ObjTokenizer.parseInt(buffer, partStart, partEnd, lineInd), lineInd);
+
+			if (partEnd < end) {
+				partStart = partEnd + 1;
+				partEnd = indexOf(buffer, partStart, end, (byte) '/');
+				if (partEnd > partStart) {
+					nTexture++;
+					sink.textureVertexIndex(ObjTokenizer.parseInt(buffer, partStart, partEnd, lineInd), lineInd);
+				}
+
+				if (partEnd < end) {
+					partStart = partEnd + 1;
+					partEnd = indexOf(buffer, partStart, end, (byte) '/');
+					if (partEnd > partStart) {
+						nNormal++;
+						sink.normalIndex(ObjTokenizer.parseInt(buffer, partStart, partEnd, lineInd), lineInd);
+					}
+				}
+			}
+		}
+
+		if (nTexture > 0 && nTexture != nArgs) {
+			throw new ObjReaderException("Polygon has incomplete texture coordinates.", lineInd);
+		}
+
+		if (nNormal > 0 && nNormal != nArgs) {
+			throw new ObjReaderException("Polygon has incomplete normals.", lineInd);
+		}
+
+		sink.endFace(nTexture > 0, nNormal > 0);
+	}
+
+	private static int indexOf(byte[] buffer, int from, int to, byte value) {
+		while (from < to && buffer[from] != value) {
+			from++;
+		}
+		return from;
+	}
+}
@@ -0,0 +1,150 @@
+package com.cgvsu.objreader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Построчное чтение потока в переиспользуемый байтовый буфер. Строки разделяются "\n", "\r\n"
+ * или "\r" - как у Scanner.nextLine для обычных файлов. Текущая строка - байты
+ * [getLineStart(), getLineEnd()) массива getBuffer(); они действительны до следующего next().
+ * Буфер растёт, только если строка длиннее него.
+ */
+final class ObjLineReader {
+
+	private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+	private static final int MIN_BUFFER_SIZE = 1 << 8;
+
+	private final InputStream input;
+	// Источник вместо потока: например, отображённый в память участок файла
+	private final ByteBuffer source;
+	private byte[] buffer;
+	// Непрочитанные байты буфера: [position, limit)
+	private int position;
+	private int limit;
+	private boolean endOfInput;
+	// Предыдущая строка кончилась на '\r': следующий '\n' относится к тому же разделителю
+	private boolean skipLineFeed;
+
+	private int lineStart;
+	private int lineEnd;
+	private int lineInd;
+
+	ObjLineReader(InputStream input) {
+		this.input = input;
+		this.source = null;
+		this.buffer = new byte[DEFAULT_BUFFER_SIZE];
+	}
+
+	/**
+	 * Строки байтов source от текущей позиции до limit(). Байты копируются в буфер по частям,
+	 * так что отображённый файл не копируется в кучу целиком.
+	 */
+	ObjLineReader(ByteBuffer source) {
+		this.input = null;
+		this.source = source;
+		// Небольшому участку не нужен буфер полного размера
+		this.buffer = new byte[Math.max(MIN_BUFFER_SIZE, Math.min(DEFAULT_BUFFER_SIZE, source.remaining()))];
+	}
+
+	// Строки готового массива: буфером служит сам массив
+	ObjLineReader(byte[] content) {
+		this(content, 0, content.length);
+	}
+
+	// Строки участка content[from, to); номера строк отсчитываются от начала участка
+	ObjLineReader(byte[] content, int from, int to) {
+		this.input = InputStream.nullInputStream();
+		this.source = null;
+		this.buffer = content;
+		this.position = from;
+		this.limit = to;
+		this.endOfInput = true;
+	}
+
+	/**
+	 * Переходит к следующей строке; false, если поток кончился.
+	 */
+	boolean next() throws IOException {
+		int scan = position;
+		while (true) {
+			if (skipLineFeed && scan < limit) {
+				skipLineFeed = false;
+				if (buffer[scan] == '\n') {
+					position = ++scan;
+				}
+			}
+			while (scan < limit) {
+				byte b = buffer[scan];
+				if (b == '\n' || b == '\r') {
+					lineStart = position;
+					lineEnd = scan;
+					position = scan + 1;
+					skipLineFeed = b == '\r';
+					lineInd++;
+					return true;
+				}
+				scan++;
+			}
+			if (endOfInput) {
+				if (position == limit) {
+					return false;
+				}
+				// Последняя строка без разделителя
+				lineStart = position;
+				lineEnd = limit;
+				position = limit;
+				lineInd++;
+				return true;
+			}
+			scan -= position;
+			fill();
+		}
+	}
+
+	// Сдвигает непрочитанный остаток в начало буфера и дочитывает поток
+	private void fill() throws IOException {
+		int remaining = limit - position;
+		if (remaining == buffer.length) {
+			byte[] larger = new byte[buffer.length * 2];
+			System.arraycopy(buffer, position, larger, 0, remaining);
+			buffer = larger;
+		} else if (position > 0) {
+			System.arraycopy(buffer, position, buffer, 0, remaining);
+		}
+		position = 0;
+		limit = remaining;
+		int read = source != null ? read(source) : input.read(buffer, limit, buffer.length - limit);
+		if (read < 0) {
+			endOfInput = true;
+		} else {
+			limit += read;
+		}
+	}
+
+	private int read(ByteBuffer source) {
+		if (!source.hasRemaining()) {
+			return -1;
+		}
+		int read = Math.min(source.remaining(), buffer.length - limit);
+		source.get(buffer, limit, read);
+		return read;
+	}
+
+	byte[] getBuffer() {
+		return buffer;
+	}
+
+	int getLineStart() {
+		return lineStart;
+	}
+
+	int getLineEnd() {
+		return lineEnd;
+	}
+
+	// Номер текущей строки, начиная с 1
+	int getLineInd() {
+		return lineInd;
+	}
+}
@@ -5,50 +5,294 @@ import com.cgvsu.math.Vector3f;
 import com.cgvsu.model.Model;
 import com.cgvsu.model.Polygon;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 public class ObjReader {
 
-	private static final String V = "v";
-	private static final String VT = "vt";
-	private static final String VN = "vn";
-	private static final String F = "f";
+	// Участки меньше этого не стоят отдельной задачи; на поток приходится несколько участков,
+	// чтобы неравные по сложности части файла не оставляли потоки без работы
+	private static final int MIN_CHUNK_SIZE = 1 << 20;
+	private static final int CHUNKS_PER_THREAD = 4;
+	// Участок отображается одним MappedByteBuffer, а его размер ограничен int
+	private static final long MAX_MAPPED_CHUNK_SIZE = 1L << 28;
+	// Порция, которой ищется конец строки на границе участков
+	private static final int BOUNDARY_SCAN_SIZE = 1 << 16;
 
 	public static Model read(String fileContent) {
-		Model model = new Model();
+		return read(fileContent.getBytes(StandardCharsets.UTF_8));
+	}
 
-		int lineInd = 0;
-		Scanner scanner = new Scanner(fileContent);
+	private static Model read(byte[] content) {
+		try {
+			return read(new ObjLineReader(content));
+		} catch (IOException e) {
+			// поток в памяти не бросает IOException
+			throw new UncheckedIOException(e);
+		}
+	}
 
-		while (scanner.hasNextLine()) {
-			lineInd++;
-			String line = scanner.nextLine().trim();
+	/**
+	 * Читает файл по частям, не загружая его целиком в память.
+	 */
+	public static Model read(Path path) throws IOException {
+		try (InputStream input = Files.newInputStream(path)) {
+			return read(input);
+		}
+	}
 
-			if (line.isEmpty() || line.startsWith("#")) {
-				continue;
-			}
+	/**
+	 * Читает OBJ из потока в кодировке UTF-8. Байты читаются в буфер, который переиспользуется
+	 * для всех строк, так что памяти, кроме самой модели, нужно порядка длины строки.
+	 * Номера строк в ObjReaderException те же, что у read(String). Поток не закрывается.
+	 */
+	public static Model read(InputStream input) throws IOException {
+		return read(new ObjLineReader(input));
+	}
 
-			String[] tokens = line.split("\\s+");
-			String keyword = tokens[0];
+	/**
+	 * Разбирает OBJ в кодировке UTF-8 в потоках общего ForkJoinPool. Результат, в том числе
+	 * исключение с номером строки, тот же, что у read(String).
+	 * <p>
+	 * Файл делится на участки по границам строк. Строки v, vt и vn друг от друга не зависят,
+	 * поэтому участки разбираются независимо; зависят от предыдущих строк только отрицательные
+	 * индексы граней и проверка границ индексов. По числу элементов в участках (префиксные суммы)
+	 * находятся смещения участков, после чего участки параллельно создают объекты модели
+	 * и переводят индексы. Если в каком-то участке ошибка, файл читается последовательно:
+	 * ошибки редки, а так сообщение и номер строки заведомо совпадают.
+	 */
+	public static Model readParallel(byte[] content) {
+		int parallelism = ForkJoinPool.getCommonPoolParallelism();
+		int chunkCount = (int) Math.min((long) parallelism * CHUNKS_PER_THREAD, content.length / MIN_CHUNK_SIZE);
+		return readParallel(content, chunkCount);
+	}
 
-			ArrayList<String> args =
-					new ArrayList<>(Arrays.asList(tokens).subList(1, tokens.length));
+	static Model readParallel(byte[] content, int chunkCount) {
+		List<ObjChunk> chunks = split(content, chunkCount);
+		if (chunks.size() <= 1) {
+			return read(content);
+		}
+		Model model = readChunks(chunks);
+		return model != null ? model : read(content);
+	}
 
-			switch (keyword) {
-				case V -> model.vertices.add(parseVertex(args, lineInd));
-				case VT -> model.textureVertices.add(parseTextureVertex(args, lineInd));
-				case VN -> model.normals.add(parseNormal(args, lineInd));
-				case F -> model.polygons.add(parseFace(args, model, lineInd));
-				default -> {
+	/**
+	 * Читает файл через отображение в память (FileChannel.map): участки файла по границам строк
+	 * отображаются отдельными буферами (каждый меньше 2 ГБ, так что размер файла не ограничен)
+	 * и разбираются параллельно, как в readParallel(byte[]). Байты попадают в кучу только
+	 * небольшими порциями буфера строк, без копии всего файла и без декодирования в String,
+	 * поэтому память нужна в основном под саму модель. Результат тот же, что у read(Path).
+	 */
+	public static Model readParallel(Path path) throws IOException {
+		long size = Files.size(path);
+		long parts = (long) ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD;
+		return readParallel(path, Math.max(MIN_CHUNK_SIZE, Math.min(MAX_MAPPED_CHUNK_SIZE, size / parts)));
+	}
+
+	static Model readParallel(Path path, long chunkSize) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			List<ObjChunk> chunks = new ArrayList<>();
+			long from = 0;
+			while (from < size) {
+				long to = findLineEnd(channel, Math.min(size, from + chunkSize), size);
+				if (to - from > Integer.MAX_VALUE) {
+					throw new IOException("Line at offset " + from + " is too long to be mapped");
 				}
+				// Отображение остаётся действительным и после закрытия канала
+				chunks.add(new ObjChunk(new ObjLineReader(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from))));
+				from = to;
 			}
+
+			Model model = readChunks(chunks);
+			return model != null ? model : read(path);
 		}
+	}
 
-		validateModel(model);
+	// Позиция сразу после первого '\n', начиная с position - 1; size, если такого нет
+	private static long findLineEnd(FileChannel channel, long position, long size) throws IOException {
+		ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+		long offset = position - 1;
+		while (offset < size) {
+			scan.clear();
+			int read = channel.read(scan, offset);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (scan.get(i) == '\n') {
+					return offset + i + 1;
+				}
+			}
+			offset += read;
+		}
+		return size;
+	}
+
+	// Разбирает участки параллельно; null, если в каком-то из них ошибка
+	private static Model readChunks(List<ObjChunk> chunks) {
+		chunks.parallelStream().forEach(ObjChunk::parse);
+
+		int vertexCount = 0;
+		int textureVertexCount = 0;
+		int normalCount = 0;
+		int polygonCount = 0;
+		for (ObjChunk chunk : chunks) {
+			if (chunk.isFailed()) {
+				return null;
+			}
+			chunk.vertexOffset = vertexCount;
+			chunk.textureVertexOffset = textureVertexCount;
+			chunk.normalOffset = normalCount;
+			chunk.polygonOffset = polygonCount;
+			vertexCount += chunk.getVertexCount();
+			textureVertexCount += chunk.getTextureVertexCount();
+			normalCount += chunk.getNormalCount();
+			polygonCount += chunk.getFaceCount();
+		}
 
+		Vector3f[] vertices = new Vector3f[vertexCount];
+		Vector2f[] textureVertices = new Vector2f[textureVertexCount];
+		Vector3f[] normals = new Vector3f[normalCount];
+		Polygon[] polygons = new Polygon[polygonCount];
+		chunks.parallelStream().forEach(chunk -> chunk.build(vertices, textureVertices, normals, polygons));
+		for (ObjChunk chunk : chunks) {
+			if (chunk.isFailed()) {
+				return null;
+			}
+		}
+
+		Model model = new Model();
+		model.vertices = new ArrayList<>(Arrays.asList(vertices));
+		model.textureVertices = new ArrayList<>(Arrays.asList(textureVertices));
+		model.normals = new ArrayList<>(Arrays.asList(normals));
+		model.polygons = new ArrayList<>(Arrays.asList(polygons));
+		validateModel(model);
 		return model;
 	}
 
+	// Делит content примерно на chunkCount участков; каждый, кроме последнего, кончается на '\n'
+	private static List<ObjChunk> split(byte[] content, int chunkCount) {
+		List<ObjChunk> chunks = new ArrayList<>();
+		long chunkSize = Math.max(1, content.length / Math.max(1, chunkCount));
+		int from = 0;
+		while (from < content.length) {
+			int to = (int) Math.min(content.length, from + chunkSize);
+			// '\n' всегда завершает строку (сам или в паре "\r\n"), поэтому после него можно резать
+			while (to < content.length && content[to - 1] != '\n') {
+				to++;
+			}
+			chunks.add(new ObjChunk(new ObjLineReader(content, from, to)));
+			from = to;
+		}
+		return chunks;
+	}
+
+	private static Model read(ObjLineReader lines) throws IOException {
+		ModelSink model = new ModelSink();
+		ObjLineParser parser = new ObjLineParser();
+
+		while (lines.next()) {
+			parser.parseLine(lines.getBuffer(), lines.getLineStart(), lines.getLineEnd(), lines.getLineInd(), model);
+		}
+
+		validateModel(model.model);
+
+		return model.model;
+	}
+
+	// Строит модель по мере разбора; индексы граней проверяются сразу, как в parseFace(List<String>, ...)
+	private static final class ModelSink implements ObjLineParser.Sink {
+		private final Model model = new Model();
+		private ArrayList<Integer> vertexIndices;
+		private ArrayList<Integer> textureVertexIndices;
+		private ArrayList<Integer> normalIndices;
+		private int faceSize;
+
+		@Override
+		public void vertex(float x, float y, float z) {
+			model.vertices.add(new Vector3f(x, y, z));
+		}
+
+		@Override
+		public void textureVertex(float u, float v) {
+			model.textureVertices.add(new Vector2f(u, v));
+		}
+
+		@Override
+		public void normal(float x, float y, float z) {
+			model.normals.add(new Vector3f(x, y, z));
+		}
+
+		@Override
+		public void beginFace(int vertexCount) {
+			// Списки сразу нужного размера: по умолчанию ArrayList выделяет место под 10 элементов.
+			// Списки текстурных координат и нормалей создаются, только если они есть в грани
+			faceSize = vertexCount;
+			vertexIndices = new ArrayList<>(vertexCount);
+			textureVertexIndices = null;
+			normalIndices = null;
+		}
+
+		@Override
+		public void vertexIndex(int index, int lineInd) {
+			vertexIndices.add(resolveIndex(index, model.vertices.size(), lineInd));
+		}
+
+		@Override
+		public void textureVertexIndex(int index, int lineInd) {
+			if (textureVertexIndices == null) {
+				textureVertexIndices = new ArrayList<>(faceSize);
+			}
+			textureVertexIndices.add(resolveIndex(index, model.textureVertices.size(), lineInd));
+		}
+
+		@Override
+		public void normalIndex(int index, int lineInd) {
+			if (normalIndices == null) {
+				normalIndices = new ArrayList<>(faceSize);
+			}
+			normalIndices.add(resolveIndex(index, model.normals.size(), lineInd));
+		}
+
+		@Override
+		public void endFace(boolean hasTextureVertices, boolean hasNormals) {
+			Polygon polygon = new Polygon();
+			polygon.setVertexIndices(vertexIndices);
+			if (hasTextureVertices) {
+				polygon.setTextureVertexIndices(textureVertexIndices);
+			}
+			if (hasNormals) {
+				polygon.setNormalIndices(normalIndices);
+			}
+			model.polygons.add(polygon);
+		}
+	}
+
+	// Номер из файла (с 1, отрицательный - от конца) в индекс списка из size элементов
+	static int resolveIndex(int idx, int size, int lineInd) {
+		if (idx == 0) {
+			throw new ObjReaderException("OBJ indices start from 1.", lineInd);
+		}
+
+		int result = idx > 0 ? idx - 1 : size + idx;
+
+		if (result < 0 || result >= size) {
+			throw new ObjReaderException("Index out of bounds.", lineInd);
+		}
+
+		return result;
+	}
+
 	protected static Vector3f parseVertex(List<String> args, int lineInd) {
 		if (args.size() != 3) {
 			throw new ObjReaderException("Vertex must have exactly 3 coordinates.", lineInd);
@@ -137,24 +381,12 @@ public class ObjReader {
 
 
 	private static int parseIndex(String value, int size, int lineInd) {
+		int idx;
 		try {
-			int idx = Integer.parseInt(value);
-
-			if (idx == 0) {
-				throw new ObjReaderException("OBJ indices start from 1.", lineInd);
-			}
-
-			int result = idx > 0 ? idx - 1 : size + idx;
-
-			if (result < 0 || result >= size) {
-				throw new ObjReaderException("Index out of bounds.", lineInd);
-			}
-
-			return result;
-
+			idx = Integer.parseInt(value);
 		} catch (NumberFormatException e) {
 			throw new ObjReaderException("Invalid index value.", lineInd);
 		}
+		return resolveIndex(idx, size, lineInd);
 	}
 }
-
@@ -0,0 +1,239 @@
+package com.cgvsu.objreader;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Разбор строки OBJ прямо в байтовом буфере, без создания строк. Строка делится на слова так же,
+ * как trim() и split("\\s+"): по краям отбрасываются байты не больше пробела, внутри разделителями
+ * служат пробел, '\t', '\n', '\u000B', '\f' и '\r'. Границы слов хранятся в переиспользуемых массивах.
+ * <p>
+ * Числа разбираются без Float.parseFloat и Integer.parseInt, с тем же результатом. Запись, которую
+ * быстрый разбор не покрывает (шестнадцатеричная, "NaN", суффикс 'f', не-ASCII цифры и т.п.),
+ * передаётся стандартному разбору.
+ */
+final class ObjTokenizer {
+
+	// Степени десяти, точно представимые в double
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+			1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	// Значащих цифр, которые гарантированно помещаются в long
+	private static final int MAX_DIGITS = 18;
+
+	private int[] starts = new int[16];
+	private int[] ends = new int[16];
+	private int count;
+
+	/**
+	 * Делит строку buffer[from, to) на слова. Пустые строки и комментарии дают 0 слов.
+	 */
+	int tokenize(byte[] buffer, int from, int to) {
+		count = 0;
+		while (from < to && (buffer[from] & 0xFF) <= ' ') {
+			from++;
+		}
+		while (to > from && (buffer[to - 1] & 0xFF) <= ' ') {
+			to--;
+		}
+		if (from == to || buffer[from] == '#') {
+			return 0;
+		}
+
+		int i = from;
+		while (i < to) {
+			int start = i;
+			while (i < to && !isSeparator(buffer[i])) {
+				i++;
+			}
+			add(start, i);
+			while (i < to && isSeparator(buffer[i])) {
+				i++;
+			}
+		}
+		return count;
+	}
+
+	private void add(int start, int end) {
+		if (count == starts.length) {
+			starts = Arrays.copyOf(starts, count * 2);
+			ends = Arrays.copyOf(ends, count * 2);
+		}
+		starts[count] = start;
+		ends[count] = end;
+		count++;
+	}
+
+	int getCount() {
+		return count;
+	}
+
+	int getStart(int token) {
+		return starts[token];
+	}
+
+	int getEnd(int token) {
+		return ends[token];
+	}
+
+	// Совпадает ли слово с ASCII-строкой
+	static boolean equals(byte[] buffer, int start, int end, String word) {
+		if (end - start != word.length()) {
+			return false;
+		}
+		for (int i = 0; i < word.length(); i++) {
+			if (buffer[start + i] != word.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isSeparator(byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+	}
+
+	/**
+	 * Разбирает число с плавающей точкой; результат совпадает с Float.parseFloat.
+	 */
+	static float parseFloat(byte[] buffer, int start, int end, int lineInd) {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+			negative = buffer[i] == '-';
+			i++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean anyDigit = false;
+		boolean truncated = false;
+		while (i < end && isDigit(buffer[i])) {
+			anyDigit = true;
+			if (digits < MAX_DIGITS) {
+				mantissa = mantissa * 10 + (buffer[i] - '0');
+				if (mantissa != 0) {
+					digits++;
+				}
+			} else {
+				truncated = true;
+			}
+			i++;
+		}
+		if (i < end && buffer[i] == '.') {
+			i++;
+			while (i < end && isDigit(buffer[i])) {
+				anyDigit = true;
+				if (digits < MAX_DIGITS) {
+					mantissa = mantissa * 10 + (buffer[i] - '0');
+					if (mantissa != 0) {
+						digits++;
+					}
+					exponent--;
+				} else {
+					truncated = true;
+				}
+				i++;
+			}
+		}
+		if (anyDigit && i < end && (buffer[i] == 'e' || buffer[i] == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+				negativeExponent = buffer[i] == '-';
+				i++;
+			}
+			int exponentStart = i;
+			int value = 0;
+			while (i < end && isDigit(buffer[i])) {
+				value = Math.min(value * 10 + (buffer[i] - '0'), 100_000);
+				i++;
+			}
+			if (i == exponentStart) {
+				return parseFloatFallback(buffer, start, end, lineInd);
+			}
+			exponent += negativeExponent ? -value : value;
+		}
+
+		if (!anyDigit || i != end || truncated) {
+			return parseFloatFallback(buffer, start, end, lineInd);
+		}
+		if (mantissa == 0) {
+			return negative ? -0.0f : 0.0f;
+		}
+		if (mantissa < (1L << 53) && exponent >= -22 && exponent <= 22) {
+			// Одно действие над точными double даёт правильно округлённый double
+			double value = exponent >= 0
+					? mantissa * POWERS_OF_TEN[exponent]
+					: mantissa / POWERS_OF_TEN[-exponent];
+			// Второе округление до float ошибается, только если double попал ровно в середину
+			// между соседними float; нормализованные float отбрасывают 29 младших бит
+			long bits = Double.doubleToRawLongBits(value);
+			float result = (float) value;
+			if ((bits & 0x1FFFFFFFL) != 0x10000000L && result >= Float.MIN_NORMAL && result <= Float.MAX_VALUE) {
+				return negative ? -result : result;
+			}
+		}
+		return parseFloatFallback(buffer, start, end, lineInd);
+	}
+
+	private static float parseFloatFallback(byte[] buffer, int start, int end, int lineInd) {
+		try {
+			return Float.parseFloat(new String(buffer, start, end - start, StandardCharsets.UTF_8));
+		} catch (NumberFormatException e) {
+			throw new ObjReaderException("Invalid float value.", lineInd);
+		}
+	}
+
+	/**
+	 * Разбирает целое число; принимает то же, что Integer.parseInt. Ошибка - "Invalid index value.".
+	 */
+	static int parseInt(byte[] buffer, int start, int end, int lineInd) {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+			negative = buffer[i] == '-';
+			i++;
+		}
+		if (i == end) {
+			throw new ObjReaderException("Invalid index value.", lineInd);
+		}
+		long value = 0;
+		for (; i < end; i++) {
+			byte b = buffer[i];
+			if (!isDigit(b)) {
+				if (b < 0) {
+					// Не-ASCII: Integer.parseInt понимает цифры других алфавитов
+					return parseIntFallback(buffer, start, end, lineInd);
+				}
+				throw new ObjReaderException("Invalid index value.", lineInd);
+			}
+			value = value * 10 + (b - '0');
+			if (value > 1L + Integer.MAX_VALUE) {
+				throw new ObjReaderException("Invalid index value.", lineInd);
+			}
+		}
+		if (negative) {
+			return (int) -value;
+		}
+		if (value > Integer.MAX_VALUE) {
+			throw new ObjReaderException("Invalid index value.", lineInd);
+		}
+		return (int) value;
+	}
+
+	private static int parseIntFallback(byte[] buffer, int start, int end, int lineInd) {
+		try {
+			return Integer.parseInt(new String(buffer, start, end - start, StandardCharsets.UTF_8));
+		} catch (NumberFormatException e) {
+			throw new ObjReaderException("Invalid index value.", lineInd);
+		}
+	}
+
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+}
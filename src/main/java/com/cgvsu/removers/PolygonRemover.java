@@ -31,6 +31,7 @@ public class PolygonRemover {
             }
         }
         model.polygons = newPolygons;
+        model.markGeometryChanged();
 
         if (!deleteFreeVertices) return;
 
@@ -71,10 +72,14 @@ public class PolygonRemover {
         Map<Integer, Integer> tMap = rebuildList(model.textureVertices, texturesToKeep);
         Map<Integer, Integer> nMap = rebuildList(model.normals, normalsToKeep);
 
-        for (Polygon p : model.polygons) {
-            remap(p.getVertexIndices(), vMap);
-            remap(p.getTextureVertexIndices(), tMap);
-            remap(p.getNormalIndices(), nMap);
+        // Полигоны не изменяются на месте, а заменяются новыми: старые могут ещё рисоваться в фоне
+        for (int i = 0; i < model.polygons.size(); i++) {
+            Polygon p = model.polygons.get(i);
+            Polygon remapped = new Polygon();
+            remap(p.getVertexIndices(), vMap, remapped.getVertexIndices());
+            remap(p.getTextureVertexIndices(), tMap, remapped.getTextureVertexIndices());
+            remap(p.getNormalIndices(), nMap, remapped.getNormalIndices());
+            model.polygons.set(i, remapped);
         }
     }
 
@@ -96,13 +101,12 @@ public class PolygonRemover {
         return map;
     }
 
-    private static void remap(ArrayList<Integer> indices, Map<Integer, Integer> map) {
+    private static void remap(ArrayList<Integer> indices, Map<Integer, Integer> map, ArrayList<Integer> dest) {
         if (indices == null || indices.isEmpty()) return;
-        for (int i = 0; i < indices.size(); i++) {
-            Integer ni = map.get(indices.get(i));
-            if (ni != null) {
-                indices.set(i, ni);
-            }
+        dest.ensureCapacity(indices.size());
+        for (Integer index : indices) {
+            Integer ni = map.get(index);
+            dest.add(ni != null ? ni : index);
         }
     }
 }
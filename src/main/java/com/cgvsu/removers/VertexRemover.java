@@ -23,7 +23,16 @@ public class VertexRemover {
             Set<Integer> used = new HashSet<>();
             for(Polygon p:model.polygons) used.addAll(p.getVertexIndices());
             Map<Integer,Integer> vMap = rebuildList(model.vertices,used);
-            for(Polygon p:model.polygons) remapIndices(p.getVertexIndices(),vMap);
+            // Полигоны заменяются новыми, а не изменяются на месте: старые могут ещё рисоваться в фоне
+            for(int i=0;i<model.polygons.size();i++){
+                Polygon p=model.polygons.get(i);
+                Polygon remapped=new Polygon();
+                remapIndices(p.getVertexIndices(),vMap,remapped.getVertexIndices());
+                remapped.getTextureVertexIndices().addAll(p.getTextureVertexIndices());
+                remapped.getNormalIndices().addAll(p.getNormalIndices());
+                model.polygons.set(i,remapped);
+            }
+            model.markGeometryChanged();
         }
     }
 
@@ -42,9 +51,10 @@ public class VertexRemover {
         return map;
     }
 
-    private static void remapIndices(ArrayList<Integer> indices, Map<Integer,Integer> map){
-        for(int i=0;i<indices.size();i++){
-            if(map.containsKey(indices.get(i))) indices.set(i,map.get(indices.get(i)));
+    private static void remapIndices(ArrayList<Integer> indices, Map<Integer,Integer> map, ArrayList<Integer> dest){
+        dest.ensureCapacity(indices.size());
+        for(Integer index:indices){
+            dest.add(map.getOrDefault(index,index));
         }
     }
 }
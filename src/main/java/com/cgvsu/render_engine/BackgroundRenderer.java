@@ -0,0 +1,494 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.Quaternionf;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.ModelTransform;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Отрисовка в отдельном потоке. Поток JavaFX вызывает requestFrame: камера и преобразования
+ * моделей копируются в неизменяемый снимок, и поток отрисовки строит по нему кадр, не трогая
+ * объекты интерфейса. Готовые кадры забираются через pollFrame и выводятся present.
+ * <p>
+ * Кадров три: в один пишет поток отрисовки, второй показывается потоком JavaFX, третий ждёт
+ * показа или свободен. Обмен идёт без блокировок; если новый кадр готов раньше, чем забран
+ * предыдущий, предыдущий пропускается, но опубликованный кадр остаётся готовым, пока его
+ * не заберёт pollFrame. Из нескольких запросов, пришедших за время отрисовки, выполняется
+ * только последний.
+ * <p>
+ * В режиме адаптивного разрешения кадры SOLID и WIREFRAME_RASTER рисуются в уменьшенный буфер
+ * (долю подбирает ResolutionScaler по времени предыдущих кадров) и растягиваются при выводе.
+ * Когда новых запросов нет, последний снимок перерисовывается в полном разрешении.
+ * <p>
+ * В прогрессивном режиме сплошная заливка рисуется ProgressiveRenderer частями в пределах
+ * того же бюджета кадра; пока запросов нет, кадр дорисовывается, а при изменении вида
+ * начинается заново.
+ * <p>
+ * RenderEngine хранит общие буферы в статических полях, поэтому, пока работает этот класс,
+ * вызывать RenderEngine из других потоков нельзя.
+ */
+public final class BackgroundRenderer {
+
+    public static final long DEFAULT_TARGET_FRAME_TIME = 16_000_000L;
+
+    private final int backgroundColor;
+    private final int lineColor;
+    private final TileRasterizer rasterizer;
+    private final Thread thread;
+
+    private final AtomicReference<Snapshot> pending = new AtomicReference<>();
+    private final AtomicReference<Frame> ready = new AtomicReference<>();
+    // Свободные кадры: возвращённые потоком JavaFX и пропущенные
+    private final ConcurrentLinkedQueue<Frame> freeFrames = new ConcurrentLinkedQueue<>();
+    private volatile boolean rendering;
+
+    // Бюджет кадра задаётся из потока JavaFX, доля разрешения публикуется потоком отрисовки
+    private volatile long targetFrameTimeNanos = DEFAULT_TARGET_FRAME_TIME;
+    private volatile float resolutionScale = ResolutionScaler.MAX_SCALE;
+
+    // Копии геометрии моделей для потока отрисовки; обновляются в потоке JavaFX при изменении модели
+    private final Map<Model, RenderCopy> renderCopies = new WeakHashMap<>();
+
+    // Состояние потока отрисовки
+    private Camera camera;
+    private long cameraVersion = -1;
+    private Frame current = new Frame();
+    private final ArrayList<Model> visibleModels = new ArrayList<>();
+    private final ResolutionScaler scaler = new ResolutionScaler(DEFAULT_TARGET_FRAME_TIME);
+    // Снимок, кадр которого показан в уменьшенном разрешении или не дорисован
+    private Snapshot resume;
+    private final ProgressiveRenderer progressiveRenderer;
+
+    public BackgroundRenderer(final int backgroundColor, final int lineColor, final TileRasterizer rasterizer) {
+        this.backgroundColor = backgroundColor;
+        this.lineColor = lineColor;
+        this.rasterizer = rasterizer;
+        this.progressiveRenderer = new ProgressiveRenderer(rasterizer);
+        freeFrames.add(new Frame());
+        freeFrames.add(new Frame());
+        thread = new Thread(this::run, "render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Запрашивает кадр с текущим состоянием камеры и моделей. Вызывается из потока JavaFX;
+     * сама отрисовка идёт в фоне. Геометрия модели копируется только после её изменения.
+     */
+    public void requestFrame(
+            final Camera camera,
+            final List<Model> models,
+            final RenderMode mode,
+            final boolean backFaceCulling,
+            final boolean antialiasedLines,
+            final boolean hiddenLineRemoval,
+            final boolean adaptiveResolution,
+            final boolean progressive,
+            final int width,
+            final int height) {
+
+        final ArrayList<ModelSnapshot> modelSnapshots = new ArrayList<>(models.size());
+        for (Model model : models) {
+            modelSnapshots.add(new ModelSnapshot(getRenderCopy(model), model.getTransform()));
+        }
+        pending.set(new Snapshot(camera, modelSnapshots, mode, backFaceCulling, antialiasedLines,
+                hiddenLineRemoval, adaptiveResolution, progressive, width, height));
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Забирает последний готовый кадр или возвращает null. Кадр нужно вернуть через releaseFrame.
+     */
+    public Frame pollFrame() {
+        return ready.getAndSet(null);
+    }
+
+    public void releaseFrame(final Frame frame) {
+        freeFrames.add(frame);
+    }
+
+    // Бюджет времени кадра для адаптивного разрешения, в наносекундах
+    public void setTargetFrameTime(final long targetFrameTimeNanos) {
+        if (targetFrameTimeNanos <= 0) {
+            throw new IllegalArgumentException("Target frame time must be positive: " + targetFrameTimeNanos);
+        }
+        this.targetFrameTimeNanos = targetFrameTimeNanos;
+    }
+
+    // Доля разрешения, с которой будет нарисован следующий кадр в адаптивном режиме
+    public float getResolutionScale() {
+        return resolutionScale;
+    }
+
+    // Есть невыполненный запрос, кадр в работе или готовый, но не забранный кадр
+    public boolean isBusy() {
+        return pending.get() != null || rendering || ready.get() != null;
+    }
+
+    private RenderCopy getRenderCopy(final Model model) {
+        RenderCopy copy = renderCopies.get(model);
+        if (copy == null || copy.geometryVersion != model.getGeometryVersion()
+                || copy.vertexCount != model.vertices.size() || copy.polygonCount != model.polygons.size()) {
+            copy = new RenderCopy(model);
+            renderCopies.put(model, copy);
+        }
+        return copy;
+    }
+
+    private void run() {
+        while (true) {
+            rendering = true;
+            Snapshot snapshot = pending.getAndSet(null);
+            final boolean resumed = snapshot == null;
+            if (resumed) {
+                // Сцена больше не меняется - дорисовываем последний кадр
+                snapshot = resume;
+            }
+            resume = null;
+            if (snapshot == null) {
+                rendering = false;
+                if (pending.get() == null) {
+                    LockSupport.park(this);
+                }
+                continue;
+            }
+
+            // Кадр с адаптивным разрешением: его время учитывается регулятором
+            final boolean adaptive = !resumed && snapshot.adaptiveResolution
+                    && snapshot.mode.isRasterized() && !snapshot.isProgressive();
+            final float scale = adaptive ? scaler.getScale() : ResolutionScaler.MAX_SCALE;
+            final long start = System.nanoTime();
+            boolean complete = true;
+            try {
+                complete = renderFrame(snapshot, current, scale);
+            } catch (RuntimeException e) {
+                current.frameBuffer.clear(backgroundColor);
+                current.segmentCount = 0;
+                current.stats = "render error: " + e.getMessage();
+            }
+            if (adaptive) {
+                scaler.setTargetFrameTime(targetFrameTimeNanos);
+                scaler.update(System.nanoTime() - start);
+                resolutionScale = scaler.getScale();
+            }
+            if (!complete || scale < ResolutionScaler.MAX_SCALE) {
+                resume = snapshot;
+            }
+
+            final Frame previous = ready.getAndSet(current);
+            if (previous != null) {
+                freeFrames.add(previous);
+            }
+            current = acquireFrame();
+            // Пока кадр не дорисован, поток считается занятым
+            if (resume == null) {
+                rendering = false;
+            }
+        }
+    }
+
+    // Свободный кадр. Из трёх кадров один только что опубликован, и поток JavaFX держит не больше
+    // одного, поэтому третий свободен; опубликованный кадр обратно не забирается
+    private Frame acquireFrame() {
+        while (true) {
+            final Frame frame = freeFrames.poll();
+            if (frame != null) {
+                return frame;
+            }
+            // Поток JavaFX забрал несколько кадров подряд - ждём, пока он вернёт один
+            Thread.onSpinWait();
+        }
+    }
+
+    // Возвращает false, если кадр нарисован не полностью и его нужно продолжить
+    private boolean renderFrame(final Snapshot snapshot, final Frame frame, final float scale) {
+        final Camera camera = applyCamera(snapshot);
+        final int width = snapshot.width;
+        final int height = snapshot.height;
+        // Размер буфера кадра; соотношение сторон камеры остаётся тем же, что у холста
+        final int bufferWidth = Math.max(1, Math.round(width * scale));
+        final int bufferHeight = Math.max(1, Math.round(height * scale));
+        RenderEngine.setBackFaceCulling(snapshot.backFaceCulling);
+
+        frame.mode = snapshot.mode;
+        frame.width = width;
+        frame.height = height;
+        frame.scale = scale;
+        frame.segmentCount = 0;
+        if (snapshot.isProgressive()) {
+            visibleModels.clear();
+            for (ModelSnapshot modelSnapshot : snapshot.models) {
+                visibleModels.add(modelSnapshot.apply());
+            }
+            final boolean complete = progressiveRenderer.render(
+                    camera, visibleModels, width, height, backgroundColor, targetFrameTimeNanos);
+            frame.frameBuffer.copyFrom(progressiveRenderer.getFrameBuffer());
+            frame.stats = progressiveRenderer.getStats()
+                    + String.format(Locale.ROOT, "\nprogress: %.0f%%", progressiveRenderer.getProgress() * 100);
+            return complete;
+        }
+
+        RenderEngine.getStats().reset();
+        visibleModels.clear();
+        for (ModelSnapshot modelSnapshot : snapshot.models) {
+            final Model model = modelSnapshot.apply();
+            if (RenderEngine.isVisible(camera, model)) {
+                visibleModels.add(model);
+            }
+        }
+
+        switch (snapshot.mode) {
+            case SOLID -> {
+                frame.frameBuffer.resize(bufferWidth, bufferHeight);
+                frame.frameBuffer.clear(backgroundColor);
+                RenderEngine.renderSolid(frame.frameBuffer, camera, visibleModels, rasterizer);
+            }
+            case WIREFRAME_RASTER -> {
+                frame.frameBuffer.resize(bufferWidth, bufferHeight);
+                frame.frameBuffer.clear(backgroundColor);
+                if (snapshot.hiddenLineRemoval) {
+                    RenderEngine.renderOccluders(frame.frameBuffer, camera, visibleModels, rasterizer, backgroundColor);
+                }
+                for (Model model : visibleModels) {
+                    RenderEngine.renderWireframe(frame.frameBuffer, camera, model, lineColor,
+                            snapshot.antialiasedLines, snapshot.hiddenLineRemoval);
+                }
+            }
+            default -> {
+                // Команды Canvas можно выполнять только в потоке JavaFX: здесь только отсечённые отрезки
+                for (Model model : visibleModels) {
+                    final int nSegments = RenderEngine.collectEdgeSegments(camera, model, width, height);
+                    frame.appendSegments(RenderEngine.getEdgeSegments(), nSegments);
+                }
+            }
+        }
+        frame.stats = RenderEngine.getStats().toString();
+        return true;
+    }
+
+    private Camera applyCamera(final Snapshot snapshot) {
+        if (camera == null || camera.getFov() != snapshot.fov
+                || camera.getNearPlane() != snapshot.nearPlane || camera.getFarPlane() != snapshot.farPlane) {
+            camera = new Camera(snapshot.cameraPosition, snapshot.cameraTarget,
+                    snapshot.fov, snapshot.aspectRatio, snapshot.nearPlane, snapshot.farPlane);
+            cameraVersion = snapshot.cameraVersion;
+        } else if (cameraVersion != snapshot.cameraVersion) {
+            camera.setPosition(snapshot.cameraPosition);
+            camera.setTarget(snapshot.cameraTarget);
+            cameraVersion = snapshot.cameraVersion;
+        }
+        camera.setAspectRatio(snapshot.aspectRatio);
+        return camera;
+    }
+
+    /**
+     * Готовый кадр: изображение в буфере кадра или отсечённые рёбра для вывода командами Canvas.
+     */
+    public static final class Frame {
+        private final FrameBuffer frameBuffer = new FrameBuffer(0, 0);
+        private float[] segments = new float[0];
+        private int segmentCount;
+        private RenderMode mode;
+        private int width;
+        private int height;
+        private float scale = ResolutionScaler.MAX_SCALE;
+        private String stats = "";
+        // Промежуточное изображение для растяжения уменьшенного кадра; используется только потоком JavaFX
+        private WritableImage scaledImage;
+
+        private Frame() {
+        }
+
+        private void appendSegments(final float[] source, final int count) {
+            if (segments.length < (segmentCount + count) * 6) {
+                segments = new float[Math.max(segments.length * 2, (segmentCount + count) * 6)];
+            }
+            System.arraycopy(source, 0, segments, segmentCount * 6, count * 6);
+            segmentCount += count;
+        }
+
+        // Выводит кадр на холст; вызывается из потока JavaFX
+        public void present(final GraphicsContext graphicsContext) {
+            if (mode.isRasterized()) {
+                final int bufferWidth = frameBuffer.getWidth();
+                final int bufferHeight = frameBuffer.getHeight();
+                if (bufferWidth == width && bufferHeight == height) {
+                    frameBuffer.blit(graphicsContext.getPixelWriter());
+                    return;
+                }
+                if (scaledImage == null || (int) scaledImage.getWidth() != bufferWidth
+                        || (int) scaledImage.getHeight() != bufferHeight) {
+                    scaledImage = new WritableImage(bufferWidth, bufferHeight);
+                }
+                frameBuffer.blit(scaledImage.getPixelWriter());
+                graphicsContext.drawImage(scaledImage, 0, 0, bufferWidth, bufferHeight, 0, 0, width, height);
+                return;
+            }
+            final double canvasWidth = graphicsContext.getCanvas().getWidth();
+            final double canvasHeight = graphicsContext.getCanvas().getHeight();
+            graphicsContext.clearRect(0, 0, Math.max(width, canvasWidth), Math.max(height, canvasHeight));
+            if (mode == RenderMode.WIREFRAME) {
+                for (int i = 0; i < segmentCount * 6; i += 6) {
+                    graphicsContext.strokeLine(segments[i], segments[i + 1], segments[i + 3], segments[i + 4]);
+                }
+            } else if (segmentCount > 0) {
+                graphicsContext.beginPath();
+                for (int i = 0; i < segmentCount * 6; i += 6) {
+                    graphicsContext.moveTo(segments[i], segments[i + 1]);
+                    graphicsContext.lineTo(segments[i + 3], segments[i + 4]);
+                }
+                graphicsContext.stroke();
+            }
+        }
+
+        public RenderMode getMode() {
+            return mode;
+        }
+
+        // Доля разрешения холста, в которой нарисован кадр
+        public float getScale() {
+            return scale;
+        }
+
+        // Изображение кадра в режимах SOLID и WIREFRAME_RASTER
+        public FrameBuffer getFrameBuffer() {
+            return frameBuffer;
+        }
+
+        // Статистика отрисовки этого кадра (RenderStats.toString())
+        public String getStats() {
+            return stats;
+        }
+    }
+
+    /**
+     * Снимок геометрии модели для потока отрисовки: собственные списки вершин и полигонов
+     * со ссылками на те же объекты Vector3f и Polygon. Полигоны не копируются: редакторы модели
+     * (PolygonRemover, VertexRemover) не изменяют их на месте, а заменяют новыми, так что
+     * полигон, попавший в снимок, больше не меняется. Копия стоит по ссылке на вершину и полигон.
+     */
+    private static final class RenderCopy {
+        private final Model model = new Model();
+        private final long geometryVersion;
+        private final int vertexCount;
+        private final int polygonCount;
+
+        // Версия преобразования источника, уже перенесённая в копию; меняется только потоком отрисовки
+        private long transformVersion = -1;
+
+        private RenderCopy(final Model source) {
+            geometryVersion = source.getGeometryVersion();
+            vertexCount = source.vertices.size();
+            polygonCount = source.polygons.size();
+            model.vertices.addAll(source.vertices);
+            model.polygons.addAll(source.polygons);
+        }
+    }
+
+    private static final class ModelSnapshot {
+        private final RenderCopy copy;
+        private final long transformVersion;
+        private final Vector3f translation;
+        private final Vector3f scale;
+        private final Vector3f rotation;
+        private final Quaternionf orientation;
+
+        private ModelSnapshot(final RenderCopy copy, final ModelTransform transform) {
+            this.copy = copy;
+            this.transformVersion = transform.getVersion();
+            this.translation = copyOf(transform.getTranslation());
+            this.scale = copyOf(transform.getScale());
+            if (transform.isOrientationMode()) {
+                this.orientation = transform.getOrientation();
+                this.rotation = null;
+            } else {
+                this.orientation = null;
+                this.rotation = copyOf(transform.getRotation());
+            }
+        }
+
+        // Переносит преобразование в копию модели; выполняется в потоке отрисовки
+        private Model apply() {
+            if (copy.transformVersion != transformVersion) {
+                final ModelTransform transform = copy.model.getTransform();
+                transform.setTranslation(copyOf(translation));
+                transform.setScale(copyOf(scale));
+                if (orientation != null) {
+                    transform.setOrientation(orientation);
+                } else {
+                    transform.setRotation(copyOf(rotation));
+                }
+                copy.transformVersion = transformVersion;
+            }
+            return copy.model;
+        }
+    }
+
+    private static final class Snapshot {
+        private final Vector3f cameraPosition;
+        private final Vector3f cameraTarget;
+        private final long cameraVersion;
+        private final float fov;
+        private final float aspectRatio;
+        private final float nearPlane;
+        private final float farPlane;
+        private final List<ModelSnapshot> models;
+        private final RenderMode mode;
+        private final boolean backFaceCulling;
+        private final boolean antialiasedLines;
+        private final boolean hiddenLineRemoval;
+        private final boolean adaptiveResolution;
+        private final boolean progressive;
+        private final int width;
+        private final int height;
+
+        private Snapshot(
+                final Camera camera,
+                final List<ModelSnapshot> models,
+                final RenderMode mode,
+                final boolean backFaceCulling,
+                final boolean antialiasedLines,
+                final boolean hiddenLineRemoval,
+                final boolean adaptiveResolution,
+                final boolean progressive,
+                final int width,
+                final int height) {
+            this.cameraPosition = copyOf(camera.getPosition());
+            this.cameraTarget = copyOf(camera.getTarget());
+            this.cameraVersion = camera.getVersion();
+            this.fov = camera.getFov();
+            this.aspectRatio = camera.getAspectRatio();
+            this.nearPlane = camera.getNearPlane();
+            this.farPlane = camera.getFarPlane();
+            this.models = models;
+            this.mode = mode;
+            this.backFaceCulling = backFaceCulling;
+            this.antialiasedLines = antialiasedLines;
+            this.hiddenLineRemoval = hiddenLineRemoval;
+            this.adaptiveResolution = adaptiveResolution;
+            this.progressive = progressive;
+            this.width = width;
+            this.height = height;
+        }
+
+        // Прогрессивно рисуется только сплошная заливка
+        private boolean isProgressive() {
+            return progressive && mode == RenderMode.SOLID;
+        }
+    }
+
+    private static Vector3f copyOf(final Vector3f v) {
+        return new Vector3f(v.getX(), v.getY(), v.getZ());
+    }
+}
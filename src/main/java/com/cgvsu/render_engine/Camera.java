@@ -2,9 +2,18 @@ package com.cgvsu.render_engine;
 
 import com.cgvsu.math.Vector3f;
 import com.cgvsu.math.Matrix4f;
+import com.cgvsu.math.Vector4f;
 
 public class Camera {
 
+    // Индексы плоскостей пирамиды видимости в getFrustumPlane
+    public static final int LEFT_PLANE = 0;
+    public static final int RIGHT_PLANE = 1;
+    public static final int BOTTOM_PLANE = 2;
+    public static final int TOP_PLANE = 3;
+    public static final int NEAR_PLANE = 4;
+    public static final int FAR_PLANE = 5;
+
     public Camera(
             final Vector3f position,
             final Vector3f target,
@@ -18,18 +27,26 @@ public class Camera {
         this.aspectRatio = aspectRatio;
         this.nearPlane = nearPlane;
         this.farPlane = farPlane;
+        for (int i = 0; i < frustumPlanes.length; i++) {
+            frustumPlanes[i] = new Vector4f();
+        }
     }
 
     public void setPosition(final Vector3f position) {
         this.position = position;
+        invalidateView();
     }
 
     public void setTarget(final Vector3f target) {
         this.target = target;
+        invalidateView();
     }
 
     public void setAspectRatio(final float aspectRatio) {
-        this.aspectRatio = aspectRatio;
+        if (this.aspectRatio != aspectRatio) {
+            this.aspectRatio = aspectRatio;
+            invalidateProjection();
+        }
     }
 
     public Vector3f getPosition() {
@@ -40,20 +57,141 @@ public class Camera {
         return target;
     }
 
+    public float getFov() {
+        return fov;
+    }
+
+    public float getAspectRatio() {
+        return aspectRatio;
+    }
+
+    public float getNearPlane() {
+        return nearPlane;
+    }
+
+    public float getFarPlane() {
+        return farPlane;
+    }
+
     public void movePosition(final Vector3f translation) {
-        this.position = this.position.add(translation);
+        this.position.addInto(translation, this.position);
+        invalidateView();
     }
 
     public void moveTarget(final Vector3f translation) {
-        this.target = this.target.add(translation);
+        this.target.addInto(translation, this.target);
+        invalidateView();
+    }
+
+    // Увеличивается при любом изменении параметров камеры
+    public long getVersion() {
+        syncVectors();
+        return version;
     }
 
+    // Возвращаемые матрицы кэшируются внутри камеры, изменять их нельзя
     public Matrix4f getViewMatrix() {
-        return GraphicConveyor.lookAt(position, target);
+        update();
+        return viewMatrix;
+    }
+
+    public Matrix4f getViewMatrix(final Matrix4f dest) {
+        return dest.set(getViewMatrix());
     }
 
     public Matrix4f getProjectionMatrix() {
-        return GraphicConveyor.perspective(fov, aspectRatio, nearPlane, farPlane);
+        update();
+        return projectionMatrix;
+    }
+
+    public Matrix4f getProjectionMatrix(final Matrix4f dest) {
+        return dest.set(getProjectionMatrix());
+    }
+
+    // P * V
+    public Matrix4f getViewProjectionMatrix() {
+        update();
+        return viewProjectionMatrix;
+    }
+
+    /**
+     * Плоскость пирамиды видимости в мировых координатах: (a, b, c, d) с единичной нормалью (a, b, c),
+     * направленной внутрь. Точка p внутри плоскости, если a*p.x + b*p.y + c*p.z + d >= 0.
+     *
+     * @param index одна из констант LEFT_PLANE ... FAR_PLANE
+     */
+    public Vector4f getFrustumPlane(final int index) {
+        update();
+        return frustumPlanes[index];
+    }
+
+    private void invalidateView() {
+        version++;
+        viewDirty = true;
+    }
+
+    private void invalidateProjection() {
+        version++;
+        projectionDirty = true;
+    }
+
+    // Координаты векторов position и target можно поменять напрямую через getPosition().setX(...),
+    // поэтому они сравниваются с последними учтёнными значениями
+    private void syncVectors() {
+        if (Float.compare(vectorSnapshot[0], position.getX()) != 0
+                || Float.compare(vectorSnapshot[1], position.getY()) != 0
+                || Float.compare(vectorSnapshot[2], position.getZ()) != 0
+                || Float.compare(vectorSnapshot[3], target.getX()) != 0
+                || Float.compare(vectorSnapshot[4], target.getY()) != 0
+                || Float.compare(vectorSnapshot[5], target.getZ()) != 0) {
+            vectorSnapshot[0] = position.getX();
+            vectorSnapshot[1] = position.getY();
+            vectorSnapshot[2] = position.getZ();
+            vectorSnapshot[3] = target.getX();
+            vectorSnapshot[4] = target.getY();
+            vectorSnapshot[5] = target.getZ();
+            invalidateView();
+        }
+    }
+
+    private void update() {
+        syncVectors();
+        if (!viewDirty && !projectionDirty) {
+            return;
+        }
+        if (viewDirty) {
+            GraphicConveyor.lookAt(position, target, viewMatrix);
+        }
+        if (projectionDirty) {
+            GraphicConveyor.perspective(fov, aspectRatio, nearPlane, farPlane, projectionMatrix);
+        }
+        Matrix4f.mulInto(projectionMatrix, viewMatrix, viewProjectionMatrix);
+        extractFrustumPlanes();
+        viewDirty = false;
+        projectionDirty = false;
+    }
+
+    // Метод Грибба-Хартманна: плоскости получаются как сумма/разность
+    // последней строки матрицы P * V с одной из первых трёх строк
+    private void extractFrustumPlanes() {
+        final Matrix4f m = viewProjectionMatrix;
+        for (int row = 0; row < 3; row++) {
+            setPlane(frustumPlanes[row * 2], m, row, 1);
+            setPlane(frustumPlanes[row * 2 + 1], m, row, -1);
+        }
+    }
+
+    private static void setPlane(final Vector4f plane, final Matrix4f m, final int row, final float sign) {
+        float a = m.get(3, 0) + sign * m.get(row, 0);
+        float b = m.get(3, 1) + sign * m.get(row, 1);
+        float c = m.get(3, 2) + sign * m.get(row, 2);
+        float d = m.get(3, 3) + sign * m.get(row, 3);
+        float length = (float) Math.sqrt(a * a + b * b + c * c);
+        if (length > 1e-10) {
+            plane.set(a / length, b / length, c / length, d / length);
+        } else {
+            plane.set(a, b, c, d);
+        }
     }
 
     private Vector3f position;
@@ -62,4 +200,13 @@ public class Camera {
     private float aspectRatio;
     private float nearPlane;
     private float farPlane;
-}
\ No newline at end of file
+    private long version;
+
+    private final Matrix4f viewMatrix = new Matrix4f();
+    private final Matrix4f projectionMatrix = new Matrix4f();
+    private final Matrix4f viewProjectionMatrix = new Matrix4f();
+    private final Vector4f[] frustumPlanes = new Vector4f[6];
+    private final float[] vectorSnapshot = new float[6];
+    private boolean viewDirty = true;
+    private boolean projectionDirty = true;
+}
@@ -0,0 +1,127 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.Matrix4f;
+
+/**
+ * Отсечение в однородных координатах (до деления на w).
+ * <p>
+ * Точка внутри пирамиды видимости, если -w <= x, y, z <= w. Код вершины (outcode) - набор
+ * плоскостей, снаружи которых она лежит: если у всех вершин полигона есть общий бит, полигон
+ * целиком вне кадра. Полигоны, пересекающие ближнюю плоскость, обрезаются по ней, иначе
+ * вершины за камерой дают после деления на w точки по другую сторону экрана.
+ */
+final class Clipper {
+
+    static final byte OUTSIDE_LEFT = 1;
+    static final byte OUTSIDE_RIGHT = 1 << 1;
+    static final byte OUTSIDE_BOTTOM = 1 << 2;
+    static final byte OUTSIDE_TOP = 1 << 3;
+    static final byte OUTSIDE_NEAR = 1 << 4;
+    static final byte OUTSIDE_FAR = 1 << 5;
+
+    private Clipper() {
+    }
+
+    // Коды вершин positions (x, y, z подряд) для матрицы matrix
+    static void computeOutcodes(
+            final float[] positions, final int vertexCount, final Matrix4f matrix, final byte[] dest) {
+        final float m00 = matrix.get(0, 0), m01 = matrix.get(0, 1), m02 = matrix.get(0, 2), m03 = matrix.get(0, 3);
+        final float m10 = matrix.get(1, 0), m11 = matrix.get(1, 1), m12 = matrix.get(1, 2), m13 = matrix.get(1, 3);
+        final float m20 = matrix.get(2, 0), m21 = matrix.get(2, 1), m22 = matrix.get(2, 2), m23 = matrix.get(2, 3);
+        final float m30 = matrix.get(3, 0), m31 = matrix.get(3, 1), m32 = matrix.get(3, 2), m33 = matrix.get(3, 3);
+
+        for (int i = 0; i < vertexCount; i++) {
+            float x = positions[i * 3];
+            float y = positions[i * 3 + 1];
+            float z = positions[i * 3 + 2];
+
+            float clipX = m00 * x + m01 * y + m02 * z + m03;
+            float clipY = m10 * x + m11 * y + m12 * z + m13;
+            float clipZ = m20 * x + m21 * y + m22 * z + m23;
+            float clipW = m30 * x + m31 * y + m32 * z + m33;
+
+            int code = 0;
+            if (clipX < -clipW) code |= OUTSIDE_LEFT;
+            if (clipX > clipW) code |= OUTSIDE_RIGHT;
+            if (clipY < -clipW) code |= OUTSIDE_BOTTOM;
+            if (clipY > clipW) code |= OUTSIDE_TOP;
+            if (clipZ < -clipW) code |= OUTSIDE_NEAR;
+            if (clipZ > clipW) code |= OUTSIDE_FAR;
+            dest[i] = (byte) code;
+        }
+    }
+
+    // Однородные координаты вершины (x, y, z, w) в dest[destOffset .. destOffset + 3]
+    static void toClipSpace(
+            final Matrix4f matrix, final float[] positions, final int vertexIndex,
+            final float[] dest, final int destOffset) {
+        float x = positions[vertexIndex * 3];
+        float y = positions[vertexIndex * 3 + 1];
+        float z = positions[vertexIndex * 3 + 2];
+        for (int row = 0; row < 4; row++) {
+            dest[destOffset + row] = matrix.get(row, 0) * x + matrix.get(row, 1) * y
+                    + matrix.get(row, 2) * z + matrix.get(row, 3);
+        }
+    }
+
+    /**
+     * Обрезает выпуклый многоугольник (vertexCount вершин по 4 числа в input) по ближней плоскости
+     * z >= -w и записывает результат в output. Возвращает число вершин результата.
+     * Размер output - не меньше (vertexCount + 1) * 4.
+     */
+    static int clipPolygonNear(final float[] input, final int vertexCount, final float[] output) {
+        int count = 0;
+        for (int i = 0; i < vertexCount; i++) {
+            int current = i * 4;
+            int next = (i + 1 < vertexCount ? i + 1 : 0) * 4;
+            float currentDistance = input[current + 2] + input[current + 3];
+            float nextDistance = input[next + 2] + input[next + 3];
+
+            if (currentDistance >= 0) {
+                System.arraycopy(input, current, output, count * 4, 4);
+                count++;
+            }
+            if ((currentDistance >= 0) != (nextDistance >= 0)) {
+                float t = currentDistance / (currentDistance - nextDistance);
+                for (int k = 0; k < 4; k++) {
+                    output[count * 4 + k] = input[current + k] + t * (input[next + k] - input[current + k]);
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Обрезает отрезок a-b (по 4 числа, начиная с offsetA и offsetB) по ближней плоскости на месте.
+     * Возвращает false, если отрезок целиком за ней.
+     */
+    static boolean clipSegmentNear(final float[] points, final int offsetA, final int offsetB) {
+        float distanceA = points[offsetA + 2] + points[offsetA + 3];
+        float distanceB = points[offsetB + 2] + points[offsetB + 3];
+        if (distanceA < 0 && distanceB < 0) {
+            return false;
+        }
+        if (distanceA < 0 || distanceB < 0) {
+            int outside = distanceA < 0 ? offsetA : offsetB;
+            int inside = distanceA < 0 ? offsetB : offsetA;
+            float t = Math.min(distanceA, distanceB) / (Math.min(distanceA, distanceB) - Math.max(distanceA, distanceB));
+            for (int k = 0; k < 4; k++) {
+                points[outside + k] = points[outside + k] + t * (points[inside + k] - points[outside + k]);
+            }
+        }
+        return true;
+    }
+
+    // Экранные координаты и глубина точки после отсечения (w > 0): так же, как в GraphicConveyor.vertexToPoint
+    static void project(
+            final float[] clip, final int offset, final int width, final int height,
+            final float[] dest, final int destOffset) {
+        float w = clip[offset + 3];
+        float ndcX = clip[offset] / w;
+        float ndcY = clip[offset + 1] / w;
+        dest[destOffset] = ((width - 1) * 0.5f) * ndcX + (width - 1) * 0.5f;
+        dest[destOffset + 1] = ((1 - height) * 0.5f) * ndcY + (height - 1) * 0.5f;
+        dest[destOffset + 2] = clip[offset + 2] / w;
+    }
+}
@@ -0,0 +1,68 @@
+package com.cgvsu.render_engine;
+
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+
+import java.util.Arrays;
+
+/**
+ * Буфер кадра для программной растеризации: цвета в формате ARGB и буфер глубины.
+ * Готовый кадр переносится на Canvas одним вызовом PixelWriter.setPixels.
+ */
+public class FrameBuffer {
+
+    private int width;
+    private int height;
+    private int[] pixels = new int[0];
+    private float[] depth = new float[0];
+
+    public FrameBuffer(final int width, final int height) {
+        resize(width, height);
+    }
+
+    // Массивы пересоздаются только если не хватает места
+    public void resize(final int width, final int height) {
+        this.width = Math.max(width, 0);
+        this.height = Math.max(height, 0);
+        int size = this.width * this.height;
+        if (pixels.length < size) {
+            pixels = new int[size];
+            depth = new float[size];
+        }
+    }
+
+    public void clear(final int color) {
+        int size = width * height;
+        Arrays.fill(pixels, 0, size, color);
+        Arrays.fill(depth, 0, size, Float.POSITIVE_INFINITY);
+    }
+
+    // Копирует размер и цвета другого буфера; глубина не копируется
+    public void copyFrom(final FrameBuffer source) {
+        resize(source.width, source.height);
+        System.arraycopy(source.pixels, 0, pixels, 0, width * height);
+    }
+
+    public void blit(final PixelWriter pixelWriter) {
+        if (width > 0 && height > 0) {
+            pixelWriter.setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // Строки хранятся подряд: пиксель (x, y) лежит по индексу y * getWidth() + x
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    public float[] getDepth() {
+        return depth;
+    }
+}
@@ -3,96 +3,141 @@ package com.cgvsu.render_engine;
 import com.cgvsu.math.Vector3f;
 import com.cgvsu.math.Matrix4f;
 import com.cgvsu.math.Vector2f;
+import com.cgvsu.model.ModelTransform;
 
 public class GraphicConveyor {
 
+    // Вспомогательные объекты для методов с dest-параметром: у каждого потока свои
+    private static final class Scratch {
+        final Vector3f xa = new Vector3f();
+        final Vector3f ya = new Vector3f();
+        final Vector3f za = new Vector3f();
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private static final Vector3f UP = new Vector3f(0F, 1.0F, 0F);
+
     public static Matrix4f scale(float scaleX, float scaleY, float scaleZ) {
-        Matrix4f result = Matrix4f.identity();
-        result.set(0, 0, scaleX);
-        result.set(1, 1, scaleY);
-        result.set(2, 2, scaleZ);
-        return result;
+        return scale(scaleX, scaleY, scaleZ, new Matrix4f());
+    }
+
+    public static Matrix4f scale(float scaleX, float scaleY, float scaleZ, Matrix4f dest) {
+        dest.setIdentity();
+        dest.set(0, 0, scaleX);
+        dest.set(1, 1, scaleY);
+        dest.set(2, 2, scaleZ);
+        return dest;
     }
 
     public static Matrix4f translate(float tx, float ty, float tz) {
-        Matrix4f result = Matrix4f.identity();
-        result.set(0, 3, tx);
-        result.set(1, 3, ty);
-        result.set(2, 3, tz);
-        return result;
+        return translate(tx, ty, tz, new Matrix4f());
+    }
+
+    public static Matrix4f translate(float tx, float ty, float tz, Matrix4f dest) {
+        dest.setIdentity();
+        dest.set(0, 3, tx);
+        dest.set(1, 3, ty);
+        dest.set(2, 3, tz);
+        return dest;
     }
 
 
     public static Matrix4f rotateX(float angle) {
-        Matrix4f result = Matrix4f.identity();
+        return rotateX(angle, new Matrix4f());
+    }
+
+    public static Matrix4f rotateX(float angle, Matrix4f dest) {
+        dest.setIdentity();
         float cos = (float) Math.cos(angle);
         float sin = (float) Math.sin(angle);
 
-        result.set(1, 1, cos);
-        result.set(1, 2, -sin);
-        result.set(2, 1, sin);
-        result.set(2, 2, cos);
+        dest.set(1, 1, cos);
+        dest.set(1, 2, -sin);
+        dest.set(2, 1, sin);
+        dest.set(2, 2, cos);
 
-        return result;
+        return dest;
     }
 
     public static Matrix4f rotateY(float angle) {
-        Matrix4f result = Matrix4f.identity();
+        return rotateY(angle, new Matrix4f());
+    }
+
+    public static Matrix4f rotateY(float angle, Matrix4f dest) {
+        dest.setIdentity();
         float cos = (float) Math.cos(angle);
         float sin = (float) Math.sin(angle);
 
-        result.set(0, 0, cos);
-        result.set(0, 2, sin);
-        result.set(2, 0, -sin);
-        result.set(2, 2, cos);
+        dest.set(0, 0, cos);
+        dest.set(0, 2, sin);
+        dest.set(2, 0, -sin);
+        dest.set(2, 2, cos);
 
-        return result;
+        return dest;
     }
 
     public static Matrix4f rotateZ(float angle) {
-        Matrix4f result = Matrix4f.identity();
+        return rotateZ(angle, new Matrix4f());
+    }
+
+    public static Matrix4f rotateZ(float angle, Matrix4f dest) {
+        dest.setIdentity();
         float cos = (float) Math.cos(angle);
         float sin = (float) Math.sin(angle);
 
-        result.set(0, 0, cos);
-        result.set(0, 1, -sin);
-        result.set(1, 0, sin);
-        result.set(1, 1, cos);
+        dest.set(0, 0, cos);
+        dest.set(0, 1, -sin);
+        dest.set(1, 0, sin);
+        dest.set(1, 1, cos);
 
-        return result;
+        return dest;
     }
 
     public static Matrix4f lookAt(Vector3f eye, Vector3f target) {
-        return lookAt(eye, target, new Vector3f(0F, 1.0F, 0F));
+        return lookAt(eye, target, UP);
     }
 
-    public static Matrix4f lookAt(Vector3f eye, Vector3f target, Vector3f up) {
-        Vector3f za = target.subtract(eye).normalized();
-        Vector3f xa = up.cross(za).normalized();
-        Vector3f ya = za.cross(xa).normalized();
-
-        Matrix4f translationMatrix = Matrix4f.identity();
-        translationMatrix.set(0, 3, -eye.getX());
-        translationMatrix.set(1, 3, -eye.getY());
-        translationMatrix.set(2, 3, -eye.getZ());
-
-
-        Matrix4f rotationMatrix = Matrix4f.identity();
-
-        rotationMatrix.set(0, 0, xa.getX());
-        rotationMatrix.set(0, 1, xa.getY());
-        rotationMatrix.set(0, 2, xa.getZ());
-
-        rotationMatrix.set(1, 0, ya.getX());
-        rotationMatrix.set(1, 1, ya.getY());
-        rotationMatrix.set(1, 2, ya.getZ());
+    public static Matrix4f lookAt(Vector3f eye, Vector3f target, Matrix4f dest) {
+        return lookAt(eye, target, UP, dest);
+    }
 
-        rotationMatrix.set(2, 0, za.getX());
-        rotationMatrix.set(2, 1, za.getY());
-        rotationMatrix.set(2, 2, za.getZ());
+    public static Matrix4f lookAt(Vector3f eye, Vector3f target, Vector3f up) {
+        return lookAt(eye, target, up, new Matrix4f());
+    }
 
-        // Видовая матрица: V = P * T
-        return rotationMatrix.multiply(translationMatrix);
+    public static Matrix4f lookAt(Vector3f eye, Vector3f target, Vector3f up, Matrix4f dest) {
+        Scratch scratch = SCRATCH.get();
+        Vector3f za = target.subtractInto(eye, scratch.za);
+        za.normalize();
+        Vector3f xa = up.crossInto(za, scratch.xa);
+        xa.normalize();
+        Vector3f ya = za.crossInto(xa, scratch.ya);
+        ya.normalize();
+
+        // Видовая матрица: V = R * T, где T - перенос на -eye.
+        // Произведение раскрыто: строки R - оси камеры, последний столбец - (-R * eye)
+        dest.set(0, 0, xa.getX());
+        dest.set(0, 1, xa.getY());
+        dest.set(0, 2, xa.getZ());
+        dest.set(0, 3, -(xa.getX() * eye.getX() + xa.getY() * eye.getY() + xa.getZ() * eye.getZ()));
+
+        dest.set(1, 0, ya.getX());
+        dest.set(1, 1, ya.getY());
+        dest.set(1, 2, ya.getZ());
+        dest.set(1, 3, -(ya.getX() * eye.getX() + ya.getY() * eye.getY() + ya.getZ() * eye.getZ()));
+
+        dest.set(2, 0, za.getX());
+        dest.set(2, 1, za.getY());
+        dest.set(2, 2, za.getZ());
+        dest.set(2, 3, -(za.getX() * eye.getX() + za.getY() * eye.getY() + za.getZ() * eye.getZ()));
+
+        dest.set(3, 0, 0);
+        dest.set(3, 1, 0);
+        dest.set(3, 2, 0);
+        dest.set(3, 3, 1);
+
+        return dest;
     }
 
     public static Matrix4f perspective(
@@ -100,8 +145,17 @@ public class GraphicConveyor {
             final float aspectRatio,
             final float nearPlane,
             final float farPlane) {
+        return perspective(fov, aspectRatio, nearPlane, farPlane, new Matrix4f());
+    }
+
+    public static Matrix4f perspective(
+            final float fov,
+            final float aspectRatio,
+            final float nearPlane,
+            final float farPlane,
+            final Matrix4f result) {
 
-        Matrix4f result = Matrix4f.zero();
+        result.setZero();
 
         float tanHalfFov = (float) Math.tan(fov * 0.3F);
         float f = 1.0f / tanHalfFov;
@@ -116,50 +170,117 @@ public class GraphicConveyor {
     }
 
     public static Vector3f multiplyMatrix4ByVector3(final Matrix4f matrix, final Vector3f vertex) {
+        return vertex.transformPoint(matrix, new Vector3f());
+    }
 
-        float x = vertex.getX();
-        float y = vertex.getY();
-        float z = vertex.getZ();
-
-        float resultX = matrix.get(0, 0) * x + matrix.get(0, 1) * y +
-                matrix.get(0, 2) * z + matrix.get(0, 3);
-        float resultY = matrix.get(1, 0) * x + matrix.get(1, 1) * y +
-                matrix.get(1, 2) * z + matrix.get(1, 3);
-        float resultZ = matrix.get(2, 0) * x + matrix.get(2, 1) * y +
-                matrix.get(2, 2) * z + matrix.get(2, 3);
-        float resultW = matrix.get(3, 0) * x + matrix.get(3, 1) * y +
-                matrix.get(3, 2) * z + matrix.get(3, 3);
-
-        if (Math.abs(resultW) > 1e-10) {
-            return new Vector3f(resultX / resultW, resultY / resultW, resultZ / resultW);
-        } else {
-            return new Vector3f(resultX, resultY, resultZ);
-        }
+    public static Vector3f multiplyMatrix4ByVector3(
+            final Matrix4f matrix, final Vector3f vertex, final Vector3f dest) {
+        return vertex.transformPoint(matrix, dest);
     }
 
     public static Vector2f vertexToPoint(final Vector3f vertex, final int width, final int height) {
+        return vertexToPoint(vertex, width, height, new Vector2f());
+    }
+
+    public static Vector2f vertexToPoint(
+            final Vector3f vertex, final int width, final int height, final Vector2f dest) {
 
         float screenX = ((width - 1) * 0.5f) * vertex.getX() + (width - 1) * 0.5f;
         float screenY = ((1 - height) * 0.5f) * vertex.getY() + (height - 1) * 0.5f;
 
-        return new Vector2f(screenX, screenY);
+        return dest.set(screenX, screenY);
     }
 
-    public static Matrix4f createModelMatrix(Vector3f translation, Vector3f rotation, Vector3f scale) {
-        //отдельные матрицы преобразований
-        Matrix4f scaleMatrix = scale(scale.getX(), scale.getY(), scale.getZ());
-        Matrix4f rotationXMatrix = rotateX(rotation.getX());
-        Matrix4f rotationYMatrix = rotateY(rotation.getY());
-        Matrix4f rotationZMatrix = rotateZ(rotation.getZ());
-        Matrix4f translationMatrix = translate(translation.getX(), translation.getY(), translation.getZ());
+    // Наименьшее float, строго большее 1e-10: (|w| > 1e-10) эквивалентно (|w| >= W_EPSILON)
+    static final float W_EPSILON = smallestFloatAbove(1e-10);
+
+    private static final boolean VECTOR_API_ENABLED = VectorizedVertexTransform.isSupported();
+
+    /**
+     * Преобразует сразу массив вершин за один проход: умножение на матрицу,
+     * перспективное деление и перевод в экранные координаты - то же самое,
+     * что multiplyMatrix4ByVector3 + vertexToPoint, но без создания объектов.
+     *
+     * @param positions   упакованные координаты вершин модели (x, y, z, x, y, z, ...)
+     * @param vertexCount количество вершин
+     * @param matrix      матрица преобразования (обычно MVP)
+     * @param width       ширина экрана
+     * @param height      высота экрана
+     * @param dest        упакованный результат: экранные x, y и z после деления на w
+     */
+    public static void transformVertices(
+            final float[] positions,
+            final int vertexCount,
+            final Matrix4f matrix,
+            final int width,
+            final int height,
+            final float[] dest) {
+        if (positions.length < vertexCount * 3 || dest.length < vertexCount * 3) {
+            throw new IllegalArgumentException("Buffer is too small for " + vertexCount + " vertices");
+        }
+        if (VECTOR_API_ENABLED) {
+            VectorizedVertexTransform.transform(positions, vertexCount, matrix, width, height, dest);
+        } else {
+            transformVerticesScalar(positions, 0, vertexCount, matrix, width, height, dest);
+        }
+    }
 
-        Matrix4f rotationMatrix = rotationXMatrix.multiply(rotationYMatrix.multiply(rotationZMatrix));
+    private static float smallestFloatAbove(double value) {
+        float f = (float) value;
+        return f > value ? f : Math.nextUp(f);
+    }
 
-        // Для векторов-столбцов: M = T * R * S
-        // Сначала масштабирование, потом вращение, потом перенос
-        Matrix4f modelMatrix = translationMatrix.multiply(rotationMatrix.multiply(scaleMatrix));
+    static boolean isVectorApiEnabled() {
+        return VECTOR_API_ENABLED;
+    }
 
-        return modelMatrix;
+    static void transformVerticesScalar(
+            final float[] positions,
+            final int from,
+            final int to,
+            final Matrix4f matrix,
+            final int width,
+            final int height,
+            final float[] dest) {
+        final float m00 = matrix.get(0, 0), m01 = matrix.get(0, 1), m02 = matrix.get(0, 2), m03 = matrix.get(0, 3);
+        final float m10 = matrix.get(1, 0), m11 = matrix.get(1, 1), m12 = matrix.get(1, 2), m13 = matrix.get(1, 3);
+        final float m20 = matrix.get(2, 0), m21 = matrix.get(2, 1), m22 = matrix.get(2, 2), m23 = matrix.get(2, 3);
+        final float m30 = matrix.get(3, 0), m31 = matrix.get(3, 1), m32 = matrix.get(3, 2), m33 = matrix.get(3, 3);
+        final float halfWidth = (width - 1) * 0.5f;
+        final float halfHeight = (height - 1) * 0.5f;
+        final float negHalfHeight = (1 - height) * 0.5f;
+
+        for (int i = from * 3, end = to * 3; i < end; i += 3) {
+            float x = positions[i];
+            float y = positions[i + 1];
+            float z = positions[i + 2];
+
+            float resultX = m00 * x + m01 * y + m02 * z + m03;
+            float resultY = m10 * x + m11 * y + m12 * z + m13;
+            float resultZ = m20 * x + m21 * y + m22 * z + m23;
+            float resultW = m30 * x + m31 * y + m32 * z + m33;
+
+            if (Math.abs(resultW) >= W_EPSILON) {
+                resultX /= resultW;
+                resultY /= resultW;
+                resultZ /= resultW;
+            }
+
+            dest[i] = halfWidth * resultX + halfWidth;
+            dest[i + 1] = negHalfHeight * resultY + halfHeight;
+            dest[i + 2] = resultZ;
+        }
+    }
+
+    public static Matrix4f createModelMatrix(Vector3f translation, Vector3f rotation, Vector3f scale) {
+        return createModelMatrix(translation, rotation, scale, new Matrix4f());
+    }
+
+    public static Matrix4f createModelMatrix(
+            Vector3f translation, Vector3f rotation, Vector3f scale, Matrix4f dest) {
+        // Для векторов-столбцов: M = T * Rx * Ry * Rz * S
+        // Сначала масштабирование, потом вращение, потом перенос
+        return ModelTransform.compose(translation, rotation, scale, dest);
     }
 
-}
\ No newline at end of file
+}
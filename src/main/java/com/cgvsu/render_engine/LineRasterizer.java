@@ -0,0 +1,243 @@
+package com.cgvsu.render_engine;
+
+/**
+ * Рисование отрезков прямо в FrameBuffer: целочисленный алгоритм Брезенхема или
+ * сглаженный алгоритм Ву. Отрезок сначала обрезается по границам буфера (Лианг-Барски).
+ * <p>
+ * При проверке глубины пиксель рисуется, только если отрезок в нём не дальше того, что уже
+ * записано в буфер глубины (например, гранями, залитыми цветом фона). Сами отрезки
+ * глубину не записывают.
+ */
+public final class LineRasterizer {
+
+    // Допуск проверки глубины в ulp: ребро лежит на гранях, и без запаса половина его пикселей
+    // проигрывала бы собственным граням из-за разной точки выборки и округления
+    private static final int DEPTH_BIAS_ULPS = 4;
+
+    // Концы обрезанного отрезка для drawLine без буфера вызывающего: у каждого потока свои
+    private static final ThreadLocal<float[]> CLIPPED = ThreadLocal.withInitial(() -> new float[6]);
+
+    private LineRasterizer() {
+    }
+
+    /**
+     * Рисует отрезок (x0, y0) - (x1, y1). Пиксель (px, py) покрывает квадрат [px, px + 1) x [py, py + 1).
+     *
+     * @param antialiased сглаживание алгоритмом Ву
+     * @param depthTest   проверять глубину z (меньше - ближе)
+     */
+    public static void drawLine(
+            final FrameBuffer frameBuffer,
+            final float x0, final float y0, final float z0,
+            final float x1, final float y1, final float z1,
+            final int color,
+            final boolean antialiased,
+            final boolean depthTest) {
+        drawLine(frameBuffer, x0, y0, z0, x1, y1, z1, color, antialiased, depthTest, CLIPPED.get());
+    }
+
+    /**
+     * То же, что drawLine выше, без выделения памяти: концы обрезанного отрезка записываются
+     * в clipped (не меньше 6 элементов), который вызывающий переиспользует между отрезками.
+     */
+    public static void drawLine(
+            final FrameBuffer frameBuffer,
+            final float x0, final float y0, final float z0,
+            final float x1, final float y1, final float z1,
+            final int color,
+            final boolean antialiased,
+            final boolean depthTest,
+            final float[] clipped) {
+        if (!clip(frameBuffer.getWidth(), frameBuffer.getHeight(), x0, y0, z0, x1, y1, z1, clipped)) {
+            return;
+        }
+        if (antialiased) {
+            drawWu(frameBuffer, clipped, color, depthTest);
+        } else {
+            drawBresenham(frameBuffer, clipped, color, depthTest);
+        }
+    }
+
+    // Обрезает отрезок по прямоугольнику [0, width] x [0, height]; false, если от него ничего не осталось
+    static boolean clip(
+            final int width, final int height,
+            final float x0, final float y0, final float z0,
+            final float x1, final float y1, final float z1,
+            final float[] dest) {
+        if (width <= 0 || height <= 0
+                || !Float.isFinite(x0) || !Float.isFinite(y0) || !Float.isFinite(x1) || !Float.isFinite(y1)) {
+            return false;
+        }
+        final float dx = x1 - x0;
+        final float dy = y1 - y0;
+        float tMin = 0;
+        float tMax = 1;
+
+        // Для каждой границы (левая, правая, верхняя, нижняя): p * t <= q
+        for (int i = 0; i < 4; i++) {
+            final float p = switch (i) {
+                case 0 -> -dx;
+                case 1 -> dx;
+                case 2 -> -dy;
+                default -> dy;
+            };
+            final float q = switch (i) {
+                case 0 -> x0;
+                case 1 -> width - x0;
+                case 2 -> y0;
+                default -> height - y0;
+            };
+            if (p == 0) {
+                if (q < 0) {
+                    return false;
+                }
+            } else {
+                float t = q / p;
+                if (p < 0) {
+                    tMin = Math.max(tMin, t);
+                } else {
+                    tMax = Math.min(tMax, t);
+                }
+            }
+        }
+        if (tMin > tMax) {
+            return false;
+        }
+
+        final float dz = z1 - z0;
+        dest[0] = x0 + tMin * dx;
+        dest[1] = y0 + tMin * dy;
+        dest[2] = z0 + tMin * dz;
+        dest[3] = x0 + tMax * dx;
+        dest[4] = y0 + tMax * dy;
+        dest[5] = z0 + tMax * dz;
+        return true;
+    }
+
+    private static void drawBresenham(
+            final FrameBuffer frameBuffer, final float[] line, final int color, final boolean depthTest) {
+        final int width = frameBuffer.getWidth();
+        final int height = frameBuffer.getHeight();
+        final int[] pixels = frameBuffer.getPixels();
+        final float[] depth = frameBuffer.getDepth();
+
+        // Точка на правой или нижней границе после обрезки относится к последнему пикселю
+        int x = Math.min(width - 1, (int) Math.floor(line[0]));
+        int y = Math.min(height - 1, (int) Math.floor(line[1]));
+        final int xEnd = Math.min(width - 1, (int) Math.floor(line[3]));
+        final int yEnd = Math.min(height - 1, (int) Math.floor(line[4]));
+
+        final int dx = Math.abs(xEnd - x);
+        final int dy = -Math.abs(yEnd - y);
+        final int stepX = x < xEnd ? 1 : -1;
+        final int stepY = y < yEnd ? 1 : -1;
+        final int steps = Math.max(dx, -dy);
+        final float z0 = line[2];
+        final float dz = steps > 0 ? (line[5] - z0) / steps : 0;
+        final float slope = Math.abs(dz);
+
+        int error = dx + dy;
+        for (int i = 0; ; i++) {
+            int index = y * width + x;
+            if (!depthTest || passesDepth(z0 + dz * i, depth[index], slope)) {
+                pixels[index] = color;
+            }
+            if (x == xEnd && y == yEnd) {
+                break;
+            }
+            int doubledError = 2 * error;
+            if (doubledError >= dy) {
+                error += dy;
+                x += stepX;
+            }
+            if (doubledError <= dx) {
+                error += dx;
+                y += stepY;
+            }
+        }
+    }
+
+    // Алгоритм Ву: вдоль основной оси на каждом шаге два пикселя, яркость по расстоянию до отрезка
+    private static void drawWu(
+            final FrameBuffer frameBuffer, final float[] line, final int color, final boolean depthTest) {
+        // Центр пикселя (px, py) - точка (px + 0.5, py + 0.5)
+        float x0 = line[0] - 0.5f, y0 = line[1] - 0.5f, z0 = line[2];
+        float x1 = line[3] - 0.5f, y1 = line[4] - 0.5f, z1 = line[5];
+
+        final boolean steep = Math.abs(y1 - y0) > Math.abs(x1 - x0);
+        if (steep) {
+            float t = x0; x0 = y0; y0 = t;
+            t = x1; x1 = y1; y1 = t;
+        }
+        if (x0 > x1) {
+            float t = x0; x0 = x1; x1 = t;
+            t = y0; y0 = y1; y1 = t;
+            t = z0; z0 = z1; z1 = t;
+        }
+
+        final float dx = x1 - x0;
+        final float gradient = dx == 0 ? 1 : (y1 - y0) / dx;
+        final float depthGradient = dx == 0 ? 0 : (z1 - z0) / dx;
+        final float slope = Math.abs(depthGradient);
+
+        final int xStart = Math.round(x0);
+        final int xEnd = Math.round(x1);
+        for (int x = xStart; x <= xEnd; x++) {
+            // Крайние пиксели покрыты отрезком лишь частично
+            float coverageX = 1;
+            if (x == xStart) {
+                coverageX = Math.min(coverageX, 1 - (x0 + 0.5f - x));
+            }
+            if (x == xEnd) {
+                coverageX = Math.min(coverageX, x1 + 0.5f - x);
+            }
+            if (xStart == xEnd) {
+                coverageX = x1 - x0;
+            }
+            if (coverageX <= 0) {
+                continue;
+            }
+
+            float y = y0 + gradient * (x - x0);
+            float z = z0 + depthGradient * (x - x0);
+            int yFloor = (int) Math.floor(y);
+            float fraction = y - yFloor;
+            plot(frameBuffer, steep, x, yFloor, z, slope, color, (1 - fraction) * coverageX, depthTest);
+            plot(frameBuffer, steep, x, yFloor + 1, z, slope, color, fraction * coverageX, depthTest);
+        }
+    }
+
+    private static void plot(
+            final FrameBuffer frameBuffer, final boolean steep,
+            final int major, final int minor, final float z, final float slope,
+            final int color, final float coverage, final boolean depthTest) {
+        final int x = steep ? minor : major;
+        final int y = steep ? major : minor;
+        if (coverage <= 0 || x < 0 || y < 0 || x >= frameBuffer.getWidth() || y >= frameBuffer.getHeight()) {
+            return;
+        }
+        final int index = y * frameBuffer.getWidth() + x;
+        if (depthTest && !passesDepth(z, frameBuffer.getDepth()[index], slope)) {
+            return;
+        }
+        final int[] pixels = frameBuffer.getPixels();
+        pixels[index] = blend(pixels[index], color, Math.min(coverage, 1));
+    }
+
+    // Отрезок не дальше записанной глубины с допуском на изменение z за один пиксель
+    static boolean passesDepth(final float z, final float stored, final float slope) {
+        return z <= stored + slope + DEPTH_BIAS_ULPS * Math.ulp(stored);
+    }
+
+    // Смешивает непрозрачные цвета: alpha - доля нового цвета
+    static int blend(final int background, final int color, final float alpha) {
+        int r = mix((background >> 16) & 0xFF, (color >> 16) & 0xFF, alpha);
+        int g = mix((background >> 8) & 0xFF, (color >> 8) & 0xFF, alpha);
+        int b = mix(background & 0xFF, color & 0xFF, alpha);
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+
+    private static int mix(final int from, final int to, final float alpha) {
+        return Math.round(from + (to - from) * alpha);
+    }
+}
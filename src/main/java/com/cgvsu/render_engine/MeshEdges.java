@@ -0,0 +1,99 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.model.Polygon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Список уникальных рёбер сетки. Ребро - неупорядоченная пара вершин, упакованная в long:
+ * меньший индекс в старших 32 битах, больший - в младших. Общее ребро соседних полигонов
+ * попадает в список один раз.
+ */
+final class MeshEdges {
+
+    // Ребро принадлежит больше чем двум полигонам (неманифолдная сетка)
+    static final int MANY_POLYGONS = -2;
+
+    private MeshEdges() {
+    }
+
+    static long[] build(final List<Polygon> polygons) {
+        int capacity = 0;
+        for (Polygon polygon : polygons) {
+            capacity += polygon.getVertexIndices().size();
+        }
+
+        long[] edges = new long[capacity];
+        int count = 0;
+        for (Polygon polygon : polygons) {
+            final ArrayList<Integer> vertexIndices = polygon.getVertexIndices();
+            final int nVerticesInPolygon = vertexIndices.size();
+            for (int i = 0; i < nVerticesInPolygon; i++) {
+                int a = vertexIndices.get(i);
+                int b = vertexIndices.get(i + 1 < nVerticesInPolygon ? i + 1 : 0);
+                if (a != b) {
+                    edges[count++] = pack(a, b);
+                }
+            }
+        }
+
+        // После сортировки одинаковые рёбра стоят рядом
+        Arrays.sort(edges, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || edges[i] != edges[unique - 1]) {
+                edges[unique++] = edges[i];
+            }
+        }
+        return unique == edges.length ? edges : Arrays.copyOf(edges, unique);
+    }
+
+    /**
+     * Полигоны по обе стороны каждого ребра из edges: элементы 2i и 2i + 1 для ребра i,
+     * -1 - полигона нет, MANY_POLYGONS - у ребра больше двух полигонов.
+     */
+    static int[] adjacentPolygons(final long[] edges, final List<Polygon> polygons) {
+        int[] result = new int[edges.length * 2];
+        Arrays.fill(result, -1);
+        final int nPolygons = polygons.size();
+        for (int polygonInd = 0; polygonInd < nPolygons; polygonInd++) {
+            final ArrayList<Integer> vertexIndices = polygons.get(polygonInd).getVertexIndices();
+            final int nVerticesInPolygon = vertexIndices.size();
+            for (int i = 0; i < nVerticesInPolygon; i++) {
+                int a = vertexIndices.get(i);
+                int b = vertexIndices.get(i + 1 < nVerticesInPolygon ? i + 1 : 0);
+                if (a == b) {
+                    continue;
+                }
+                int edgeInd = Arrays.binarySearch(edges, pack(a, b));
+                if (edgeInd < 0 || result[edgeInd * 2] == polygonInd || result[edgeInd * 2 + 1] == polygonInd) {
+                    continue;
+                }
+                if (result[edgeInd * 2] == -1) {
+                    result[edgeInd * 2] = polygonInd;
+                } else if (result[edgeInd * 2 + 1] == -1) {
+                    result[edgeInd * 2 + 1] = polygonInd;
+                } else {
+                    result[edgeInd * 2 + 1] = MANY_POLYGONS;
+                }
+            }
+        }
+        return result;
+    }
+
+    static long pack(final int a, final int b) {
+        int min = Math.min(a, b);
+        int max = Math.max(a, b);
+        return (long) min << 32 | (max & 0xFFFFFFFFL);
+    }
+
+    static int first(final long edge) {
+        return (int) (edge >>> 32);
+    }
+
+    static int second(final long edge) {
+        return (int) edge;
+    }
+}
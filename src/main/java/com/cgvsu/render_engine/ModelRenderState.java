@@ -0,0 +1,49 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.Matrix3f;
+import com.cgvsu.math.Matrix4f;
+
+/**
+ * Данные, которые RenderEngine хранит между кадрами для каждой модели.
+ */
+final class ModelRenderState {
+
+    final Matrix4f modelViewProjectionMatrix = new Matrix4f();
+
+    // Версии преобразования модели и камеры, для которых посчитана MVP. Версия камеры - счётчик
+    // конкретного объекта, поэтому запоминается и сама камера
+    long transformVersion = -1;
+    Camera camera;
+    long cameraVersion = -1;
+    // Растёт при каждом пересчёте MVP
+    long modelViewProjectionVersion;
+
+    // Матрица нормалей для освещения при сплошной заливке
+    final Matrix3f normalMatrix = new Matrix3f();
+    long normalTransformVersion = -1;
+
+    // Результат классификации полигонов текущего кадра и номер первого треугольника
+    // каждого полигона при сплошной заливке
+    byte[] polygonClasses = new byte[0];
+    int[] triangleOffsets = new int[0];
+
+    // Уникальные рёбра для каркасной отрисовки и версия геометрии, по которой они построены;
+    // полигоны по обе стороны рёбер строятся по требованию
+    long[] edges;
+    long edgesGeometryVersion = -1;
+    int[] edgePolygons;
+
+    // Координаты вершин подряд (x, y, z) и версия геометрии, по которой они собраны
+    float[] positions = new float[0];
+    long positionsGeometryVersion = -1;
+
+    // Экранные координаты и глубина вершин текущего кадра (x, y, z подряд)
+    float[] screenVertices = new float[0];
+    byte[] outcodes = new byte[0];
+    // Для какого кадра и версии MVP они посчитаны (-1 - по матрице не из этого состояния):
+    // по ним заливка по частям замечает, что другой способ отрисовки перезаписал буферы
+    int screenWidth = -1;
+    int screenHeight = -1;
+    long screenVerticesVersion = -1;
+    long outcodesVersion = -1;
+}
@@ -0,0 +1,195 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.model.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сплошная заливка по частям в пределах бюджета времени. Полигоны моделей делятся на блоки
+ * по BLOCK_SIZE подряд идущих (в OBJ соседние полигоны обычно соседствуют и в пространстве),
+ * а блоки обходятся в порядке с обращёнными битами номера: сначала вся модель проступает
+ * редкими участками, затем промежутки заполняются. Изображение копится в собственном буфере
+ * кадра; благодаря буферу глубины порядок не влияет на итог, и после последнего блока кадр
+ * совпадает с полной заливкой (с точностью до порядка граней с равной глубиной).
+ * <p>
+ * Пока камера, модели и размер кадра не меняются, каждый вызов render продолжает с места
+ * остановки. При изменении вида буфер очищается, вершины пересчитываются, и обход
+ * начинается заново - повторно обходятся только вершины, а не полигоны.
+ */
+public final class ProgressiveRenderer {
+
+    static final int BLOCK_SIZE = 256;
+
+    // Столько блоков заливается между проверками времени
+    private static final int BLOCKS_PER_BATCH = 16;
+
+    private final FrameBuffer frameBuffer = new FrameBuffer(0, 0);
+    private final TriangleBuffer triangles = new TriangleBuffer();
+    private final TileRasterizer rasterizer;
+
+    // Вид, для которого накоплено изображение
+    private final ArrayList<Model> models = new ArrayList<>();
+    private long[] transformVersions = new long[0];
+    private long[] geometryVersions = new long[0];
+    private Camera camera;
+    private long cameraVersion = -1;
+    private int width = -1;
+    private int height = -1;
+    private int backgroundColor;
+    private boolean backFaceCulling;
+
+    // Позиция обхода: модель и номер в порядке с обращёнными битами
+    private final ArrayList<Model> visibleModels = new ArrayList<>();
+    private int modelCursor;
+    private int blockCursor;
+    private long polygonsDone;
+    private long polygonsTotal;
+
+    private final RenderStats stats = new RenderStats();
+
+    public ProgressiveRenderer(final TileRasterizer rasterizer) {
+        this.rasterizer = rasterizer;
+    }
+
+    /**
+     * Дорисовывает кадр, пока не истечёт budgetNanos (хотя бы одна порция блоков за вызов).
+     * Возвращает true, если кадр готов полностью.
+     */
+    public boolean render(
+            final Camera camera,
+            final List<Model> meshes,
+            final int width,
+            final int height,
+            final int backgroundColor,
+            final long budgetNanos) {
+
+        final long deadline = System.nanoTime() + budgetNanos;
+        if (!isSameView(camera, meshes, width, height, backgroundColor)) {
+            restart(camera, meshes, width, height, backgroundColor);
+        }
+
+        final RenderStats engineStats = RenderEngine.getStats();
+        engineStats.reset();
+        do {
+            if (isComplete()) {
+                break;
+            }
+            triangles.clear();
+            for (int i = 0; i < BLOCKS_PER_BATCH && !isComplete(); i++) {
+                appendNextBlock();
+            }
+            rasterizer.rasterize(frameBuffer, triangles);
+        } while (System.nanoTime() < deadline);
+        stats.add(engineStats);
+        return isComplete();
+    }
+
+    public boolean isComplete() {
+        return modelCursor >= visibleModels.size();
+    }
+
+    // Доля обработанных полигонов видимых моделей, от 0 до 1
+    public float getProgress() {
+        return polygonsTotal == 0 ? 1 : (float) polygonsDone / polygonsTotal;
+    }
+
+    // Накопленное изображение
+    public FrameBuffer getFrameBuffer() {
+        return frameBuffer;
+    }
+
+    // Счётчики с начала текущего вида
+    public RenderStats getStats() {
+        return stats;
+    }
+
+    private boolean isSameView(
+            final Camera camera, final List<Model> meshes, final int width, final int height, final int backgroundColor) {
+        if (camera != this.camera || camera.getVersion() != cameraVersion
+                || width != this.width || height != this.height || backgroundColor != this.backgroundColor
+                || RenderEngine.isBackFaceCulling() != backFaceCulling || meshes.size() != models.size()) {
+            return false;
+        }
+        for (int i = 0; i < meshes.size(); i++) {
+            final Model mesh = meshes.get(i);
+            if (mesh != models.get(i) || mesh.getTransform().getVersion() != transformVersions[i]
+                    || mesh.getGeometryVersion() != geometryVersions[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void restart(
+            final Camera camera, final List<Model> meshes, final int width, final int height, final int backgroundColor) {
+        this.camera = camera;
+        this.cameraVersion = camera.getVersion();
+        this.width = width;
+        this.height = height;
+        this.backgroundColor = backgroundColor;
+        this.backFaceCulling = RenderEngine.isBackFaceCulling();
+        models.clear();
+        models.addAll(meshes);
+        transformVersions = new long[meshes.size()];
+        geometryVersions = new long[meshes.size()];
+        for (int i = 0; i < meshes.size(); i++) {
+            transformVersions[i] = meshes.get(i).getTransform().getVersion();
+            geometryVersions[i] = meshes.get(i).getGeometryVersion();
+        }
+
+        frameBuffer.resize(width, height);
+        frameBuffer.clear(backgroundColor);
+
+        final RenderStats engineStats = RenderEngine.getStats();
+        engineStats.reset();
+        visibleModels.clear();
+        polygonsTotal = 0;
+        for (Model mesh : meshes) {
+            if (RenderEngine.isVisible(camera, mesh)) {
+                visibleModels.add(mesh);
+                RenderEngine.prepareVertices(camera, mesh, width, height);
+                polygonsTotal += mesh.polygons.size();
+            }
+        }
+        stats.reset();
+        stats.add(engineStats);
+        modelCursor = 0;
+        blockCursor = 0;
+        polygonsDone = 0;
+    }
+
+    // Дописывает в буфер треугольники следующего непустого блока
+    private void appendNextBlock() {
+        final Model mesh = visibleModels.get(modelCursor);
+        final int nPolygons = mesh.polygons.size();
+        final int nBlocks = (nPolygons + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        final int bits = blockBits(nBlocks);
+
+        // Номера с обращёнными битами, не меньшие числа блоков, пропускаются
+        int block;
+        do {
+            block = reverseBits(blockCursor++, bits);
+        } while (block >= nBlocks && blockCursor < (1 << bits));
+
+        if (block < nBlocks) {
+            final int from = block * BLOCK_SIZE;
+            final int to = Math.min(nPolygons, from + BLOCK_SIZE);
+            RenderEngine.appendTriangles(triangles, camera, mesh, width, height, from, to);
+            polygonsDone += to - from;
+        }
+        if (blockCursor >= (1 << bits)) {
+            modelCursor++;
+            blockCursor = 0;
+        }
+    }
+
+    // Число бит, достаточное для номеров блоков 0 .. nBlocks - 1
+    static int blockBits(final int nBlocks) {
+        return nBlocks <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(nBlocks - 1);
+    }
+
+    static int reverseBits(final int value, final int bits) {
+        return bits == 0 ? 0 : Integer.reverse(value) >>> (32 - bits);
+    }
+}
@@ -0,0 +1,149 @@
+package com.cgvsu.render_engine;
+
+/**
+ * Заливка треугольников в FrameBuffer с проверкой глубины.
+ * <p>
+ * Вершины переводятся в фиксированную точку (1/16 пикселя), функции рёбер
+ * считаются в целых числах и обновляются инкрементально при обходе
+ * ограничивающего прямоугольника. Целочисленная арифметика делает результат
+ * для пикселя независимым от того, с какого места начат обход, а правило
+ * верхнего-левого ребра исключает двойную закраску общих рёбер.
+ */
+public final class Rasterizer {
+
+    static final int SUBPIXEL_BITS = 4;
+    static final int SUBPIXEL_ONE = 1 << SUBPIXEL_BITS;
+    private static final int HALF_PIXEL = SUBPIXEL_ONE / 2;
+
+    // Треугольники с вершинами дальше этой границы (в пикселях) не рисуются: это мусор от вершин у плоскости камеры
+    private static final float MAX_COORDINATE = 1 << 20;
+
+    private Rasterizer() {
+    }
+
+    public static void fillTriangle(
+            final FrameBuffer frameBuffer,
+            final float x0, final float y0, final float z0,
+            final float x1, final float y1, final float z1,
+            final float x2, final float y2, final float z2,
+            final int color) {
+        fillTriangle(frameBuffer, x0, y0, z0, x1, y1, z1, x2, y2, z2, color,
+                0, 0, frameBuffer.getWidth(), frameBuffer.getHeight());
+    }
+
+    /**
+     * Заливает треугольник, ограничиваясь прямоугольником [clipMinX, clipMaxX) x [clipMinY, clipMaxY).
+     * Координаты x, y - экранные, z - глубина (меньше - ближе).
+     */
+    public static void fillTriangle(
+            final FrameBuffer frameBuffer,
+            final float x0, final float y0, final float z0,
+            float x1, float y1, float z1,
+            float x2, float y2, float z2,
+            final int color,
+            final int clipMinX, final int clipMinY,
+            final int clipMaxX, final int clipMaxY) {
+        if (!inRange(x0) || !inRange(y0) || !inRange(x1) || !inRange(y1) || !inRange(x2) || !inRange(y2)) {
+            return;
+        }
+
+        long fx0 = toFixed(x0), fy0 = toFixed(y0);
+        long fx1 = toFixed(x1), fy1 = toFixed(y1);
+        long fx2 = toFixed(x2), fy2 = toFixed(y2);
+
+        long area = edge(fx0, fy0, fx1, fy1, fx2, fy2);
+        if (area == 0) {
+            return;
+        }
+        if (area < 0) {
+            // приводим к одному направлению обхода
+            long tx = fx1, ty = fy1;
+            fx1 = fx2;
+            fy1 = fy2;
+            fx2 = tx;
+            fy2 = ty;
+            float tz = z1;
+            z1 = z2;
+            z2 = tz;
+            area = -area;
+        }
+
+        int minX = Math.max(clipMinX, firstPixel(Math.min(fx0, Math.min(fx1, fx2))));
+        int minY = Math.max(clipMinY, firstPixel(Math.min(fy0, Math.min(fy1, fy2))));
+        int maxX = Math.min(clipMaxX - 1, lastPixel(Math.max(fx0, Math.max(fx1, fx2))));
+        int maxY = Math.min(clipMaxY - 1, lastPixel(Math.max(fy0, Math.max(fy1, fy2))));
+        if (minX > maxX || minY > maxY) {
+            return;
+        }
+
+        // Рёбра напротив вершин 0, 1, 2; шаг функции ребра на один пиксель по x и по y
+        long stepX0 = -(fy2 - fy1) * SUBPIXEL_ONE, stepY0 = (fx2 - fx1) * SUBPIXEL_ONE;
+        long stepX1 = -(fy0 - fy2) * SUBPIXEL_ONE, stepY1 = (fx0 - fx2) * SUBPIXEL_ONE;
+        long stepX2 = -(fy1 - fy0) * SUBPIXEL_ONE, stepY2 = (fx1 - fx0) * SUBPIXEL_ONE;
+
+        // Пиксель на ребре закрашивается, только если ребро верхнее или левое
+        long min0 = isTopLeft(fx1, fy1, fx2, fy2) ? 0 : 1;
+        long min1 = isTopLeft(fx2, fy2, fx0, fy0) ? 0 : 1;
+        long min2 = isTopLeft(fx0, fy0, fx1, fy1) ? 0 : 1;
+
+        long sampleX = (long) minX * SUBPIXEL_ONE + HALF_PIXEL;
+        long sampleY = (long) minY * SUBPIXEL_ONE + HALF_PIXEL;
+        long row0 = edge(fx1, fy1, fx2, fy2, sampleX, sampleY);
+        long row1 = edge(fx2, fy2, fx0, fy0, sampleX, sampleY);
+        long row2 = edge(fx0, fy0, fx1, fy1, sampleX, sampleY);
+
+        final float invArea = 1.0f / area;
+        final int width = frameBuffer.getWidth();
+        final int[] pixels = frameBuffer.getPixels();
+        final float[] depth = frameBuffer.getDepth();
+
+        for (int y = minY; y <= maxY; y++) {
+            long w0 = row0, w1 = row1, w2 = row2;
+            int index = y * width + minX;
+            for (int x = minX; x <= maxX; x++, index++) {
+                if (w0 >= min0 && w1 >= min1 && w2 >= min2) {
+                    float z = (w0 * z0 + w1 * z1 + w2 * z2) * invArea;
+                    if (z < depth[index]) {
+                        depth[index] = z;
+                        pixels[index] = color;
+                    }
+                }
+                w0 += stepX0;
+                w1 += stepX1;
+                w2 += stepX2;
+            }
+            row0 += stepY0;
+            row1 += stepY1;
+            row2 += stepY2;
+        }
+    }
+
+    static boolean inRange(final float v) {
+        return v > -MAX_COORDINATE && v < MAX_COORDINATE;
+    }
+
+    static long toFixed(final float v) {
+        return Math.round(v * SUBPIXEL_ONE);
+    }
+
+    // Первый пиксель, центр которого не левее (не выше) координаты
+    static int firstPixel(final long fixed) {
+        return (int) -Math.floorDiv(-(fixed - HALF_PIXEL), SUBPIXEL_ONE);
+    }
+
+    // Последний пиксель, центр которого не правее (не ниже) координаты
+    static int lastPixel(final long fixed) {
+        return (int) Math.floorDiv(fixed - HALF_PIXEL, SUBPIXEL_ONE);
+    }
+
+    // Положительна, если точка p лежит внутри относительно ребра a -> b
+    private static long edge(long ax, long ay, long bx, long by, long px, long py) {
+        return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+    }
+
+    private static boolean isTopLeft(long ax, long ay, long bx, long by) {
+        long dx = bx - ax;
+        long dy = by - ay;
+        return dy < 0 || (dy == 0 && dx > 0);
+    }
+}
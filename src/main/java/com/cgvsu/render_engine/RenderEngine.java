@@ -1,15 +1,130 @@
 package com.cgvsu.render_engine;
 
+import com.cgvsu.exceptions.MathException;
+import com.cgvsu.math.Matrix3f;
 import com.cgvsu.math.Vector3f;
 import com.cgvsu.math.Matrix4f;
-import com.cgvsu.math.Vector2f;
+import com.cgvsu.math.Vector4f;
 import com.cgvsu.model.Model;
+import com.cgvsu.model.ModelTransform;
+import com.cgvsu.model.Polygon;
 
 import javafx.scene.canvas.GraphicsContext;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 public class RenderEngine {
 
+    // Состояние отрисовки для каждой модели; запись исчезает вместе с моделью
+    private static final Map<Model, ModelRenderState> states = new WeakHashMap<>();
+
+    // Буферы, общие для всех кадров: отрисовка идёт только из одного потока (см. BackgroundRenderer)
+    private static final Vector3f viewDirection = new Vector3f();
+    private static final TriangleBuffer triangles = new TriangleBuffer();
+    private static final float[] edgeClip = new float[8];
+    private static final float[] edgeScreen = new float[6];
+    private static final float[] lineClip = new float[6];
+    private static float[] edgeSegments = new float[0];
+
+    private static final RenderStats stats = new RenderStats();
+    private static boolean backFaceCulling;
+
+    // Цвет сплошной заливки и доля фонового освещения
+    private static final int SOLID_RED = 190;
+    private static final int SOLID_GREEN = 205;
+    private static final int SOLID_BLUE = 230;
+    private static final float AMBIENT = 0.2f;
+
+    // Вместо постоянного цвета заливки грани освещаются (прозрачный цвет для заливки не нужен)
+    private static final int SHADED = 0;
+
+    // Результат классификации полигона
+    static final byte POLYGON_VISIBLE = 0;
+    static final byte POLYGON_NEAR_CLIPPED = 1;
+    static final byte POLYGON_BACK_FACE = 2;
+    static final byte POLYGON_OUTSIDE = 3;
+
+    /**
+     * Отбрасывать полигоны, обращённые от камеры. Лицевой считается грань, вершины которой
+     * на экране обходятся против часовой стрелки (обход в OBJ при взгляде снаружи).
+     */
+    public static void setBackFaceCulling(final boolean enabled) {
+        backFaceCulling = enabled;
+    }
+
+    public static boolean isBackFaceCulling() {
+        return backFaceCulling;
+    }
+
+    // Счётчики накапливаются всеми вызовами отрисовки до reset()
+    public static RenderStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Проверяет, может ли модель попасть в кадр. Сначала по плоскостям пирамиды видимости
+     * проверяется ограничивающая сфера модели в мировых координатах; для плоскостей, которые
+     * она пересекает, проверяется и AABB модели (плоскость переводится в координаты модели).
+     * Модели, для которых вернулось false, можно не отрисовывать. Результат учитывается в getStats().
+     */
+    public static boolean isVisible(final Camera camera, final Model mesh) {
+        final boolean visible = intersectsFrustum(camera, mesh);
+        stats.addModel(!visible);
+        return visible;
+    }
+
+    private static boolean intersectsFrustum(final Camera camera, final Model mesh) {
+        final float radius = mesh.getBoundingSphereRadius();
+        if (radius < 0) {
+            return false;
+        }
+        final Matrix4f m = mesh.getTransform().getModelMatrix();
+        final Vector3f center = mesh.getBoundingSphereCenter();
+        final Vector3f min = mesh.getBoundsMin();
+        final Vector3f max = mesh.getBoundsMax();
+
+        final float centerX = m.get(0, 0) * center.getX() + m.get(0, 1) * center.getY() + m.get(0, 2) * center.getZ() + m.get(0, 3);
+        final float centerY = m.get(1, 0) * center.getX() + m.get(1, 1) * center.getY() + m.get(1, 2) * center.getZ() + m.get(1, 3);
+        final float centerZ = m.get(2, 0) * center.getX() + m.get(2, 1) * center.getY() + m.get(2, 2) * center.getZ() + m.get(2, 3);
+        final float worldRadius = radius * maxScale(m);
+
+        for (int planeInd = Camera.LEFT_PLANE; planeInd <= Camera.FAR_PLANE; planeInd++) {
+            final Vector4f plane = camera.getFrustumPlane(planeInd);
+            final float distance = plane.getX() * centerX + plane.getY() * centerY + plane.getZ() * centerZ + plane.getW();
+            if (distance < -worldRadius) {
+                return false;
+            }
+            if (distance < worldRadius) {
+                // Плоскость в координатах модели: строка плоскости, умноженная на матрицу модели
+                float a = plane.getX() * m.get(0, 0) + plane.getY() * m.get(1, 0) + plane.getZ() * m.get(2, 0);
+                float b = plane.getX() * m.get(0, 1) + plane.getY() * m.get(1, 1) + plane.getZ() * m.get(2, 1);
+                float c = plane.getX() * m.get(0, 2) + plane.getY() * m.get(1, 2) + plane.getZ() * m.get(2, 2);
+                float d = plane.getX() * m.get(0, 3) + plane.getY() * m.get(1, 3) + plane.getZ() * m.get(2, 3) + plane.getW();
+                // Вершина AABB, дальше всех продвинутая внутрь плоскости
+                float x = a >= 0 ? max.getX() : min.getX();
+                float y = b >= 0 ? max.getY() : min.getY();
+                float z = c >= 0 ? max.getZ() : min.getZ();
+                if (a * x + b * y + c * z + d < 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Наибольшая длина столбца линейной части матрицы - во сколько раз растягиваются расстояния
+    private static float maxScale(final Matrix4f m) {
+        float max = 0;
+        for (int column = 0; column < 3; column++) {
+            float x = m.get(0, column), y = m.get(1, column), z = m.get(2, column);
+            max = Math.max(max, x * x + y * y + z * z);
+        }
+        return Math.nextUp((float) Math.sqrt(max));
+    }
+
+    // Каркас: отдельный вызов strokeLine на каждое ребро
     public static void render(
             final GraphicsContext graphicsContext,
             final Camera camera,
@@ -17,49 +132,623 @@ public class RenderEngine {
             final int width,
             final int height) {
 
-        // Получаем трансформации модели
-        Vector3f translation = mesh.getTransform().getTranslation();
-        Vector3f rotation = mesh.getTransform().getRotation();
-        Vector3f scale = mesh.getTransform().getScale();
+        final int nSegments = collectEdgeSegments(camera, mesh, width, height);
+        final float[] segments = edgeSegments;
+        for (int i = 0; i < nSegments * 6; i += 6) {
+            graphicsContext.strokeLine(segments[i], segments[i + 1], segments[i + 3], segments[i + 4]);
+        }
+    }
+
+    /**
+     * Каркас одним путём: все рёбра модели добавляются в путь через moveTo/lineTo и
+     * обводятся одним вызовом stroke, вместо отдельной команды Canvas на каждое ребро.
+     */
+    public static void renderPath(
+            final GraphicsContext graphicsContext,
+            final Camera camera,
+            final Model mesh,
+            final int width,
+            final int height) {
+
+        final int nSegments = collectEdgeSegments(camera, mesh, width, height);
+        if (nSegments == 0) {
+            return;
+        }
+        final float[] segments = edgeSegments;
+        graphicsContext.beginPath();
+        for (int i = 0; i < nSegments * 6; i += 6) {
+            graphicsContext.moveTo(segments[i], segments[i + 1]);
+            graphicsContext.lineTo(segments[i + 3], segments[i + 4]);
+        }
+        graphicsContext.stroke();
+    }
+
+    /**
+     * Каркас прямо в буфер кадра: отрезки рисуются LineRasterizer без команд Canvas, на экран
+     * буфер выводится одним FrameBuffer.blit. При depthTest рёбра, закрытые гранями, не рисуются;
+     * буфер глубины перед этим заполняет renderOccluders.
+     */
+    public static void renderWireframe(
+            final FrameBuffer frameBuffer,
+            final Camera camera,
+            final Model mesh,
+            final int color,
+            final boolean antialiased,
+            final boolean depthTest) {
+
+        final int nSegments = collectEdgeSegments(camera, mesh, frameBuffer.getWidth(), frameBuffer.getHeight());
+        final float[] segments = edgeSegments;
+        for (int i = 0; i < nSegments * 6; i += 6) {
+            LineRasterizer.drawLine(frameBuffer,
+                    segments[i], segments[i + 1], segments[i + 2],
+                    segments[i + 3], segments[i + 4], segments[i + 5],
+                    color, antialiased, depthTest, lineClip);
+        }
+    }
+
+    /**
+     * Заполняет буфер глубины гранями моделей, закрашивая их цветом фона, - для удаления
+     * невидимых линий в renderWireframe. Полигоны в getStats() не учитываются: их посчитает
+     * сама отрисовка каркаса.
+     */
+    public static void renderOccluders(
+            final FrameBuffer frameBuffer,
+            final Camera camera,
+            final List<Model> meshes,
+            final TileRasterizer rasterizer,
+            final int backgroundColor) {
+
+        triangles.clear();
+        for (Model mesh : meshes) {
+            appendTriangles(triangles, camera, mesh, frameBuffer.getWidth(), frameBuffer.getHeight(), rasterizer,
+                    backgroundColor | 0xFF000000);
+        }
+        rasterizer.rasterize(frameBuffer, triangles);
+    }
+
+    /**
+     * Отсекает рёбра модели и записывает видимые в edgeSegments (x0, y0, z0, x1, y1, z1 на экране).
+     * Возвращает число отрезков.
+     */
+    static int collectEdgeSegments(
+            final Camera camera,
+            final Model mesh,
+            final int width,
+            final int height) {
+
+        final Matrix4f modelViewProjectionMatrix = getModelViewProjectionMatrix(camera, mesh);
+        final float[] positions = getPositions(mesh);
+        final float[] screenVertices = transformVertices(mesh, modelViewProjectionMatrix, width, height);
+        final byte[] outcodes = computeOutcodes(mesh, modelViewProjectionMatrix);
+        final byte[] polygonClasses = classifyPolygons(mesh, screenVertices, outcodes, null, true);
+
+        final long[] edges = getEdges(mesh);
+        final int[] edgePolygons = backFaceCulling ? getEdgePolygons(mesh) : null;
+        if (edgeSegments.length < edges.length * 6) {
+            edgeSegments = new float[edges.length * 6];
+        }
+        final float[] segments = edgeSegments;
+        int count = 0;
+
+        // Каждое ребро рисуется один раз, даже если его делят два полигона
+        for (int edgeInd = 0; edgeInd < edges.length; edgeInd++) {
+            final int a = MeshEdges.first(edges[edgeInd]);
+            final int b = MeshEdges.second(edges[edgeInd]);
+            if ((outcodes[a] & outcodes[b]) != 0) {
+                continue;
+            }
+            // При отсечении нелицевых граней ребро видно, если видна хотя бы одна из его граней
+            if (edgePolygons != null
+                    && !isFrontFacing(edgePolygons[edgeInd * 2], polygonClasses)
+                    && !isFrontFacing(edgePolygons[edgeInd * 2 + 1], polygonClasses)) {
+                continue;
+            }
+
+            final int offset = count * 6;
+            if (((outcodes[a] | outcodes[b]) & Clipper.OUTSIDE_NEAR) != 0) {
+                Clipper.toClipSpace(modelViewProjectionMatrix, positions, a, edgeClip, 0);
+                Clipper.toClipSpace(modelViewProjectionMatrix, positions, b, edgeClip, 4);
+                if (!Clipper.clipSegmentNear(edgeClip, 0, 4)) {
+                    continue;
+                }
+                Clipper.project(edgeClip, 0, width, height, edgeScreen, 0);
+                Clipper.project(edgeClip, 4, width, height, edgeScreen, 3);
+                System.arraycopy(edgeScreen, 0, segments, offset, 6);
+            } else {
+                System.arraycopy(screenVertices, a * 3, segments, offset, 3);
+                System.arraycopy(screenVertices, b * 3, segments, offset + 3, 3);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    // Буфер, заполненный последним вызовом collectEdgeSegments
+    static float[] getEdgeSegments() {
+        return edgeSegments;
+    }
+
+    private static boolean isFrontFacing(final int polygonInd, final byte[] polygonClasses) {
+        if (polygonInd == MeshEdges.MANY_POLYGONS) {
+            return true;
+        }
+        return polygonInd >= 0 && polygonClasses[polygonInd] != POLYGON_BACK_FACE;
+    }
+
+    /**
+     * Экранные координаты и глубина всех вершин модели (x, y, z подряд). Каждая вершина
+     * преобразуется один раз за кадр, полигоны только обращаются к буферу по индексам.
+     * Буфер принадлежит модели и переиспользуется между кадрами.
+     */
+    static float[] transformVertices(
+            final Model mesh, final Matrix4f modelViewProjectionMatrix, final int width, final int height) {
+        ModelRenderState state = getState(mesh);
+        final float[] positions = getPositions(mesh);
+        final int nVertices = mesh.vertices.size();
+        if (state.screenVertices.length < nVertices * 3) {
+            state.screenVertices = new float[nVertices * 3];
+        }
+        GraphicConveyor.transformVertices(positions, nVertices, modelViewProjectionMatrix, width, height, state.screenVertices);
+        state.screenWidth = width;
+        state.screenHeight = height;
+        state.screenVerticesVersion = matrixVersion(state, modelViewProjectionMatrix);
+        return state.screenVertices;
+    }
+
+    // Коды отсечения всех вершин модели для текущего кадра
+    static byte[] computeOutcodes(final Model mesh, final Matrix4f modelViewProjectionMatrix) {
+        ModelRenderState state = getState(mesh);
+        final int nVertices = mesh.vertices.size();
+        if (state.outcodes.length < nVertices) {
+            state.outcodes = new byte[nVertices];
+        }
+        Clipper.computeOutcodes(getPositions(mesh), nVertices, modelViewProjectionMatrix, state.outcodes);
+        state.outcodesVersion = matrixVersion(state, modelViewProjectionMatrix);
+        return state.outcodes;
+    }
+
+    private static long matrixVersion(final ModelRenderState state, final Matrix4f modelViewProjectionMatrix) {
+        return modelViewProjectionMatrix == state.modelViewProjectionMatrix ? state.modelViewProjectionVersion : -1;
+    }
+
+    // Координаты вершин в плоском массиве (x, y, z подряд), обновляются при изменении геометрии
+    static float[] getPositions(final Model mesh) {
+        ModelRenderState state = getState(mesh);
+        long geometryVersion = mesh.getGeometryVersion();
+        final int nVertices = mesh.vertices.size();
+        if (state.positionsGeometryVersion != geometryVersion || state.positions.length != nVertices * 3) {
+            final float[] positions = new float[nVertices * 3];
+            for (int vertexInd = 0; vertexInd < nVertices; ++vertexInd) {
+                Vector3f vertex = mesh.vertices.get(vertexInd);
+                positions[vertexInd * 3] = vertex.getX();
+                positions[vertexInd * 3 + 1] = vertex.getY();
+                positions[vertexInd * 3 + 2] = vertex.getZ();
+            }
+            state.positions = positions;
+            state.positionsGeometryVersion = geometryVersion;
+        }
+        return state.positions;
+    }
+
+    // Список уникальных рёбер строится один раз и перестраивается только при изменении геометрии
+    static long[] getEdges(final Model mesh) {
+        ModelRenderState state = getState(mesh);
+        long geometryVersion = mesh.getGeometryVersion();
+        if (state.edges == null || state.edgesGeometryVersion != geometryVersion) {
+            state.edges = MeshEdges.build(mesh.polygons);
+            state.edgesGeometryVersion = geometryVersion;
+            state.edgePolygons = null;
+        }
+        return state.edges;
+    }
+
+    // Полигоны по обе стороны каждого ребра; нужны только при отсечении нелицевых граней
+    private static int[] getEdgePolygons(final Model mesh) {
+        ModelRenderState state = getState(mesh);
+        long[] edges = getEdges(mesh);
+        if (state.edgePolygons == null) {
+            state.edgePolygons = MeshEdges.adjacentPolygons(edges, mesh.polygons);
+        }
+        return state.edgePolygons;
+    }
+
+    /**
+     * Классифицирует полигоны модели: целиком вне пирамиды видимости, нелицевые (если включено
+     * отсечение), пересекающие ближнюю плоскость или видимые. Заодно в triangleOffsets состояния
+     * модели записывается номер первого треугольника каждого полигона после веерного разбиения
+     * (последний элемент - общее число). При countStats счётчики отсечения добавляются в getStats().
+     */
+    static byte[] classifyPolygons(
+            final Model mesh,
+            final float[] screenVertices,
+            final byte[] outcodes,
+            final TileRasterizer rasterizer,
+            final boolean countStats) {
+        ModelRenderState state = getState(mesh);
+        final int nPolygons = mesh.polygons.size();
+        if (state.polygonClasses.length < nPolygons) {
+            state.polygonClasses = new byte[nPolygons];
+        }
+        if (state.triangleOffsets.length < nPolygons + 1) {
+            state.triangleOffsets = new int[nPolygons + 1];
+        }
+        final byte[] classes = state.polygonClasses;
+        final int[] offsets = state.triangleOffsets;
+        final boolean cullBackFaces = backFaceCulling;
+
+        if (rasterizer == null) {
+            classifyPolygons(mesh.polygons, 0, nPolygons, screenVertices, outcodes, cullBackFaces, classes, offsets);
+        } else {
+            final int chunkSize = TileRasterizer.CHUNK_SIZE;
+            rasterizer.parallelFor((nPolygons + chunkSize - 1) / chunkSize, chunk ->
+                    classifyPolygons(mesh.polygons, chunk * chunkSize, Math.min(nPolygons, (chunk + 1) * chunkSize),
+                            screenVertices, outcodes, cullBackFaces, classes, offsets));
+        }
+
+        accumulateOffsets(classes, offsets, 0, nPolygons, countStats);
+        return classes;
+    }
+
+    /**
+     * Превращает число треугольников каждого полигона из [from, to) в номер первого из них,
+     * считая от from; в offsets[to] записывается общее число. Возвращает это число.
+     */
+    private static int accumulateOffsets(
+            final byte[] classes, final int[] offsets, final int from, final int to, final boolean countStats) {
+        long backFaceCulled = 0;
+        long frustumCulled = 0;
+        long nearClipped = 0;
+        int total = 0;
+        for (int polygonInd = from; polygonInd < to; ++polygonInd) {
+            switch (classes[polygonInd]) {
+                case POLYGON_BACK_FACE -> backFaceCulled++;
+                case POLYGON_OUTSIDE -> frustumCulled++;
+                case POLYGON_NEAR_CLIPPED -> nearClipped++;
+                default -> { }
+            }
+            int count = offsets[polygonInd];
+            offsets[polygonInd] = total;
+            total += count;
+        }
+        offsets[to] = total;
+        if (countStats) {
+            stats.add(to - from, backFaceCulled, frustumCulled, nearClipped);
+        }
+        return total;
+    }
+
+    // Записывает класс полигона и число его треугольников (в offsets) для полигонов [from, to)
+    private static void classifyPolygons(
+            final List<Polygon> polygons,
+            final int from,
+            final int to,
+            final float[] screenVertices,
+            final byte[] outcodes,
+            final boolean cullBackFaces,
+            final byte[] classes,
+            final int[] offsets) {
+
+        for (int polygonInd = from; polygonInd < to; ++polygonInd) {
+            final ArrayList<Integer> vertexIndices = polygons.get(polygonInd).getVertexIndices();
+            final int nVerticesInPolygon = vertexIndices.size();
+
+            int allOutside = 0xFF;
+            int anyOutside = 0;
+            for (int i = 0; i < nVerticesInPolygon; i++) {
+                int code = outcodes[vertexIndices.get(i)];
+                allOutside &= code;
+                anyOutside |= code;
+            }
+
+            if (nVerticesInPolygon == 0 || allOutside != 0) {
+                classes[polygonInd] = POLYGON_OUTSIDE;
+                offsets[polygonInd] = 0;
+            } else if ((anyOutside & Clipper.OUTSIDE_NEAR) != 0) {
+                // После отсечения остаются вершины перед плоскостью и точки пересечения рёбер с ней
+                int clippedVertices = 0;
+                for (int i = 0; i < nVerticesInPolygon; i++) {
+                    boolean inside = (outcodes[vertexIndices.get(i)] & Clipper.OUTSIDE_NEAR) == 0;
+                    boolean nextInside = (outcodes[vertexIndices.get(i + 1 < nVerticesInPolygon ? i + 1 : 0)]
+                            & Clipper.OUTSIDE_NEAR) == 0;
+                    if (inside) {
+                        clippedVertices++;
+                    }
+                    if (inside != nextInside) {
+                        clippedVertices++;
+                    }
+                }
+                classes[polygonInd] = POLYGON_NEAR_CLIPPED;
+                offsets[polygonInd] = Math.max(0, clippedVertices - 2);
+            } else if (cullBackFaces && signedArea(screenVertices, vertexIndices) <= 0) {
+                classes[polygonInd] = POLYGON_BACK_FACE;
+                offsets[polygonInd] = 0;
+            } else {
+                classes[polygonInd] = POLYGON_VISIBLE;
+                offsets[polygonInd] = Math.max(0, nVerticesInPolygon - 2);
+            }
+        }
+    }
+
+    // Удвоенная ориентированная площадь полигона на экране; положительна для лицевых граней
+    private static float signedArea(final float[] screenVertices, final ArrayList<Integer> vertexIndices) {
+        final int nVerticesInPolygon = vertexIndices.size();
+        float area = 0;
+        int previous = vertexIndices.get(nVerticesInPolygon - 1) * 3;
+        for (int i = 0; i < nVerticesInPolygon; i++) {
+            int current = vertexIndices.get(i) * 3;
+            area += screenVertices[previous] * screenVertices[current + 1]
+                    - screenVertices[current] * screenVertices[previous + 1];
+            previous = current;
+        }
+        return area;
+    }
+
+    public static void renderSolid(
+            final FrameBuffer frameBuffer,
+            final Camera camera,
+            final Model mesh) {
+
+        triangles.clear();
+        appendTriangles(triangles, camera, mesh, frameBuffer.getWidth(), frameBuffer.getHeight(), null, SHADED);
+        triangles.rasterize(frameBuffer, 0, triangles.size, 0, 0, frameBuffer.getWidth(), frameBuffer.getHeight());
+    }
+
+    /**
+     * Сплошная заливка нескольких моделей за один проход: подготовка треугольников и заливка
+     * плиток идут в потоках TileRasterizer. Результат совпадает с последовательными вызовами
+     * renderSolid для каждой модели в том же порядке.
+     */
+    public static void renderSolid(
+            final FrameBuffer frameBuffer,
+            final Camera camera,
+            final List<Model> meshes,
+            final TileRasterizer rasterizer) {
+
+        triangles.clear();
+        for (Model mesh : meshes) {
+            appendTriangles(triangles, camera, mesh, frameBuffer.getWidth(), frameBuffer.getHeight(), rasterizer, SHADED);
+        }
+        rasterizer.rasterize(frameBuffer, triangles);
+    }
+
+    /**
+     * Проецирует многоугольники модели и дописывает их треугольники в буфер; rasterizer == null - в текущем потоке.
+     * flatColor - цвет всех граней или SHADED для освещения; заливка постоянным цветом в статистику не идёт.
+     */
+    private static void appendTriangles(
+            final TriangleBuffer triangles,
+            final Camera camera,
+            final Model mesh,
+            final int width,
+            final int height,
+            final TileRasterizer rasterizer,
+            final int flatColor) {
+
+        final Matrix4f modelViewProjectionMatrix = getModelViewProjectionMatrix(camera, mesh);
+        final Matrix3f normalMatrix = getNormalMatrix(mesh);
+        final float[] positions = getPositions(mesh);
+        final float[] screenVertices = transformVertices(mesh, modelViewProjectionMatrix, width, height);
+        final byte[] outcodes = computeOutcodes(mesh, modelViewProjectionMatrix);
+        final byte[] polygonClasses = classifyPolygons(mesh, screenVertices, outcodes, rasterizer, flatColor == SHADED);
 
-        // Создаем матрицу модели
-        Matrix4f modelMatrix = GraphicConveyor.createModelMatrix(translation, rotation, scale);
+        // Освещение "от камеры": яркость грани зависит от угла между нормалью и направлением взгляда
+        camera.getTarget().subtractInto(camera.getPosition(), viewDirection);
+        viewDirection.normalize();
+
+        final int nPolygons = mesh.polygons.size();
+        final int[] triangleOffsets = getState(mesh).triangleOffsets;
+        final int firstTriangle = triangles.reserve(triangleOffsets[nPolygons]);
+
+        if (rasterizer == null) {
+            setupTriangles(triangles, firstTriangle, triangleOffsets, mesh.polygons, 0, nPolygons, polygonClasses,
+                    positions, screenVertices, modelViewProjectionMatrix, normalMatrix, width, height, flatColor);
+        } else {
+            final int chunkSize = TileRasterizer.CHUNK_SIZE;
+            rasterizer.parallelFor((nPolygons + chunkSize - 1) / chunkSize, chunk ->
+                    setupTriangles(triangles, firstTriangle, triangleOffsets, mesh.polygons,
+                            chunk * chunkSize, Math.min(nPolygons, (chunk + 1) * chunkSize), polygonClasses,
+                            positions, screenVertices, modelViewProjectionMatrix, normalMatrix, width, height, flatColor));
+        }
+    }
 
-        Matrix4f viewMatrix = camera.getViewMatrix();
-        Matrix4f projectionMatrix = camera.getProjectionMatrix();
+    /**
+     * Подготовка к заливке модели по частям: вершины переводятся в экранные координаты и
+     * вычисляются их коды отсечения. Результат используется appendTriangles с диапазоном
+     * полигонов, пока не изменится вид.
+     */
+    static void prepareVertices(final Camera camera, final Model mesh, final int width, final int height) {
+        final Matrix4f modelViewProjectionMatrix = getModelViewProjectionMatrix(camera, mesh);
+        transformVertices(mesh, modelViewProjectionMatrix, width, height);
+        computeOutcodes(mesh, modelViewProjectionMatrix);
+    }
 
-        // Для векторов-столбцов: MVP = P × V × M
-        Matrix4f modelViewProjectionMatrix = projectionMatrix.multiply(viewMatrix).multiply(modelMatrix);
+    /**
+     * Дописывает в буфер треугольники полигонов [fromPolygon, toPolygon) по вершинам из последнего
+     * prepareVertices. Если с тех пор вершины модели пересчитала другая отрисовка (например, кадр
+     * другого размера), они подготавливаются заново. Полигоны классифицируются здесь же, счётчики
+     * добавляются в getStats().
+     * Возвращает число дописанных треугольников.
+     */
+    static int appendTriangles(
+            final TriangleBuffer triangles,
+            final Camera camera,
+            final Model mesh,
+            final int width,
+            final int height,
+            final int fromPolygon,
+            final int toPolygon) {
 
+        ModelRenderState state = getState(mesh);
+        final Matrix4f modelViewProjectionMatrix = getModelViewProjectionMatrix(camera, mesh);
+        if (state.screenWidth != width || state.screenHeight != height
+                || state.screenVerticesVersion != state.modelViewProjectionVersion
+                || state.outcodesVersion != state.modelViewProjectionVersion) {
+            prepareVertices(camera, mesh, width, height);
+        }
         final int nPolygons = mesh.polygons.size();
-        for (int polygonInd = 0; polygonInd < nPolygons; ++polygonInd) {
-            final int nVerticesInPolygon = mesh.polygons.get(polygonInd).getVertexIndices().size();
+        if (state.polygonClasses.length < nPolygons) {
+            state.polygonClasses = new byte[nPolygons];
+        }
+        if (state.triangleOffsets.length < nPolygons + 1) {
+            state.triangleOffsets = new int[nPolygons + 1];
+        }
+        classifyPolygons(mesh.polygons, fromPolygon, toPolygon, state.screenVertices, state.outcodes,
+                backFaceCulling, state.polygonClasses, state.triangleOffsets);
+        final int count = accumulateOffsets(state.polygonClasses, state.triangleOffsets, fromPolygon, toPolygon, true);
+
+        camera.getTarget().subtractInto(camera.getPosition(), viewDirection);
+        viewDirection.normalize();
+        setupTriangles(triangles, triangles.reserve(count), state.triangleOffsets, mesh.polygons,
+                fromPolygon, toPolygon, state.polygonClasses, getPositions(mesh), state.screenVertices,
+                modelViewProjectionMatrix, getNormalMatrix(mesh), width, height, SHADED);
+        return count;
+    }
+
+    // Может выполняться параллельно для разных диапазонов многоугольников: общих буферов на запись нет
+    private static void setupTriangles(
+            final TriangleBuffer triangles,
+            final int firstTriangle,
+            final int[] triangleOffsets,
+            final List<Polygon> polygons,
+            final int fromPolygon,
+            final int toPolygon,
+            final byte[] polygonClasses,
+            final float[] positions,
+            final float[] screenVertices,
+            final Matrix4f modelViewProjectionMatrix,
+            final Matrix3f normalMatrix,
+            final int width,
+            final int height,
+            final int flatColor) {
+
+        float[] clipInput = new float[0];
+        float[] clipOutput = new float[0];
+        float[] clippedScreen = new float[0];
+
+        for (int polygonInd = fromPolygon; polygonInd < toPolygon; ++polygonInd) {
+            final byte polygonClass = polygonClasses[polygonInd];
+            if (polygonClass == POLYGON_OUTSIDE || polygonClass == POLYGON_BACK_FACE) {
+                continue;
+            }
+            final ArrayList<Integer> vertexIndices = polygons.get(polygonInd).getVertexIndices();
+            final int nVerticesInPolygon = vertexIndices.size();
+            if (nVerticesInPolygon < 3) {
+                continue;
+            }
 
-            ArrayList<Vector2f> resultPoints = new ArrayList<>();
-            for (int vertexInPolygonInd = 0; vertexInPolygonInd < nVerticesInPolygon; ++vertexInPolygonInd) {
-                Vector3f vertex = mesh.vertices.get(mesh.polygons.get(polygonInd).getVertexIndices().get(vertexInPolygonInd));
+            final int color = flatColor != SHADED ? flatColor : shade(positions,
+                    vertexIndices.get(0) * 3, vertexIndices.get(1) * 3, vertexIndices.get(2) * 3, normalMatrix);
+            int triangle = firstTriangle + triangleOffsets[polygonInd];
 
-                Vector3f transformedVertex = GraphicConveyor.multiplyMatrix4ByVector3(modelViewProjectionMatrix, vertex);
+            if (polygonClass == POLYGON_VISIBLE) {
+                // Многоугольник разбивается на треугольники веером из первой вершины
+                final int first = vertexIndices.get(0) * 3;
+                int previous = vertexIndices.get(1) * 3;
+                for (int i = 2; i < nVerticesInPolygon; i++, triangle++) {
+                    final int current = vertexIndices.get(i) * 3;
+                    triangles.set(triangle,
+                            screenVertices[first], screenVertices[first + 1], screenVertices[first + 2],
+                            screenVertices[previous], screenVertices[previous + 1], screenVertices[previous + 2],
+                            screenVertices[current], screenVertices[current + 1], screenVertices[current + 2],
+                            color);
+                    previous = current;
+                }
+                continue;
+            }
 
-                Vector2f resultPoint = GraphicConveyor.vertexToPoint(transformedVertex, width, height);
-                resultPoints.add(resultPoint);
+            // Полигон пересекает ближнюю плоскость: отсекаем в однородных координатах и проецируем заново
+            if (clipInput.length < nVerticesInPolygon * 4) {
+                clipInput = new float[nVerticesInPolygon * 8];
+                clipOutput = new float[(nVerticesInPolygon * 2 + 1) * 4];
+                clippedScreen = new float[(nVerticesInPolygon * 2 + 1) * 3];
+            }
+            for (int i = 0; i < nVerticesInPolygon; i++) {
+                Clipper.toClipSpace(modelViewProjectionMatrix, positions, vertexIndices.get(i), clipInput, i * 4);
+            }
+            final int clippedCount = Clipper.clipPolygonNear(clipInput, nVerticesInPolygon, clipOutput);
+            for (int i = 0; i < clippedCount; i++) {
+                Clipper.project(clipOutput, i * 4, width, height, clippedScreen, i * 3);
             }
 
-            for (int vertexInPolygonInd = 1; vertexInPolygonInd < nVerticesInPolygon; ++vertexInPolygonInd) {
-                graphicsContext.strokeLine(
-                        resultPoints.get(vertexInPolygonInd - 1).getX(),
-                        resultPoints.get(vertexInPolygonInd - 1).getY(),
-                        resultPoints.get(vertexInPolygonInd).getX(),
-                        resultPoints.get(vertexInPolygonInd).getY());
+            final int end = firstTriangle + triangleOffsets[polygonInd + 1];
+            for (int i = 2; i < clippedCount && triangle < end; i++, triangle++) {
+                triangles.set(triangle,
+                        clippedScreen[0], clippedScreen[1], clippedScreen[2],
+                        clippedScreen[(i - 1) * 3], clippedScreen[(i - 1) * 3 + 1], clippedScreen[(i - 1) * 3 + 2],
+                        clippedScreen[i * 3], clippedScreen[i * 3 + 1], clippedScreen[i * 3 + 2],
+                        color);
             }
+            // Место было зарезервировано по кодам вершин; если треугольников вышло меньше, остаток вырожденный
+            for (; triangle < end; triangle++) {
+                triangles.set(triangle, 0, 0, 0, 0, 0, 0, 0, 0, 0, color);
+            }
+        }
+    }
+
+    // a, b, c - смещения вершин в массиве координат
+    private static int shade(final float[] positions, final int a, final int b, final int c, final Matrix3f normalMatrix) {
+        float e1x = positions[b] - positions[a], e1y = positions[b + 1] - positions[a + 1], e1z = positions[b + 2] - positions[a + 2];
+        float e2x = positions[c] - positions[a], e2y = positions[c + 1] - positions[a + 1], e2z = positions[c + 2] - positions[a + 2];
+        float nx = e1y * e2z - e1z * e2y;
+        float ny = e1z * e2x - e1x * e2z;
+        float nz = e1x * e2y - e1y * e2x;
+
+        float wx = normalMatrix.get(0, 0) * nx + normalMatrix.get(0, 1) * ny + normalMatrix.get(0, 2) * nz;
+        float wy = normalMatrix.get(1, 0) * nx + normalMatrix.get(1, 1) * ny + normalMatrix.get(1, 2) * nz;
+        float wz = normalMatrix.get(2, 0) * nx + normalMatrix.get(2, 1) * ny + normalMatrix.get(2, 2) * nz;
+
+        float length = (float) Math.sqrt(wx * wx + wy * wy + wz * wz);
+        float intensity = length > 1e-20f
+                ? Math.abs(wx * viewDirection.getX() + wy * viewDirection.getY() + wz * viewDirection.getZ()) / length
+                : 0;
+        float k = AMBIENT + (1 - AMBIENT) * intensity;
+        int r = (int) (SOLID_RED * k);
+        int g = (int) (SOLID_GREEN * k);
+        int bl = (int) (SOLID_BLUE * k);
+        return 0xFF000000 | (r << 16) | (g << 8) | bl;
+    }
 
-            if (nVerticesInPolygon > 0) {
-                graphicsContext.strokeLine(
-                        resultPoints.get(nVerticesInPolygon - 1).getX(),
-                        resultPoints.get(nVerticesInPolygon - 1).getY(),
-                        resultPoints.get(0).getX(),
-                        resultPoints.get(0).getY());
+    // Матрица нормалей (обратная транспонированная к матрице модели), пересчитывается вместе с ней
+    static Matrix3f getNormalMatrix(final Model mesh) {
+        ModelRenderState state = getState(mesh);
+        ModelTransform transform = mesh.getTransform();
+        long transformVersion = transform.getVersion();
+        if (state.normalTransformVersion != transformVersion) {
+            try {
+                transform.getModelMatrix().normalMatrix(state.normalMatrix);
+            } catch (MathException e) {
+                // нулевой масштаб - модель вырождена, освещение не важно
+                for (int i = 0; i < 3; i++) {
+                    for (int j = 0; j < 3; j++) {
+                        state.normalMatrix.set(i, j, i == j ? 1 : 0);
+                    }
+                }
             }
+            state.normalTransformVersion = transformVersion;
         }
+        return state.normalMatrix;
+    }
+
+    // MVP пересчитывается только если изменилось преобразование модели или камера
+    static Matrix4f getModelViewProjectionMatrix(final Camera camera, final Model mesh) {
+        ModelRenderState state = getState(mesh);
+        ModelTransform transform = mesh.getTransform();
+        long transformVersion = transform.getVersion();
+        long cameraVersion = camera.getVersion();
+        if (state.transformVersion != transformVersion || state.camera != camera
+                || state.cameraVersion != cameraVersion) {
+            // Для векторов-столбцов: MVP = P × V × M
+            Matrix4f.mulInto(camera.getViewProjectionMatrix(), transform.getModelMatrix(),
+                    state.modelViewProjectionMatrix);
+            state.transformVersion = transformVersion;
+            state.camera = camera;
+            state.cameraVersion = cameraVersion;
+            state.modelViewProjectionVersion++;
+        }
+        return state.modelViewProjectionMatrix;
+    }
+
+    static ModelRenderState getState(final Model mesh) {
+        return states.computeIfAbsent(mesh, m -> new ModelRenderState());
     }
-}
\ No newline at end of file
+}
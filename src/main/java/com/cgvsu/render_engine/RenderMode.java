@@ -0,0 +1,24 @@
+package com.cgvsu.render_engine;
+
+public enum RenderMode {
+    WIREFRAME("Wireframe (strokeLine)"),
+    WIREFRAME_PATH("Wireframe (single path)"),
+    WIREFRAME_RASTER("Wireframe (pixel buffer)"),
+    SOLID("Solid (z-buffer)");
+
+    private final String title;
+
+    RenderMode(final String title) {
+        this.title = title;
+    }
+
+    // Кадр рисуется в FrameBuffer, а не командами Canvas
+    public boolean isRasterized() {
+        return this == SOLID || this == WIREFRAME_RASTER;
+    }
+
+    @Override
+    public String toString() {
+        return title;
+    }
+}
@@ -0,0 +1,85 @@
+package com.cgvsu.render_engine;
+
+/**
+ * Счётчики отсечения полигонов. RenderEngine накапливает их за все вызовы отрисовки,
+ * вызывающий код сбрасывает их в начале кадра.
+ */
+public class RenderStats {
+
+    private long polygons;
+    private long backFaceCulled;
+    private long frustumCulled;
+    private long nearClipped;
+    private long models;
+    private long modelsCulled;
+
+    public void reset() {
+        polygons = 0;
+        backFaceCulled = 0;
+        frustumCulled = 0;
+        nearClipped = 0;
+        models = 0;
+        modelsCulled = 0;
+    }
+
+    void addModel(final boolean culled) {
+        models++;
+        if (culled) {
+            modelsCulled++;
+        }
+    }
+
+    void add(final long polygons, final long backFaceCulled, final long frustumCulled, final long nearClipped) {
+        this.polygons += polygons;
+        this.backFaceCulled += backFaceCulled;
+        this.frustumCulled += frustumCulled;
+        this.nearClipped += nearClipped;
+    }
+
+    void add(final RenderStats other) {
+        add(other.polygons, other.backFaceCulled, other.frustumCulled, other.nearClipped);
+        models += other.models;
+        modelsCulled += other.modelsCulled;
+    }
+
+    public long getPolygons() {
+        return polygons;
+    }
+
+    public long getBackFaceCulled() {
+        return backFaceCulled;
+    }
+
+    public long getFrustumCulled() {
+        return frustumCulled;
+    }
+
+    public long getNearClipped() {
+        return nearClipped;
+    }
+
+    public long getModels() {
+        return models;
+    }
+
+    // Модели, целиком оказавшиеся вне пирамиды видимости
+    public long getModelsCulled() {
+        return modelsCulled;
+    }
+
+    // Полигоны, дошедшие до отрисовки
+    public long getDrawn() {
+        return polygons - backFaceCulled - frustumCulled;
+    }
+
+    @Override
+    public String toString() {
+        return "models: " + models
+                + ", culled: " + modelsCulled
+                + "\npolygons: " + polygons
+                + ", drawn: " + getDrawn()
+                + ", back-face culled: " + backFaceCulled
+                + ", outside frustum: " + frustumCulled
+                + ", near-clipped: " + nearClipped;
+    }
+}
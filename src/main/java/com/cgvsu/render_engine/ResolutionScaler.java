@@ -0,0 +1,56 @@
+package com.cgvsu.render_engine;
+
+/**
+ * Подбирает долю разрешения кадра так, чтобы время отрисовки укладывалось в бюджет.
+ * Время кадра считается пропорциональным числу пикселей, то есть квадрату доли: после
+ * каждого кадра доля сдвигается к значению, при котором кадр занял бы ровно бюджет.
+ * Отклонения в пределах TOLERANCE не учитываются, чтобы разрешение не дрожало.
+ */
+public final class ResolutionScaler {
+
+    public static final float MIN_SCALE = 0.25f;
+    public static final float MAX_SCALE = 1f;
+
+    // Доля пути к расчётной доле за один кадр и допустимое отклонение времени кадра от бюджета
+    private static final float GAIN = 0.5f;
+    private static final float TOLERANCE = 0.1f;
+
+    private long targetFrameTimeNanos;
+    private float scale = MAX_SCALE;
+
+    public ResolutionScaler(final long targetFrameTimeNanos) {
+        setTargetFrameTime(targetFrameTimeNanos);
+    }
+
+    public void setTargetFrameTime(final long targetFrameTimeNanos) {
+        if (targetFrameTimeNanos <= 0) {
+            throw new IllegalArgumentException("Target frame time must be positive: " + targetFrameTimeNanos);
+        }
+        this.targetFrameTimeNanos = targetFrameTimeNanos;
+    }
+
+    public long getTargetFrameTime() {
+        return targetFrameTimeNanos;
+    }
+
+    // Доля ширины и высоты холста, в которой рисуется следующий кадр
+    public float getScale() {
+        return scale;
+    }
+
+    /**
+     * Учитывает время кадра, отрисованного с текущей долей getScale().
+     */
+    public void update(final long frameTimeNanos) {
+        final float ratio = (float) targetFrameTimeNanos / Math.max(1, frameTimeNanos);
+        if (Math.abs(ratio - 1) <= TOLERANCE) {
+            return;
+        }
+        final float ideal = scale * (float) Math.sqrt(ratio);
+        scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale + (ideal - scale) * GAIN));
+    }
+
+    public void reset() {
+        scale = MAX_SCALE;
+    }
+}
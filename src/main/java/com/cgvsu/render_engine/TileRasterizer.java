@@ -0,0 +1,201 @@
+package com.cgvsu.render_engine;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Многопоточная заливка треугольников по плиткам экрана.
+ * <p>
+ * Треугольники раскладываются по плиткам (tileSize x tileSize пикселей), которые пересекает
+ * их ограничивающий прямоугольник, после чего плитки заливаются параллельно в потоках
+ * ForkJoinPool. Каждый пиксель принадлежит ровно одной плитке, поэтому блокировки не нужны,
+ * а порядок треугольников внутри плитки совпадает с исходным - результат попиксельно
+ * совпадает с последовательной заливкой.
+ */
+public final class TileRasterizer {
+
+    public static final int DEFAULT_TILE_SIZE = 64;
+
+    // Столько треугольников (или многоугольников) обрабатывает одна задача при раскладке и подготовке
+    static final int CHUNK_SIZE = 16384;
+
+    private final int tileSize;
+    private final int tileShift;
+    private final ForkJoinPool pool;
+
+    // Списки треугольников по плиткам: индексы плитки t лежат в binned[tileStart[t] .. tileStart[t + 1])
+    private int[] tileStart = new int[0];
+    private int[] binned = new int[0];
+    // Число треугольников каждой части в каждой плитке, а затем - позиция записи
+    private int[] chunkTileCursor = new int[0];
+    // Диапазон плиток каждого треугольника, чтобы не считать его дважды
+    private long[] tileRanges = new long[0];
+
+    private static final long NOT_VISIBLE = -1;
+
+    public TileRasterizer() {
+        this(DEFAULT_TILE_SIZE, ForkJoinPool.commonPool());
+    }
+
+    public TileRasterizer(final int tileSize, final ForkJoinPool pool) {
+        if (tileSize <= 0 || Integer.bitCount(tileSize) != 1) {
+            throw new IllegalArgumentException("Tile size must be a positive power of two: " + tileSize);
+        }
+        this.tileSize = tileSize;
+        this.tileShift = Integer.numberOfTrailingZeros(tileSize);
+        this.pool = pool;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    // Выполняет body(i) для i из [0, count) в потоках пула
+    void parallelFor(final int count, final IntConsumer body) {
+        if (count <= 1) {
+            for (int i = 0; i < count; i++) {
+                body.accept(i);
+            }
+            return;
+        }
+        pool.submit(() -> IntStream.range(0, count).parallel().forEach(body)).join();
+    }
+
+    void rasterize(final FrameBuffer frameBuffer, final TriangleBuffer triangles) {
+        final int width = frameBuffer.getWidth();
+        final int height = frameBuffer.getHeight();
+        final int triangleCount = triangles.size;
+        if (width == 0 || height == 0 || triangleCount == 0) {
+            return;
+        }
+
+        final int tilesX = (width + tileSize - 1) / tileSize;
+        final int tilesY = (height + tileSize - 1) / tileSize;
+        final int tileCount = tilesX * tilesY;
+        final int chunkCount = (triangleCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        if (chunkTileCursor.length < chunkCount * tileCount) {
+            chunkTileCursor = new int[chunkCount * tileCount];
+        }
+        if (tileStart.length < tileCount + 1) {
+            tileStart = new int[tileCount + 1];
+        }
+        if (tileRanges.length < triangleCount) {
+            tileRanges = new long[Math.max(triangleCount, tileRanges.length * 2)];
+        }
+        final int[] cursor = chunkTileCursor;
+        final long[] ranges = tileRanges;
+
+        // 1. Каждая часть считает свои треугольники по плиткам
+        parallelFor(chunkCount, chunk -> {
+            int base = chunk * tileCount;
+            Arrays.fill(cursor, base, base + tileCount, 0);
+            int to = Math.min(triangleCount, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < to; i++) {
+                long range = tileRange(triangles, i, width, height);
+                ranges[i] = range;
+                if (range != NOT_VISIBLE) {
+                    for (int ty = rangeMinY(range), maxY = rangeMaxY(range); ty <= maxY; ty++) {
+                        for (int tx = rangeMinX(range), maxX = rangeMaxX(range); tx <= maxX; tx++) {
+                            cursor[base + ty * tilesX + tx]++;
+                        }
+                    }
+                }
+            }
+        });
+
+        // 2. Префиксные суммы: внутри плитки части идут по порядку, поэтому исходный порядок сохраняется
+        int total = 0;
+        for (int tile = 0; tile < tileCount; tile++) {
+            tileStart[tile] = total;
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                int count = cursor[chunk * tileCount + tile];
+                cursor[chunk * tileCount + tile] = total;
+                total += count;
+            }
+        }
+        tileStart[tileCount] = total;
+        if (binned.length < total) {
+            binned = new int[Math.max(total, binned.length * 2)];
+        }
+        final int[] bins = binned;
+
+        // 3. Каждая часть записывает индексы своих треугольников
+        parallelFor(chunkCount, chunk -> {
+            int base = chunk * tileCount;
+            int to = Math.min(triangleCount, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < to; i++) {
+                long range = ranges[i];
+                if (range != NOT_VISIBLE) {
+                    for (int ty = rangeMinY(range), maxY = rangeMaxY(range); ty <= maxY; ty++) {
+                        for (int tx = rangeMinX(range), maxX = rangeMaxX(range); tx <= maxX; tx++) {
+                            bins[cursor[base + ty * tilesX + tx]++] = i;
+                        }
+                    }
+                }
+            }
+        });
+
+        // 4. Плитки заливаются независимо
+        final int[] starts = tileStart;
+        parallelFor(tileCount, tile -> {
+            int minX = (tile % tilesX) * tileSize;
+            int minY = (tile / tilesX) * tileSize;
+            int maxX = Math.min(width, minX + tileSize);
+            int maxY = Math.min(height, minY + tileSize);
+            for (int k = starts[tile], end = starts[tile + 1]; k < end; k++) {
+                triangles.rasterize(frameBuffer, bins[k], minX, minY, maxX, maxY);
+            }
+        });
+    }
+
+    // Плитки, которые пересекает ограничивающий прямоугольник треугольника, упакованные
+    // по 16 бит: minX, minY, maxX, maxY; NOT_VISIBLE, если треугольник не попадает в кадр
+    private long tileRange(
+            final TriangleBuffer triangles, final int index, final int width, final int height) {
+        final float[] c = triangles.coordinates;
+        final int offset = index * TriangleBuffer.STRIDE;
+        float x0 = c[offset], y0 = c[offset + 1];
+        float x1 = c[offset + 3], y1 = c[offset + 4];
+        float x2 = c[offset + 6], y2 = c[offset + 7];
+        if (!Rasterizer.inRange(x0) || !Rasterizer.inRange(y0) || !Rasterizer.inRange(x1)
+                || !Rasterizer.inRange(y1) || !Rasterizer.inRange(x2) || !Rasterizer.inRange(y2)) {
+            return NOT_VISIBLE;
+        }
+
+        // Те же границы пикселей, что обходит Rasterizer
+        long fx0 = Rasterizer.toFixed(x0), fy0 = Rasterizer.toFixed(y0);
+        long fx1 = Rasterizer.toFixed(x1), fy1 = Rasterizer.toFixed(y1);
+        long fx2 = Rasterizer.toFixed(x2), fy2 = Rasterizer.toFixed(y2);
+        int minX = Math.max(0, Rasterizer.firstPixel(Math.min(fx0, Math.min(fx1, fx2))));
+        int minY = Math.max(0, Rasterizer.firstPixel(Math.min(fy0, Math.min(fy1, fy2))));
+        int maxX = Math.min(width - 1, Rasterizer.lastPixel(Math.max(fx0, Math.max(fx1, fx2))));
+        int maxY = Math.min(height - 1, Rasterizer.lastPixel(Math.max(fy0, Math.max(fy1, fy2))));
+        if (minX > maxX || minY > maxY) {
+            return NOT_VISIBLE;
+        }
+
+        return (long) (minX >> tileShift)
+                | (long) (minY >> tileShift) << 16
+                | (long) (maxX >> tileShift) << 32
+                | (long) (maxY >> tileShift) << 48;
+    }
+
+    private static int rangeMinX(final long range) {
+        return (int) (range & 0xFFFF);
+    }
+
+    private static int rangeMinY(final long range) {
+        return (int) (range >>> 16 & 0xFFFF);
+    }
+
+    private static int rangeMaxX(final long range) {
+        return (int) (range >>> 32 & 0xFFFF);
+    }
+
+    private static int rangeMaxY(final long range) {
+        return (int) (range >>> 48);
+    }
+}
@@ -0,0 +1,76 @@
+package com.cgvsu.render_engine;
+
+/**
+ * Спроецированные треугольники кадра в порядке отрисовки: по 9 чисел на треугольник
+ * (x, y, z трёх вершин в экранных координатах) и цвет заливки.
+ */
+final class TriangleBuffer {
+
+    static final int STRIDE = 9;
+
+    float[] coordinates = new float[STRIDE * 64];
+    int[] colors = new int[64];
+    int size;
+
+    void clear() {
+        size = 0;
+    }
+
+    // Резервирует место под count треугольников и возвращает индекс первого из них
+    int reserve(final int count) {
+        int required = size + count;
+        if (colors.length < required) {
+            int capacity = Math.max(required, colors.length * 2);
+            float[] newCoordinates = new float[capacity * STRIDE];
+            System.arraycopy(coordinates, 0, newCoordinates, 0, size * STRIDE);
+            coordinates = newCoordinates;
+            int[] newColors = new int[capacity];
+            System.arraycopy(colors, 0, newColors, 0, size);
+            colors = newColors;
+        }
+        int first = size;
+        size = required;
+        return first;
+    }
+
+    void set(
+            final int index,
+            final float x0, final float y0, final float z0,
+            final float x1, final float y1, final float z1,
+            final float x2, final float y2, final float z2,
+            final int color) {
+        int offset = index * STRIDE;
+        coordinates[offset] = x0;
+        coordinates[offset + 1] = y0;
+        coordinates[offset + 2] = z0;
+        coordinates[offset + 3] = x1;
+        coordinates[offset + 4] = y1;
+        coordinates[offset + 5] = z1;
+        coordinates[offset + 6] = x2;
+        coordinates[offset + 7] = y2;
+        coordinates[offset + 8] = z2;
+        colors[index] = color;
+    }
+
+    // Заливает треугольники [from, to) по порядку, ограничиваясь прямоугольником
+    void rasterize(
+            final FrameBuffer frameBuffer, final int from, final int to,
+            final int clipMinX, final int clipMinY, final int clipMaxX, final int clipMaxY) {
+        for (int i = from; i < to; i++) {
+            rasterize(frameBuffer, i, clipMinX, clipMinY, clipMaxX, clipMaxY);
+        }
+    }
+
+    void rasterize(
+            final FrameBuffer frameBuffer, final int index,
+            final int clipMinX, final int clipMinY, final int clipMaxX, final int clipMaxY) {
+        final float[] c = coordinates;
+        final int offset = index * STRIDE;
+        Rasterizer.fillTriangle(frameBuffer,
+                c[offset], c[offset + 1], c[offset + 2],
+                c[offset + 3], c[offset + 4], c[offset + 5],
+                c[offset + 6], c[offset + 7], c[offset + 8],
+                colors[index],
+                clipMinX, clipMinY, clipMaxX, clipMaxY);
+    }
+}
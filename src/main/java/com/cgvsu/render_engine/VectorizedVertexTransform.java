@@ -0,0 +1,106 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.Matrix4f;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD-вариант GraphicConveyor.transformVertices на jdk.incubator.vector.
+ * Класс загружается только если модуль доступен (запуск с --add-modules jdk.incubator.vector),
+ * иначе используется скалярный вариант. Порядок операций совпадает со скалярным
+ * кодом, поэтому результаты побитово одинаковы.
+ */
+final class VectorizedVertexTransform {
+
+    private static final String MODULE_NAME = "jdk.incubator.vector";
+
+    private VectorizedVertexTransform() {
+    }
+
+    static boolean isSupported() {
+        if (!Boolean.parseBoolean(System.getProperty("cgvsu.vectorApi", "true"))) {
+            return false;
+        }
+        if (ModuleLayer.boot().findModule(MODULE_NAME).isEmpty()) {
+            return false;
+        }
+        try {
+            return Kernel.SPECIES.length() > 1;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    static void transform(
+            final float[] positions,
+            final int vertexCount,
+            final Matrix4f matrix,
+            final int width,
+            final int height,
+            final float[] dest) {
+        int vectorized = Kernel.transform(positions, vertexCount, matrix, width, height, dest);
+        GraphicConveyor.transformVerticesScalar(positions, vectorized, vertexCount, matrix, width, height, dest);
+    }
+
+    // Вынесено во вложенный класс, чтобы классы Vector API не загружались до проверки модуля
+    private static final class Kernel {
+
+        static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+        // Смещения x-координат соседних вершин в упакованном массиве: 0, 3, 6, ...
+        private static final int[] STRIDE_MAP = new int[SPECIES.length()];
+
+        static {
+            for (int i = 0; i < STRIDE_MAP.length; i++) {
+                STRIDE_MAP[i] = i * 3;
+            }
+        }
+
+        /**
+         * @return количество обработанных вершин (кратно числу линий), остаток обрабатывает скалярный код
+         */
+        static int transform(
+                final float[] positions,
+                final int vertexCount,
+                final Matrix4f matrix,
+                final int width,
+                final int height,
+                final float[] dest) {
+            final int lanes = SPECIES.length();
+            final int bound = vertexCount - vertexCount % lanes;
+
+            final float m00 = matrix.get(0, 0), m01 = matrix.get(0, 1), m02 = matrix.get(0, 2), m03 = matrix.get(0, 3);
+            final float m10 = matrix.get(1, 0), m11 = matrix.get(1, 1), m12 = matrix.get(1, 2), m13 = matrix.get(1, 3);
+            final float m20 = matrix.get(2, 0), m21 = matrix.get(2, 1), m22 = matrix.get(2, 2), m23 = matrix.get(2, 3);
+            final float m30 = matrix.get(3, 0), m31 = matrix.get(3, 1), m32 = matrix.get(3, 2), m33 = matrix.get(3, 3);
+            final float halfWidth = (width - 1) * 0.5f;
+            final float halfHeight = (height - 1) * 0.5f;
+            final float negHalfHeight = (1 - height) * 0.5f;
+
+            for (int v = 0; v < bound; v += lanes) {
+                final int base = v * 3;
+                FloatVector x = FloatVector.fromArray(SPECIES, positions, base, STRIDE_MAP, 0);
+                FloatVector y = FloatVector.fromArray(SPECIES, positions, base + 1, STRIDE_MAP, 0);
+                FloatVector z = FloatVector.fromArray(SPECIES, positions, base + 2, STRIDE_MAP, 0);
+
+                FloatVector resultX = x.mul(m00).add(y.mul(m01)).add(z.mul(m02)).add(m03);
+                FloatVector resultY = x.mul(m10).add(y.mul(m11)).add(z.mul(m12)).add(m13);
+                FloatVector resultZ = x.mul(m20).add(y.mul(m21)).add(z.mul(m22)).add(m23);
+                FloatVector resultW = x.mul(m30).add(y.mul(m31)).add(z.mul(m32)).add(m33);
+
+                // деление через blend: в JDK 17 маскированные операции не интринсифицированы
+                VectorMask<Float> divide = resultW.abs().compare(VectorOperators.GE, GraphicConveyor.W_EPSILON);
+                resultX = resultX.blend(resultX.div(resultW), divide);
+                resultY = resultY.blend(resultY.div(resultW), divide);
+                resultZ = resultZ.blend(resultZ.div(resultW), divide);
+
+                resultX.mul(halfWidth).add(halfWidth).intoArray(dest, base, STRIDE_MAP, 0);
+                resultY.mul(negHalfHeight).add(halfHeight).intoArray(dest, base + 1, STRIDE_MAP, 0);
+                resultZ.intoArray(dest, base + 2, STRIDE_MAP, 0);
+            }
+            return bound;
+        }
+    }
+}
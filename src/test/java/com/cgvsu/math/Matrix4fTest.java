@@ -0,0 +1,194 @@
+package com.cgvsu.math;
+
+import com.cgvsu.exceptions.MathException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Matrix4fTest {
+
+    private static final float EPS = 1e-5f;
+
+    private static Matrix4f sequential(float start) {
+        float[][] d = new float[4][4];
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                d[i][j] = start + i * 4 + j;
+            }
+        }
+        return new Matrix4f(d);
+    }
+
+    private static Matrix4f naiveMultiply(Matrix4f a, Matrix4f b) {
+        float[][] r = new float[4][4];
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                for (int k = 0; k < 4; k++) {
+                    r[i][j] += a.get(i, k) * b.get(k, j);
+                }
+            }
+        }
+        return new Matrix4f(r);
+    }
+
+    @Test
+    void testConstructorFromJaggedArray() {
+        Matrix4f m = sequential(1);
+
+        assertEquals(1, m.get(0, 0), EPS);
+        assertEquals(4, m.get(0, 3), EPS);
+        assertEquals(13, m.get(3, 0), EPS);
+        assertEquals(16, m.get(3, 3), EPS);
+    }
+
+    @Test
+    void testConstructorRejectsWrongSize() {
+        assertThrows(MathException.class, () -> new Matrix4f(new float[3][3]));
+        assertThrows(MathException.class, () -> new Matrix4f(new float[9]));
+    }
+
+    @Test
+    void testMultiplyMatchesNaive() {
+        Matrix4f a = sequential(1);
+        Matrix4f b = sequential(-7);
+
+        assertEquals(naiveMultiply(a, b), a.multiply(b));
+    }
+
+    @Test
+    void testMulIntoAliasing() {
+        Matrix4f a = sequential(1);
+        Matrix4f b = sequential(-7);
+        Matrix4f expected = naiveMultiply(a, b);
+
+        Matrix4f left = new Matrix4f(a);
+        Matrix4f.mulInto(left, b, left);
+        assertEquals(expected, left);
+
+        Matrix4f right = new Matrix4f(b);
+        Matrix4f.mulInto(a, right, right);
+        assertEquals(expected, right);
+    }
+
+    @Test
+    void testTripleMulIntoAliasing() {
+        Matrix4f a = sequential(1);
+        Matrix4f b = sequential(-7);
+        Matrix4f c = sequential(0.5f);
+        Matrix4f expected = naiveMultiply(naiveMultiply(a, b), c);
+
+        Matrix4f dest = new Matrix4f();
+        assertEquals(expected, Matrix4f.mulInto(a, b, c, dest));
+
+        Matrix4f aliasC = new Matrix4f(c);
+        Matrix4f.mulInto(a, b, aliasC, aliasC);
+        assertEquals(expected, aliasC);
+    }
+
+    @Test
+    void testTransposeInPlace() {
+        Matrix4f m = sequential(1);
+        Matrix4f expected = m.transpose();
+
+        m.transposeInto(m);
+
+        assertEquals(expected, m);
+        assertEquals(5, m.get(0, 1), EPS);
+        assertEquals(2, m.get(1, 0), EPS);
+    }
+
+    @Test
+    void testMultiplyVector() {
+        Matrix4f m = sequential(1);
+        Vector4f r = m.multiply(new Vector4f(1, 0, 0, 1));
+
+        assertEquals(1 + 4, r.getX(), EPS);
+        assertEquals(5 + 8, r.getY(), EPS);
+        assertEquals(9 + 12, r.getZ(), EPS);
+        assertEquals(13 + 16, r.getW(), EPS);
+    }
+
+    private static void assertIdentity(Matrix4f m) {
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(i == j ? 1 : 0, m.get(i, j), 1e-4f, "element " + i + "," + j);
+            }
+        }
+    }
+
+    private static Matrix4f affine() {
+        return new Matrix4f(new float[][]{
+                {2, 0.5f, -1, 3},
+                {0.25f, 1.5f, 0, -2},
+                {1, -0.5f, 3, 7},
+                {0, 0, 0, 1}
+        });
+    }
+
+    @Test
+    void testInvertGeneral() {
+        Matrix4f m = new Matrix4f(new float[][]{
+                {4, 7, 2, 3},
+                {0, 5, 0, 1},
+                {1, 0, 6, 2},
+                {3, 1, 0, 8}
+        });
+
+        assertIdentity(m.multiply(m.invert()));
+        assertIdentity(m.invert().multiply(m));
+
+        Matrix4f inPlace = new Matrix4f(m);
+        inPlace.invertInto(inPlace);
+        assertEquals(m.invert(), inPlace);
+    }
+
+    @Test
+    void testInvertSingularThrows() {
+        assertThrows(MathException.class, () -> sequential(1).invert());
+    }
+
+    @Test
+    void testInvertAffineMatchesGeneral() {
+        Matrix4f m = affine();
+        Matrix4f fast = m.invertAffine();
+        Matrix4f general = m.invert();
+
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(general.get(i, j), fast.get(i, j), EPS);
+            }
+        }
+        assertIdentity(m.multiply(fast));
+    }
+
+    @Test
+    void testNormalMatrixIsInverseTranspose() {
+        Matrix4f m = affine();
+        Matrix4f expected = m.invert().transpose();
+
+        Matrix3f normal = m.normalMatrix(new Matrix3f());
+
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(expected.get(i, j), normal.get(i, j), EPS);
+            }
+        }
+    }
+
+    @Test
+    void testMatrix3Invert() {
+        Matrix3f m = new Matrix3f(new float[][]{
+                {2, 0.5f, -1},
+                {0.25f, 1.5f, 0},
+                {1, -0.5f, 3}
+        });
+
+        Matrix3f product = m.multiply(m.invert());
+
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(i == j ? 1 : 0, product.get(i, j), 1e-5f);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.cgvsu.math;
+
+import com.cgvsu.model.ModelTransform;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuaternionfTest {
+
+    private static final float EPS = 1e-5f;
+
+    private static void assertMatrixEquals(Matrix4f expected, Matrix4f actual) {
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(expected.get(i, j), actual.get(i, j), EPS, "element " + i + "," + j);
+            }
+        }
+    }
+
+    private static Matrix4f eulerMatrix(float rx, float ry, float rz) {
+        return ModelTransform.compose(
+                new Vector3f(0, 0, 0), new Vector3f(rx, ry, rz), new Vector3f(1, 1, 1), new Matrix4f());
+    }
+
+    @Test
+    void testFromEulerMatchesEulerMatrix() {
+        Quaternionf q = Quaternionf.fromEuler(0.3f, -1.1f, 2.0f);
+
+        assertMatrixEquals(eulerMatrix(0.3f, -1.1f, 2.0f), q.toRotationMatrix(new Matrix4f()));
+    }
+
+    @Test
+    void testMultiplyMatchesMatrixProduct() {
+        Quaternionf a = Quaternionf.fromAxisAngle(new Vector3f(1, 2, 3), 0.7f);
+        Quaternionf b = Quaternionf.fromAxisAngle(new Vector3f(-1, 0, 1), 1.9f);
+
+        Matrix4f expected = a.toRotationMatrix(new Matrix4f()).multiply(b.toRotationMatrix(new Matrix4f()));
+
+        assertMatrixEquals(expected, a.multiply(b).toRotationMatrix(new Matrix4f()));
+    }
+
+    @Test
+    void testToEulerRoundTrip() {
+        Vector3f euler = Quaternionf.fromEuler(0.4f, 0.2f, -2.5f).toEuler(new Vector3f());
+
+        assertEquals(0.4f, euler.getX(), EPS);
+        assertEquals(0.2f, euler.getY(), EPS);
+        assertEquals(-2.5f, euler.getZ(), EPS);
+    }
+
+    @Test
+    void testSlerp() {
+        Vector3f axis = new Vector3f(0, 1, 0);
+        Quaternionf a = Quaternionf.fromAxisAngle(axis, 0);
+        Quaternionf b = Quaternionf.fromAxisAngle(axis, 2);
+
+        assertEquals(a, a.slerp(b, 0));
+        Quaternionf end = a.slerp(b, 1);
+        assertEquals(b.getY(), end.getY(), EPS);
+        assertEquals(b.getW(), end.getW(), EPS);
+
+        Quaternionf middle = a.slerp(b, 0.5f);
+        Quaternionf expected = Quaternionf.fromAxisAngle(axis, 1);
+        assertEquals(expected.getY(), middle.getY(), EPS);
+        assertEquals(expected.getW(), middle.getW(), EPS);
+        assertEquals(1, middle.length(), EPS);
+    }
+}
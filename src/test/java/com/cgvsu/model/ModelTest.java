@@ -0,0 +1,59 @@
+package com.cgvsu.model;
+
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.removers.VertexRemover;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelTest {
+
+    private static final float EPS = 1e-5f;
+
+    private static Model createModel() {
+        Model model = new Model();
+        model.vertices.add(new Vector3f(-1, 0, 2));
+        model.vertices.add(new Vector3f(3, -2, 2));
+        model.vertices.add(new Vector3f(1, 4, 0));
+        model.vertices.add(new Vector3f(10, 10, 10));
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(new ArrayList<>(List.of(0, 1, 2)));
+        model.polygons.add(polygon);
+        Polygon far = new Polygon();
+        far.setVertexIndices(new ArrayList<>(List.of(1, 2, 3)));
+        model.polygons.add(far);
+        return model;
+    }
+
+    @Test
+    void testBoundingVolumes() {
+        Model model = createModel();
+
+        assertEquals(new Vector3f(-1, -2, 0), model.getBoundsMin());
+        assertEquals(new Vector3f(10, 10, 10), model.getBoundsMax());
+        assertEquals(new Vector3f(4.5f, 4, 5), model.getBoundingSphereCenter());
+        for (Vector3f v : model.vertices) {
+            assertTrue(v.subtract(model.getBoundingSphereCenter()).length() <= model.getBoundingSphereRadius());
+        }
+    }
+
+    @Test
+    void testBoundsUpdatedAfterRemoval() {
+        Model model = createModel();
+        assertEquals(10, model.getBoundsMax().getX(), EPS);
+
+        VertexRemover.deleteVertices(model, Set.of(3), true);
+
+        assertEquals(new Vector3f(3, 4, 2), model.getBoundsMax());
+        assertEquals(new Vector3f(-1, -2, 0), model.getBoundsMin());
+    }
+
+    @Test
+    void testEmptyModelHasNoBoundingSphere() {
+        assertTrue(new Model().getBoundingSphereRadius() < 0);
+    }
+}
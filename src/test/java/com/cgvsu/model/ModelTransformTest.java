@@ -0,0 +1,105 @@
+package com.cgvsu.model;
+
+import com.cgvsu.math.Matrix4f;
+import com.cgvsu.math.Quaternionf;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.render_engine.GraphicConveyor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelTransformTest {
+
+    private static final float EPS = 1e-5f;
+
+    @Test
+    void testClosedFormMatchesMatrixProduct() {
+        Vector3f t = new Vector3f(1, -2, 3);
+        Vector3f r = new Vector3f(0.3f, -1.2f, 2.5f);
+        Vector3f s = new Vector3f(2, 0.5f, 3);
+
+        Matrix4f expected = GraphicConveyor.translate(t.getX(), t.getY(), t.getZ())
+                .multiply(GraphicConveyor.rotateX(r.getX()))
+                .multiply(GraphicConveyor.rotateY(r.getY()))
+                .multiply(GraphicConveyor.rotateZ(r.getZ()))
+                .multiply(GraphicConveyor.scale(s.getX(), s.getY(), s.getZ()));
+        Matrix4f actual = ModelTransform.compose(t, r, s, new Matrix4f());
+
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(expected.get(i, j), actual.get(i, j), EPS);
+            }
+        }
+    }
+
+    @Test
+    void testMatrixIsCachedUntilTransformChanges() {
+        ModelTransform transform = new ModelTransform();
+        Matrix4f first = transform.getModelMatrix();
+        long version = transform.getVersion();
+
+        assertSame(first, transform.getModelMatrix());
+        assertEquals(version, transform.getVersion());
+
+        // изменение компоненты вектора напрямую, как это делают поля ввода
+        transform.getTranslation().setX(5);
+
+        assertTrue(transform.getVersion() > version);
+        assertEquals(5, transform.getModelMatrix().get(0, 3), EPS);
+    }
+
+    @Test
+    void testSettersBumpVersion() {
+        ModelTransform transform = new ModelTransform();
+        long version = transform.getVersion();
+
+        transform.setScale(new Vector3f(2, 2, 2));
+
+        assertTrue(transform.getVersion() > version);
+        assertEquals(2, transform.getModelMatrix().get(1, 1), EPS);
+    }
+
+    @Test
+    void testOrientationMode() {
+        ModelTransform transform = new ModelTransform();
+        transform.getTranslation().setX(4);
+        transform.setOrientation(Quaternionf.fromEuler(0.5f, 0.25f, -0.75f));
+
+        Matrix4f expected = ModelTransform.compose(
+                new Vector3f(4, 0, 0), new Vector3f(0.5f, 0.25f, -0.75f), new Vector3f(1, 1, 1), new Matrix4f());
+        assertMatrixEquals(expected, transform.getModelMatrix());
+
+        // углы Эйлера для полей GUI восстанавливаются из кватерниона
+        assertEquals(0.5f, transform.getRotation().getX(), EPS);
+        assertEquals(-0.75f, transform.getRotation().getZ(), EPS);
+        assertTrue(transform.isOrientationMode());
+
+        // правка угла возвращает режим углов Эйлера
+        transform.getRotation().setX(0);
+        assertMatrixEquals(ModelTransform.compose(
+                new Vector3f(4, 0, 0), new Vector3f(0, 0.25f, -0.75f), new Vector3f(1, 1, 1), new Matrix4f()),
+                transform.getModelMatrix());
+        assertFalse(transform.isOrientationMode());
+    }
+
+    @Test
+    void testIncrementalRotation() {
+        ModelTransform transform = new ModelTransform();
+        Quaternionf step = Quaternionf.fromAxisAngle(new Vector3f(0, 0, 1), 0.1f);
+        for (int i = 0; i < 10; i++) {
+            transform.rotate(step);
+        }
+
+        assertMatrixEquals(ModelTransform.compose(
+                new Vector3f(0, 0, 0), new Vector3f(0, 0, 1), new Vector3f(1, 1, 1), new Matrix4f()),
+                transform.getModelMatrix());
+    }
+
+    private static void assertMatrixEquals(Matrix4f expected, Matrix4f actual) {
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(expected.get(i, j), actual.get(i, j), EPS, "element " + i + "," + j);
+            }
+        }
+    }
+}
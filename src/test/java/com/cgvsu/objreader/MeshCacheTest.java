@@ -0,0 +1,147 @@
+package com.cgvsu.objreader;
+
+import com.cgvsu.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeshCacheTest {
+
+    private static final String MODEL = String.join("\n",
+            "v 0 0 0", "v 1 0 0", "v 1 1 0", "v 0 1 0.5",
+            "vt 0 0", "vt 1 0", "vt 1 1",
+            "vn 0 0 -1",
+            "f 1/1/1 2/2/1 3/3/1 4/1/1",
+            "f -4 -3 -2",
+            "f 1//1 2//1 4//1") + "\n";
+
+    private static void assertSameModel(Model expected, Model actual) {
+        assertEquals(expected.vertices, actual.vertices);
+        assertEquals(expected.textureVertices, actual.textureVertices);
+        assertEquals(expected.normals, actual.normals);
+        assertEquals(expected.polygons.size(), actual.polygons.size());
+        for (int i = 0; i < expected.polygons.size(); i++) {
+            assertEquals(expected.polygons.get(i).getVertexIndices(), actual.polygons.get(i).getVertexIndices());
+            assertEquals(expected.polygons.get(i).getTextureVertexIndices(),
+                    actual.polygons.get(i).getTextureVertexIndices());
+            assertEquals(expected.polygons.get(i).getNormalIndices(), actual.polygons.get(i).getNormalIndices());
+        }
+    }
+
+    @Test
+    void testCacheIsWrittenAndLoaded(@TempDir Path directory) throws IOException {
+        Path obj = directory.resolve("model.obj");
+        Files.writeString(obj, MODEL);
+        Path cache = MeshCache.cacheFile(obj);
+        Model expected = ObjReader.read(MODEL);
+
+        assertNull(MeshCache.load(obj, cache));
+        assertSameModel(expected, MeshCache.read(obj));
+        assertTrue(Files.exists(cache));
+
+        Model cached = MeshCache.load(obj, cache);
+        assertNotNull(cached);
+        assertSameModel(expected, cached);
+        assertSameModel(expected, MeshCache.read(obj));
+    }
+
+    @Test
+    void testCacheIsLoadedInRegions(@TempDir Path directory) throws IOException {
+        Path obj = directory.resolve("model.obj");
+        Files.writeString(obj, MODEL);
+        Path cache = MeshCache.cacheFile(obj);
+        MeshCache.read(obj);
+
+        // Участки меньше заголовка: каждый раздел файла пересекает границы участков
+        Model expected = ObjReader.read(MODEL);
+        for (int regionSize : new int[]{8, 16, 64, 1 << 30}) {
+            Model cached = MeshCache.load(obj, cache, regionSize);
+            assertNotNull(cached, "region " + regionSize);
+            assertSameModel(expected, cached);
+        }
+    }
+
+    @Test
+    void testStaleCacheIsRebuilt(@TempDir Path directory) throws IOException {
+        Path obj = directory.resolve("model.obj");
+        Files.writeString(obj, MODEL);
+        Path cache = MeshCache.cacheFile(obj);
+        MeshCache.read(obj);
+
+        // Тот же размер и время изменения, другое содержимое
+        FileTime modified = Files.getLastModifiedTime(obj);
+        String changed = MODEL.replace("v 0 1 0.5", "v 0 1 0.7");
+        Files.writeString(obj, changed);
+        Files.setLastModifiedTime(obj, modified);
+        assertNull(MeshCache.load(obj, cache));
+        assertSameModel(ObjReader.read(changed), MeshCache.read(obj));
+        assertNotNull(MeshCache.load(obj, cache));
+
+        // Кэш, скопированный к другому файлу, не подходит
+        Path copy = directory.resolve("copy.obj");
+        Files.copy(obj, copy);
+        Files.setLastModifiedTime(copy, Files.getLastModifiedTime(obj));
+        assertNull(MeshCache.load(copy, cache));
+    }
+
+    @Test
+    void testChangeAnywhereInLargeFileMakesCacheStale(@TempDir Path directory) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 30000; i++) {
+            text.append("v ").append(i).append(" 0 0\n");
+        }
+        text.append("f 1 2 3\n");
+        String source = text.toString();
+        Path obj = directory.resolve("large.obj");
+        Files.writeString(obj, source);
+        Path cache = MeshCache.cacheFile(obj);
+        MeshCache.read(obj);
+
+        // Изменение в четверти файла - далеко от начала, середины и конца
+        FileTime modified = Files.getLastModifiedTime(obj);
+        int position = source.indexOf("v 7500 0 0\n");
+        String changed = source.substring(0, position) + "v 7500 1 0\n"
+                + source.substring(position + "v 7500 0 0\n".length());
+        Files.writeString(obj, changed);
+        Files.setLastModifiedTime(obj, modified);
+        assertNull(MeshCache.load(obj, cache));
+        assertSameModel(ObjReader.read(changed), MeshCache.read(obj));
+    }
+
+    @Test
+    void testCorruptCacheIsRebuilt(@TempDir Path directory) throws IOException {
+        Path obj = directory.resolve("model.obj");
+        Files.writeString(obj, MODEL);
+        Path cache = MeshCache.cacheFile(obj);
+        Model expected = ObjReader.read(MODEL);
+        MeshCache.read(obj);
+        byte[] valid = Files.readAllBytes(cache);
+
+        for (int i = 0; i < valid.length; i += 7) {
+            byte[] corrupt = valid.clone();
+            corrupt[i] ^= 0x10;
+            Files.write(cache, corrupt);
+            assertNull(MeshCache.load(obj, cache), "byte " + i);
+        }
+        Files.write(cache, Arrays.copyOf(valid, valid.length - 4));
+        assertNull(MeshCache.load(obj, cache));
+
+        assertSameModel(expected, MeshCache.read(obj));
+        assertArrayEquals(valid, Files.readAllBytes(cache));
+    }
+
+    @Test
+    void testParseErrorWritesNoCache(@TempDir Path directory) throws IOException {
+        Path obj = directory.resolve("broken.obj");
+        Files.writeString(obj, "v 0 0 0\nf 1 2 3\n");
+        assertThrows(ObjReaderException.class, () -> MeshCache.read(obj));
+        assertFalse(Files.exists(MeshCache.cacheFile(obj)));
+    }
+}
@@ -0,0 +1,263 @@
+package com.cgvsu.objreader;
+
+import com.cgvsu.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjReaderTest {
+
+    private static final String CUBE = String.join("\n",
+            "# cube",
+            "v 0 0 0", "v 1 0 0", "v 1 1 0", "v 0 1 0",
+            "v 0 0 1", "v 1 0 1", "v 1 1 1", "v 0 1 1",
+            "vt 0 0", "vt 1 0", "vt 1 1",
+            "vn 0 0 -1",
+            "",
+            "f 1/1/1 2/2/1 3/3/1 4/1/1",
+            "f -4 -3 -2 -1",
+            "f 1 2 6 5") + "\n";
+
+    private static Model readStream(String content) throws IOException {
+        return ObjReader.read(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void assertSameModel(Model expected, Model actual) {
+        assertEquals(expected.vertices, actual.vertices);
+        assertEquals(expected.textureVertices, actual.textureVertices);
+        assertEquals(expected.normals, actual.normals);
+        assertEquals(expected.polygons.size(), actual.polygons.size());
+        for (int i = 0; i < expected.polygons.size(); i++) {
+            assertEquals(expected.polygons.get(i).getVertexIndices(), actual.polygons.get(i).getVertexIndices());
+            assertEquals(expected.polygons.get(i).getTextureVertexIndices(),
+                    actual.polygons.get(i).getTextureVertexIndices());
+            assertEquals(expected.polygons.get(i).getNormalIndices(), actual.polygons.get(i).getNormalIndices());
+        }
+    }
+
+    private static int errorLine(String content) {
+        return assertThrows(ObjReaderException.class, () -> readStream(content)).getLineInd();
+    }
+
+    @Test
+    void testStreamMatchesString() throws IOException {
+        Model expected = ObjReader.read(CUBE);
+        assertEquals(8, expected.vertices.size());
+        assertEquals(3, expected.polygons.size());
+        assertEquals(List.of(4, 5, 6, 7), expected.polygons.get(1).getVertexIndices());
+
+        assertSameModel(expected, readStream(CUBE));
+        assertSameModel(expected, readStream(CUBE.replace("\n", "\r\n")));
+        assertSameModel(expected, readStream(CUBE.replace("\n", "\r")));
+        assertSameModel(expected, readStream(CUBE.trim()));
+    }
+
+    @Test
+    void testErrorLineNumbers() {
+        String content = "v 0 0 0\r\nv 1 0 0\r\n\r\nv 1 1\r\nf 1 2 3\r\n";
+        ObjReaderException fromString = assertThrows(ObjReaderException.class, () -> ObjReader.read(content));
+        assertEquals(4, fromString.getLineInd());
+        assertEquals(4, errorLine(content));
+        assertEquals(4, errorLine(content.replace("\r\n", "\r")));
+
+        assertEquals(4, errorLine("v 0 0 0\nv 1 0 0\nv 1 1 0\nf 1 2 4\n"));
+        assertEquals(4, errorLine("v 0 0 0\nv 1 0 0\nv 1 1 0\nf 1/1 2 3\n"));
+        assertEquals(-1, errorLine("v 0 0 0\n"));
+    }
+
+    @Test
+    void testLinesLongerThanBuffer() throws IOException {
+        StringBuilder content = new StringBuilder();
+        content.append("# ").append("x".repeat(200_000)).append('\n');
+        for (int i = 0; i < 20_000; i++) {
+            content.append("v ").append(i).append(" 0.5 -1e-3\n");
+        }
+        StringBuilder face = new StringBuilder("f");
+        for (int i = 1; i <= 20_000; i++) {
+            face.append(' ').append(i);
+        }
+        content.append(face).append('\n');
+
+        Model model = readStream(content.toString());
+        assertEquals(20_000, model.vertices.size());
+        assertEquals(20_000, model.polygons.get(0).getVertexIndices().size());
+        assertSameModel(ObjReader.read(content.toString()), model);
+    }
+
+    @Test
+    void testFloatParsingMatchesFloatParseFloat() {
+        List<String> values = new ArrayList<>(List.of(
+                "0", "-0", "+1", "1.", ".5", "-.5", "0.1", "1e10", "1E-10", "1.e5", "3.4028235e38", "3.4028236e38",
+                "1e39", "1.4e-45", "1e-46", "1.17549435E-38", "123.456789", "16777217", "0.30000001192092896",
+                "1.00000000000000000000001", "NaN", "-Infinity", "0x1p3", "1.5f", "2d",
+                "00000.000100", "9007199254740993", "1e22", "1e23", "4.9e-324"));
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder value = new StringBuilder();
+            if (random.nextBoolean()) {
+                value.append('-');
+            }
+            value.append(random.nextInt(1000));
+            value.append('.');
+            int fractionDigits = random.nextInt(12);
+            for (int d = 0; d < fractionDigits; d++) {
+                value.append(random.nextInt(10));
+            }
+            if (random.nextInt(4) == 0) {
+                value.append('e').append(random.nextInt(80) - 40);
+            }
+            values.add(value.toString());
+        }
+        for (int i = 0; i < 100_000; i++) {
+            values.add(Float.toString(Float.intBitsToFloat(random.nextInt())));
+        }
+
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            float expected = Float.parseFloat(value);
+            float actual = ObjTokenizer.parseFloat(bytes, 0, bytes.length, 1);
+            assertEquals(Float.floatToIntBits(expected), Float.floatToIntBits(actual), value);
+        }
+
+        for (String invalid : List.of("", "-", ".", "e5", "1e", "1.2.3", "1,5", "abc", "--1")) {
+            byte[] bytes = invalid.getBytes(StandardCharsets.UTF_8);
+            ObjReaderException exception = assertThrows(ObjReaderException.class,
+                    () -> ObjTokenizer.parseFloat(bytes, 0, bytes.length, 3), invalid);
+            assertEquals(3, exception.getLineInd());
+        }
+    }
+
+    @Test
+    void testIntParsingMatchesIntegerParseInt() {
+        for (String value : List.of("1", "+7", "-3", "2147483647", "-2147483648", "0042", "\u0661\u0662")) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            assertEquals(Integer.parseInt(value), ObjTokenizer.parseInt(bytes, 0, bytes.length, 1), value);
+        }
+        for (String invalid : List.of("", "+", "-", "2147483648", "-2147483649", "99999999999999999999", "1a", "1.0")) {
+            byte[] bytes = invalid.getBytes(StandardCharsets.UTF_8);
+            assertThrows(ObjReaderException.class, () -> ObjTokenizer.parseInt(bytes, 0, bytes.length, 1), invalid);
+        }
+    }
+
+    @Test
+    void testFaceValidation() {
+        String vertices = "v 0 0 0\nv 1 0 0\nv 1 1 0\nvt 0 0\nvn 0 0 1\n";
+        assertEquals("Error parsing OBJ file on line 6: OBJ indices start from 1.",
+                assertThrows(ObjReaderException.class, () -> ObjReader.read(vertices + "f 0 1 2\n")).getMessage());
+        assertEquals("Error parsing OBJ file on line 6: Index out of bounds.",
+                assertThrows(ObjReaderException.class, () -> ObjReader.read(vertices + "f 1 2 -4\n")).getMessage());
+        assertEquals("Error parsing OBJ file on line 6: Invalid index value.",
+                assertThrows(ObjReaderException.class, () -> ObjReader.read(vertices + "f 1 2 x\n")).getMessage());
+        assertEquals("Error parsing OBJ file on line 6: Polygon has incomplete texture coordinates.",
+                assertThrows(ObjReaderException.class, () -> ObjReader.read(vertices + "f 1/1 2 3\n")).getMessage());
+        assertEquals("Error parsing OBJ file on line 6: Polygon has incomplete normals.",
+                assertThrows(ObjReaderException.class, () -> ObjReader.read(vertices + "f 1//1 2//1 3\n")).getMessage());
+        assertEquals("Error parsing OBJ file on line 6: Polygon must have at least 3 vertices.",
+                assertThrows(ObjReaderException.class, () -> ObjReader.read(vertices + "f 1 2\n")).getMessage());
+
+        Model model = ObjReader.read(vertices + "\tf  1/1/1\t2/1/1   -1/-1/-1/7 \n");
+        assertEquals(List.of(0, 1, 2), model.polygons.get(0).getVertexIndices());
+        assertEquals(List.of(0, 0, 0), model.polygons.get(0).getTextureVertexIndices());
+        assertEquals(List.of(0, 0, 0), model.polygons.get(0).getNormalIndices());
+    }
+
+    @Test
+    void testReadPath(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("cube.obj");
+        Files.writeString(file, CUBE);
+        assertSameModel(ObjReader.read(CUBE), ObjReader.read(file));
+    }
+
+    // Вершины вперемешку с гранями: отрицательные индексы граней зависят от предыдущих участков
+    private static String randomObj(Random random, int faces) {
+        StringBuilder content = new StringBuilder("# random\n");
+        int vertices = 0;
+        int textureVertices = 0;
+        int normals = 0;
+        for (int face = 0; face < faces; face++) {
+            for (int i = random.nextInt(4); i > 0 || vertices < 3; i--) {
+                content.append("v ").append(random.nextFloat()).append(' ').append(-random.nextFloat())
+                        .append(' ').append(random.nextInt(100)).append('\n');
+                content.append("vt ").append(random.nextFloat()).append(' ').append(random.nextFloat()).append('\n');
+                content.append("vn 0 ").append(random.nextFloat()).append(" 1\r\n");
+                vertices++;
+                textureVertices++;
+                normals++;
+            }
+            content.append(face % 2 == 0 ? "f" : "\tf ");
+            for (int corner = 0; corner < 3 + random.nextInt(3); corner++) {
+                int v = random.nextInt(vertices);
+                content.append(' ').append(random.nextBoolean() ? v + 1 : v - vertices);
+                if (face % 3 != 0) {
+                    content.append('/').append(random.nextInt(textureVertices) + 1)
+                            .append('/').append(-1 - random.nextInt(normals));
+                }
+            }
+            content.append(face % 5 == 0 ? "\r\n" : "\n");
+        }
+        return content.toString();
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        String content = randomObj(new Random(3), 3_000);
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        Model expected = ObjReader.read(content);
+        for (int chunkCount : new int[] {1, 2, 3, 7, 64, 1_000}) {
+            assertSameModel(expected, ObjReader.readParallel(bytes, chunkCount));
+        }
+        assertSameModel(expected, ObjReader.readParallel(bytes));
+    }
+
+    @Test
+    void testParallelErrorsMatchSequential() {
+        String valid = randomObj(new Random(4), 1_000);
+        String[] lines = valid.split("\n", -1);
+        String[] errors = {"v 1 2", "f 1 2 x", "f 0 1 2", "f 1 2 -100000", "f 1 2 100000", "f 1/1 2 3", "vt 0.5 abc"};
+        Random random = new Random(5);
+        for (String error : errors) {
+            for (int attempt = 0; attempt < 5; attempt++) {
+                String[] broken = lines.clone();
+                broken[1 + random.nextInt(lines.length - 2)] = error;
+                String content = String.join("\n", broken);
+                String expected = assertThrows(ObjReaderException.class, () -> ObjReader.read(content)).getMessage();
+                byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+                assertEquals(expected, assertThrows(ObjReaderException.class,
+                        () -> ObjReader.readParallel(bytes, 16)).getMessage());
+            }
+        }
+        assertEquals("Error parsing OBJ file: Model has no polygons.", assertThrows(ObjReaderException.class,
+                () -> ObjReader.readParallel("v 0 0 0\nv 1 0 0\n".repeat(1_000).getBytes(StandardCharsets.UTF_8), 8))
+                .getMessage());
+    }
+
+    @Test
+    void testMappedMatchesSequential(@TempDir Path directory) throws IOException {
+        String content = randomObj(new Random(6), 3_000);
+        Path file = directory.resolve("random.obj");
+        Files.writeString(file, content);
+        Model expected = ObjReader.read(content);
+        for (long chunkSize : new long[] {1, 1_000, 100_000, Long.MAX_VALUE}) {
+            assertSameModel(expected, ObjReader.readParallel(file, chunkSize));
+        }
+        assertSameModel(expected, ObjReader.readParallel(file));
+
+        Files.writeString(file, content.replace("f 1", "f 0"));
+        ObjReaderException error = assertThrows(ObjReaderException.class, () -> ObjReader.readParallel(file, 1_000));
+        assertEquals(assertThrows(ObjReaderException.class, () -> ObjReader.read(file)).getMessage(), error.getMessage());
+
+        Files.writeString(file, "");
+        assertEquals("Error parsing OBJ file: Model has no vertices.",
+                assertThrows(ObjReaderException.class, () -> ObjReader.readParallel(file)).getMessage());
+    }
+}
@@ -0,0 +1,55 @@
+package com.cgvsu.removers;
+
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolygonRemoverTest {
+
+    // Два треугольника без общих вершин
+    private static Model createModel() {
+        Model model = new Model();
+        for (int i = 0; i < 6; i++) {
+            model.vertices.add(new Vector3f(i, i * i, 0));
+        }
+        for (int first = 0; first < 6; first += 3) {
+            Polygon polygon = new Polygon();
+            polygon.setVertexIndices(new ArrayList<>(List.of(first, first + 1, first + 2)));
+            model.polygons.add(polygon);
+        }
+        return model;
+    }
+
+    @Test
+    void testRemapReplacesPolygonsInsteadOfMutating() {
+        Model model = createModel();
+        Polygon second = model.polygons.get(1);
+
+        PolygonRemover.deletePolygons(model, Set.of(0), true);
+
+        assertEquals(3, model.vertices.size());
+        assertEquals(List.of(0, 1, 2), model.polygons.get(0).getVertexIndices());
+        assertNotSame(second, model.polygons.get(0));
+        // Прежний полигон мог попасть в снимок для отрисовки и остаётся прежним
+        assertEquals(List.of(3, 4, 5), second.getVertexIndices());
+    }
+
+    @Test
+    void testVertexRemoverReplacesPolygonsInsteadOfMutating() {
+        Model model = createModel();
+        Polygon second = model.polygons.get(1);
+
+        VertexRemover.deleteVertices(model, Set.of(1), true);
+
+        assertEquals(List.of(0, 1, 2), model.polygons.get(0).getVertexIndices());
+        assertEquals(new Vector3f(3, 9, 0), model.vertices.get(0));
+        assertEquals(List.of(3, 4, 5), second.getVertexIndices());
+    }
+}
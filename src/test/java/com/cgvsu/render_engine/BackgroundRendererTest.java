@@ -0,0 +1,149 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackgroundRendererTest {
+
+    private static final int BACKGROUND = 0xFFFFFFFF;
+    private static final int LINE = 0xFF000000;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    // Ждёт кадр по единственному запросу
+    private static BackgroundRenderer.Frame awaitFrame(BackgroundRenderer renderer) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        BackgroundRenderer.Frame frame = renderer.pollFrame();
+        while (frame == null && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+            frame = renderer.pollFrame();
+        }
+        assertNotNull(frame, "no frame rendered");
+        return frame;
+    }
+
+    @Test
+    void testFrameMatchesDirectRendering() throws InterruptedException {
+        Camera camera = new Camera(new Vector3f(0, 0, 10), new Vector3f(0, 0, 0), 1, 1, 0.1f, 100);
+        Model model = createQuad();
+        model.getTransform().getRotation().setZ(0.3f);
+
+        BackgroundRenderer renderer = new BackgroundRenderer(BACKGROUND, LINE, new TileRasterizer(16, pool));
+        renderer.requestFrame(camera, List.of(model), RenderMode.SOLID, false, false, false, false, false, 64, 64);
+        BackgroundRenderer.Frame frame = awaitFrame(renderer);
+
+        // Копия с тем же преобразованием, чтобы не делить кэши RenderEngine с фоновым потоком
+        Model expectedModel = createQuad();
+        expectedModel.getTransform().getRotation().setZ(0.3f);
+        FrameBuffer expected = new FrameBuffer(64, 64);
+        expected.clear(BACKGROUND);
+        RenderEngine.renderSolid(expected, camera, expectedModel);
+
+        assertEquals(RenderMode.SOLID, frame.getMode());
+        assertNotEquals(BACKGROUND, frame.getFrameBuffer().getPixels()[32 * 64 + 32]);
+        assertArrayEquals(expected.getPixels(), frame.getFrameBuffer().getPixels());
+        renderer.releaseFrame(frame);
+    }
+
+    @Test
+    void testSnapshotIsIndependentOfLaterChanges() throws InterruptedException {
+        Camera camera = new Camera(new Vector3f(0, 0, 10), new Vector3f(0, 0, 0), 1, 1, 0.1f, 100);
+        Model model = createQuad();
+
+        BackgroundRenderer renderer = new BackgroundRenderer(BACKGROUND, LINE, new TileRasterizer(16, pool));
+        renderer.requestFrame(camera, List.of(model), RenderMode.WIREFRAME_RASTER, false, false, false, false, false, 64, 64);
+        // Изменения после запроса в уже запрошенный кадр не попадают
+        model.getTransform().getTranslation().setX(1000);
+        model.polygons.clear();
+        model.markGeometryChanged();
+        camera.movePosition(new Vector3f(0, 0, 1000));
+
+        BackgroundRenderer.Frame frame = awaitFrame(renderer);
+        int linePixels = 0;
+        for (int pixel : frame.getFrameBuffer().getPixels()) {
+            if (pixel == LINE) {
+                linePixels++;
+            }
+        }
+        assertTrue(linePixels > 0);
+        assertTrue(frame.getStats().contains("models: 1"), frame.getStats());
+        renderer.releaseFrame(frame);
+    }
+
+    @Test
+    void testAdaptiveFrameIsRefinedToFullResolution() throws InterruptedException {
+        Camera camera = new Camera(new Vector3f(0, 0, 10), new Vector3f(0, 0, 0), 1, 1, 0.1f, 100);
+        Model model = createQuad();
+
+        BackgroundRenderer renderer = new BackgroundRenderer(BACKGROUND, LINE, new TileRasterizer(16, pool));
+        // Бюджет заведомо недостижим: после первого кадра разрешение снижается
+        renderer.setTargetFrameTime(1);
+        renderer.requestFrame(camera, List.of(model), RenderMode.SOLID, false, false, false, true, false, 64, 64);
+        renderer.releaseFrame(awaitFrame(renderer));
+        float scale = renderer.getResolutionScale();
+        assertTrue(scale < 1, "scale " + scale);
+
+        renderer.requestFrame(camera, List.of(model), RenderMode.SOLID, false, false, false, true, false, 64, 64);
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            BackgroundRenderer.Frame frame = renderer.pollFrame();
+            if (frame == null) {
+                Thread.sleep(1);
+                continue;
+            }
+            FrameBuffer buffer = frame.getFrameBuffer();
+            if (frame.getScale() < 1) {
+                assertEquals(Math.round(64 * frame.getScale()), buffer.getWidth());
+                renderer.releaseFrame(frame);
+                continue;
+            }
+            assertEquals(64, buffer.getWidth());
+            assertEquals(64, buffer.getHeight());
+            // Уменьшенный кадр мог быть пропущен, если его не успели забрать, но полный приходит всегда
+            renderer.releaseFrame(frame);
+            return;
+        }
+        fail("no full resolution frame");
+    }
+
+    @Test
+    void testFrameRenderedWhileAnotherIsHeldIsNotDropped() throws InterruptedException {
+        Camera camera = new Camera(new Vector3f(0, 0, 10), new Vector3f(0, 0, 0), 1, 1, 0.1f, 100);
+        Model model = createQuad();
+
+        BackgroundRenderer renderer = new BackgroundRenderer(BACKGROUND, LINE, new TileRasterizer(16, pool));
+        renderer.requestFrame(camera, List.of(model), RenderMode.SOLID, false, false, false, false, false, 64, 64);
+        BackgroundRenderer.Frame held = awaitFrame(renderer);
+
+        // Первый кадр ещё выводится, а второй уже готов: он должен дождаться pollFrame
+        renderer.requestFrame(camera, List.of(model), RenderMode.WIREFRAME_RASTER, false, false, false, false, false, 64, 64);
+        // Даём потоку отрисовки закончить кадр и уснуть
+        Thread.sleep(500);
+        assertTrue(renderer.isBusy());
+        BackgroundRenderer.Frame second = awaitFrame(renderer);
+        assertNotSame(held, second);
+        assertEquals(RenderMode.WIREFRAME_RASTER, second.getMode());
+        renderer.releaseFrame(held);
+        renderer.releaseFrame(second);
+    }
+
+    private static Model createQuad() {
+        Model model = new Model();
+        model.vertices.add(new Vector3f(-2, -2, 0));
+        model.vertices.add(new Vector3f(2, -2, 0));
+        model.vertices.add(new Vector3f(2, 2, 0));
+        model.vertices.add(new Vector3f(-2, 2, 0));
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(new ArrayList<>(List.of(0, 1, 2, 3)));
+        model.polygons.add(polygon);
+        return model;
+    }
+}
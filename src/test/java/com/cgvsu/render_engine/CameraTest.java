@@ -0,0 +1,68 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.Matrix4f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.math.Vector4f;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CameraTest {
+
+    private static Camera createCamera() {
+        return new Camera(new Vector3f(0, 0, 100), new Vector3f(0, 0, 0), 1, 1, 0.01f, 1000);
+    }
+
+    private static boolean inside(Camera camera, float x, float y, float z) {
+        for (int i = 0; i < 6; i++) {
+            Vector4f p = camera.getFrustumPlane(i);
+            if (p.getX() * x + p.getY() * y + p.getZ() * z + p.getW() < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    void testMatricesAreCachedUntilCameraMoves() {
+        Camera camera = createCamera();
+        Matrix4f viewProjection = camera.getViewProjectionMatrix();
+        Matrix4f snapshot = new Matrix4f(viewProjection);
+        long version = camera.getVersion();
+
+        assertSame(viewProjection, camera.getViewProjectionMatrix());
+        assertEquals(version, camera.getVersion());
+
+        camera.movePosition(new Vector3f(0, 0, -10));
+
+        assertNotEquals(version, camera.getVersion());
+        assertNotEquals(snapshot, camera.getViewProjectionMatrix());
+        assertEquals(camera.getProjectionMatrix().multiply(camera.getViewMatrix()),
+                camera.getViewProjectionMatrix());
+    }
+
+    @Test
+    void testDirectVectorChangeInvalidatesView() {
+        Camera camera = createCamera();
+        Matrix4f before = new Matrix4f(camera.getViewMatrix());
+
+        camera.getPosition().setX(20);
+
+        assertNotEquals(before, camera.getViewMatrix());
+        assertEquals(GraphicConveyor.lookAt(camera.getPosition(), camera.getTarget()), camera.getViewMatrix());
+    }
+
+    @Test
+    void testFrustumPlanes() {
+        Camera camera = createCamera();
+
+        assertTrue(inside(camera, 0, 0, 0));
+        // позади камеры
+        assertFalse(inside(camera, 0, 0, 200));
+        // дальше дальней плоскости
+        assertFalse(inside(camera, 0, 0, -2000));
+        // далеко в стороне
+        assertFalse(inside(camera, 10000, 0, 0));
+        assertFalse(inside(camera, 0, -10000, 0));
+    }
+}
@@ -0,0 +1,78 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClipperTest {
+
+    private static final float EPS = 1e-6f;
+
+    @Test
+    void testOutcodes() {
+        float[] positions = {
+                0, 0, 0,
+                -2, 0, 0,
+                0, 3, 0,
+                0, 0, -2,
+                0, 0, 2
+        };
+        byte[] outcodes = new byte[5];
+
+        Clipper.computeOutcodes(positions, 5, new Matrix4f(), outcodes);
+
+        assertEquals(0, outcodes[0]);
+        assertEquals(Clipper.OUTSIDE_LEFT, outcodes[1]);
+        assertEquals(Clipper.OUTSIDE_TOP, outcodes[2]);
+        assertEquals(Clipper.OUTSIDE_NEAR, outcodes[3]);
+        assertEquals(Clipper.OUTSIDE_FAR, outcodes[4]);
+    }
+
+    @Test
+    void testTriangleWithOneVertexBehindBecomesQuad() {
+        // (x, y, z, w); у последней вершины z + w < 0
+        float[] triangle = {
+                0, 0, 0, 1,
+                1, 0, 0, 1,
+                0, 1, -3, 1
+        };
+        float[] output = new float[16];
+
+        int count = Clipper.clipPolygonNear(triangle, 3, output);
+
+        assertEquals(4, count);
+        for (int i = 0; i < count; i++) {
+            assertTrue(output[i * 4 + 2] + output[i * 4 + 3] >= -EPS);
+        }
+        // точки пересечения лежат на плоскости z = -w
+        assertEquals(0, output[2 * 4 + 2] + output[2 * 4 + 3], EPS);
+        assertEquals(0, output[3 * 4 + 2] + output[3 * 4 + 3], EPS);
+    }
+
+    @Test
+    void testPolygonBehindNearPlaneIsRemoved() {
+        float[] triangle = {
+                0, 0, -3, 1,
+                1, 0, -3, 1,
+                0, 1, -3, 1
+        };
+
+        assertEquals(0, Clipper.clipPolygonNear(triangle, 3, new float[16]));
+    }
+
+    @Test
+    void testSegmentClipping() {
+        float[] segment = {
+                0, 0, 0, 1,
+                2, 0, -4, 2
+        };
+
+        assertTrue(Clipper.clipSegmentNear(segment, 0, 4));
+        assertEquals(0, segment[6] + segment[7], EPS);
+        assertArrayEquals(new float[] {0, 0, 0, 1}, new float[] {segment[0], segment[1], segment[2], segment[3]});
+
+        float[] behind = {0, 0, -2, 1, 1, 1, -3, 1};
+        assertFalse(Clipper.clipSegmentNear(behind, 0, 4));
+    }
+}
@@ -5,7 +5,10 @@ import com.cgvsu.math.Vector2f;
 import com.cgvsu.math.Vector3f;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class GraphicConveyorTest {
 
@@ -187,4 +190,88 @@ class GraphicConveyorTest {
         assertEquals(0, r.getY(), EPS);
         assertEquals(0, r.getZ(), EPS);
     }
+
+    @Test
+    void testMultiplyIntoDestinationMatchesAllocatingVersion() {
+        Matrix4f m = GraphicConveyor.createModelMatrix(
+                new Vector3f(1, -2, 3),
+                new Vector3f(0.3f, 0.2f, 0.1f),
+                new Vector3f(2, 1, 0.5f)
+        );
+        Vector3f v = new Vector3f(4, 5, 6);
+        Vector3f expected = GraphicConveyor.multiplyMatrix4ByVector3(m, v);
+
+        // результат можно записывать прямо в исходный вектор
+        GraphicConveyor.multiplyMatrix4ByVector3(m, v, v);
+
+        assertEquals(expected, v);
+    }
+
+    @Test
+    void testVertexToPointIntoDestination() {
+        Vector2f dest = new Vector2f(-1, -1);
+        Vector2f p = GraphicConveyor.vertexToPoint(new Vector3f(1, 1, 0), 800, 600, dest);
+
+        assertSame(dest, p);
+        assertEquals(799, p.getX(), EPS);
+        assertEquals(0, p.getY(), EPS);
+    }
+
+    private static float[] randomPositions(int vertexCount, long seed) {
+        Random random = new Random(seed);
+        float[] positions = new float[vertexCount * 3];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = (random.nextFloat() - 0.5f) * 200;
+        }
+        // вершина в плоскости камеры: w = 0, деление не выполняется
+        positions[0] = 0;
+        positions[1] = 0;
+        positions[2] = 0;
+        return positions;
+    }
+
+    private static Matrix4f sampleMvp() {
+        Matrix4f view = GraphicConveyor.lookAt(new Vector3f(0, 0, 0), new Vector3f(0, 0, 1));
+        Matrix4f projection = GraphicConveyor.perspective(1, 1.5f, 0.01f, 1000);
+        Matrix4f model = GraphicConveyor.createModelMatrix(
+                new Vector3f(1, 2, 3), new Vector3f(0.4f, -0.7f, 1.1f), new Vector3f(1.5f, 0.5f, 2));
+        return projection.multiply(view).multiply(model);
+    }
+
+    @Test
+    void testTransformVerticesMatchesPerVertexPath() {
+        int n = 1003;
+        float[] positions = randomPositions(n, 42);
+        Matrix4f mvp = sampleMvp();
+        float[] out = new float[n * 3];
+
+        GraphicConveyor.transformVertices(positions, n, mvp, 800, 600, out);
+
+        for (int i = 0; i < n; i++) {
+            Vector3f v = new Vector3f(positions[i * 3], positions[i * 3 + 1], positions[i * 3 + 2]);
+            Vector3f transformed = GraphicConveyor.multiplyMatrix4ByVector3(mvp, v);
+            Vector2f p = GraphicConveyor.vertexToPoint(transformed, 800, 600);
+            assertEquals(p.getX(), out[i * 3], 0);
+            assertEquals(p.getY(), out[i * 3 + 1], 0);
+            assertEquals(transformed.getZ(), out[i * 3 + 2], 0);
+        }
+    }
+
+    @Test
+    void testVectorizedTransformIsBitIdenticalToScalar() {
+        assumeTrue(GraphicConveyor.isVectorApiEnabled());
+
+        int n = 4099;
+        float[] positions = randomPositions(n, 7);
+        Matrix4f mvp = sampleMvp();
+        float[] scalar = new float[n * 3];
+        float[] vectorized = new float[n * 3];
+
+        GraphicConveyor.transformVerticesScalar(positions, 0, n, mvp, 1920, 1080, scalar);
+        VectorizedVertexTransform.transform(positions, n, mvp, 1920, 1080, vectorized);
+
+        for (int i = 0; i < scalar.length; i++) {
+            assertEquals(Float.floatToRawIntBits(scalar[i]), Float.floatToRawIntBits(vectorized[i]), "index " + i);
+        }
+    }
 }
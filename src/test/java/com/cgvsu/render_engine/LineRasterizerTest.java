@@ -0,0 +1,109 @@
+package com.cgvsu.render_engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineRasterizerTest {
+
+    private static final int BACKGROUND = 0xFFFFFFFF;
+    private static final int BLACK = 0xFF000000;
+
+    private static FrameBuffer cleared(int width, int height) {
+        FrameBuffer fb = new FrameBuffer(width, height);
+        fb.clear(BACKGROUND);
+        return fb;
+    }
+
+    private static int countColored(FrameBuffer fb) {
+        int count = 0;
+        for (int pixel : fb.getPixels()) {
+            if (pixel != BACKGROUND) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    void testBresenhamDrawsOnePixelPerMajorStep() {
+        FrameBuffer fb = cleared(32, 32);
+        LineRasterizer.drawLine(fb, 2.5f, 3.5f, 0, 22.5f, 10.5f, 0, BLACK, false, false);
+
+        assertEquals(BLACK, fb.getPixels()[3 * 32 + 2]);
+        assertEquals(BLACK, fb.getPixels()[10 * 32 + 22]);
+        assertEquals(21, countColored(fb));
+        for (int x = 2; x <= 22; x++) {
+            int inColumn = 0;
+            for (int y = 0; y < 32; y++) {
+                if (fb.getPixels()[y * 32 + x] == BLACK) {
+                    inColumn++;
+                }
+            }
+            assertEquals(1, inColumn, "column " + x);
+        }
+    }
+
+    @Test
+    void testLineIsClippedToBuffer() {
+        FrameBuffer fb = cleared(16, 16);
+        LineRasterizer.drawLine(fb, -1000, 8.5f, 0, 1000, 8.5f, 0, BLACK, false, false);
+        assertEquals(16, countColored(fb));
+
+        FrameBuffer outside = cleared(16, 16);
+        LineRasterizer.drawLine(outside, -10, -5, 0, 30, -1, 0, BLACK, false, false);
+        LineRasterizer.drawLine(outside, Float.NaN, 0, 0, 5, 5, 0, BLACK, false, false);
+        assertEquals(0, countColored(outside));
+    }
+
+    @Test
+    void testClipAgainstEachBorder() {
+        float[] clipped = new float[6];
+        assertTrue(LineRasterizer.clip(10, 20, -5, 5, 0, 15, 5, 1, clipped));
+        assertArrayEquals(new float[] {0, 5, 0.25f, 10, 5, 0.75f}, clipped);
+        assertTrue(LineRasterizer.clip(10, 20, 4, 30, 1, 4, -10, 0, clipped));
+        assertArrayEquals(new float[] {4, 20, 0.75f, 4, 0, 0.25f}, clipped);
+        assertFalse(LineRasterizer.clip(10, 20, 11, 0, 0, 11, 20, 0, clipped));
+
+        // Вариант с буфером вызывающего рисует то же самое
+        FrameBuffer expected = cleared(16, 16);
+        LineRasterizer.drawLine(expected, -3, 2.5f, 0, 20, 13.5f, 0, BLACK, true, false);
+        FrameBuffer actual = cleared(16, 16);
+        LineRasterizer.drawLine(actual, -3, 2.5f, 0, 20, 13.5f, 0, BLACK, true, false, clipped);
+        assertArrayEquals(expected.getPixels(), actual.getPixels());
+    }
+
+    @Test
+    void testDepthTestHidesLineBehindSurface() {
+        FrameBuffer fb = cleared(16, 16);
+        // ближняя половина буфера закрыта поверхностью с глубиной 0.5
+        Rasterizer.fillTriangle(fb, 0, 0, 0.5f, 8, 0, 0.5f, 8, 16, 0.5f, BACKGROUND);
+        Rasterizer.fillTriangle(fb, 0, 0, 0.5f, 8, 16, 0.5f, 0, 16, 0.5f, BACKGROUND);
+
+        LineRasterizer.drawLine(fb, 0, 4.5f, 0.9f, 16, 4.5f, 0.9f, BLACK, false, true);
+        LineRasterizer.drawLine(fb, 0, 10.5f, 0.5f, 16, 10.5f, 0.5f, BLACK, false, true);
+
+        for (int x = 0; x < 16; x++) {
+            assertEquals(x >= 8 ? BLACK : BACKGROUND, fb.getPixels()[4 * 16 + x], "behind, x = " + x);
+            assertEquals(BLACK, fb.getPixels()[10 * 16 + x], "on surface, x = " + x);
+        }
+    }
+
+    @Test
+    void testWuSplitsCoverageBetweenPixels() {
+        FrameBuffer fb = cleared(16, 16);
+        // линия ровно между строками 4 и 5 - по половине яркости в каждой
+        LineRasterizer.drawLine(fb, 2, 5, 0, 12, 5, 0, BLACK, true, false);
+
+        int upper = fb.getPixels()[4 * 16 + 6];
+        int lower = fb.getPixels()[5 * 16 + 6];
+        assertEquals(upper, lower);
+        assertEquals(0x80, upper & 0xFF, 1);
+        assertEquals(BACKGROUND, fb.getPixels()[6 * 16 + 6]);
+
+        FrameBuffer aligned = cleared(16, 16);
+        LineRasterizer.drawLine(aligned, 2, 5.5f, 0, 12, 5.5f, 0, BLACK, true, false);
+        assertEquals(BLACK, aligned.getPixels()[5 * 16 + 6]);
+        assertEquals(BACKGROUND, aligned.getPixels()[4 * 16 + 6]);
+    }
+}
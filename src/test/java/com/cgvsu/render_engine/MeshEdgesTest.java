@@ -0,0 +1,80 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+import com.cgvsu.removers.PolygonRemover;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeshEdgesTest {
+
+    private static Polygon polygon(Integer... indices) {
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(new ArrayList<>(List.of(indices)));
+        return polygon;
+    }
+
+    private static Model createCube() {
+        Model model = new Model();
+        for (int i = 0; i < 8; i++) {
+            model.vertices.add(new Vector3f(i & 1, (i >> 1) & 1, (i >> 2) & 1));
+        }
+        model.polygons.add(polygon(0, 1, 3, 2));
+        model.polygons.add(polygon(4, 6, 7, 5));
+        model.polygons.add(polygon(0, 4, 5, 1));
+        model.polygons.add(polygon(2, 3, 7, 6));
+        model.polygons.add(polygon(0, 2, 6, 4));
+        model.polygons.add(polygon(1, 5, 7, 3));
+        return model;
+    }
+
+    @Test
+    void testClosedCubeHasTwelveUniqueEdges() {
+        long[] edges = MeshEdges.build(createCube().polygons);
+
+        assertEquals(12, edges.length);
+        Set<Long> unique = new HashSet<>();
+        for (long edge : edges) {
+            assertTrue(MeshEdges.first(edge) < MeshEdges.second(edge));
+            assertTrue(unique.add(edge));
+        }
+    }
+
+    @Test
+    void testEdgeDirectionDoesNotMatter() {
+        assertEquals(MeshEdges.pack(3, 7), MeshEdges.pack(7, 3));
+        assertEquals(3, MeshEdges.first(MeshEdges.pack(7, 3)));
+        assertEquals(7, MeshEdges.second(MeshEdges.pack(7, 3)));
+    }
+
+    @Test
+    void testDegenerateEdgesAreSkipped() {
+        long[] edges = MeshEdges.build(List.of(polygon(0, 0, 1), polygon(2, 2, 2)));
+
+        assertArrayEquals(new long[] {MeshEdges.pack(0, 1)}, edges);
+    }
+
+    @Test
+    void testEdgesRebuiltAfterGeometryChange() {
+        Model cube = createCube();
+        long[] edges = RenderEngine.getEdges(cube);
+        assertSame(edges, RenderEngine.getEdges(cube));
+
+        PolygonRemover.deletePolygons(cube, Set.of(0), false);
+
+        // без верхней грани у куба остаются все 12 рёбер, но список строится заново
+        long[] rebuilt = RenderEngine.getEdges(cube);
+        assertNotSame(edges, rebuilt);
+        assertArrayEquals(edges, rebuilt);
+
+        PolygonRemover.deletePolygons(cube, Set.of(0, 1, 2, 3), false);
+        assertEquals(4, RenderEngine.getEdges(cube).length);
+    }
+}
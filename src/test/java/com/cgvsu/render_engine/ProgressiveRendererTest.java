@@ -0,0 +1,123 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressiveRendererTest {
+
+    private static final int BACKGROUND = 0xFF000000;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @Test
+    void testConvergesToFullRendering() {
+        Camera camera = new Camera(new Vector3f(0, 0, 30), new Vector3f(0, 0, 0), 1, 1, 0.1f, 100);
+        List<Model> scene = List.of(createQuadGrid(60, 0), createQuadGrid(20, 0.5f));
+
+        FrameBuffer expected = new FrameBuffer(160, 120);
+        expected.clear(BACKGROUND);
+        for (Model model : scene) {
+            RenderEngine.renderSolid(expected, camera, model);
+        }
+
+        ProgressiveRenderer renderer = new ProgressiveRenderer(new TileRasterizer(16, pool));
+        float progress = 0;
+        int calls = 0;
+        // Нулевой бюджет - за вызов заливается одна порция блоков
+        while (!renderer.render(camera, scene, 160, 120, BACKGROUND, 0)) {
+            assertTrue(renderer.getProgress() > progress);
+            progress = renderer.getProgress();
+            calls++;
+        }
+        assertTrue(calls > 0);
+        assertEquals(1, renderer.getProgress());
+        assertEquals(60 * 60 + 20 * 20, renderer.getStats().getPolygons());
+        assertArrayEquals(expected.getPixels(), renderer.getFrameBuffer().getPixels());
+    }
+
+    @Test
+    void testViewChangeRestarts() {
+        Camera camera = new Camera(new Vector3f(0, 0, 30), new Vector3f(0, 0, 0), 1, 1, 0.1f, 100);
+        Model model = createQuadGrid(200, 0);
+        ProgressiveRenderer renderer = new ProgressiveRenderer(new TileRasterizer(16, pool));
+
+        renderer.render(camera, List.of(model), 160, 120, BACKGROUND, 0);
+        renderer.render(camera, List.of(model), 160, 120, BACKGROUND, 0);
+        float progress = renderer.getProgress();
+        assertTrue(progress > 0 && progress < 1);
+
+        model.getTransform().getTranslation().setX(1);
+        renderer.render(camera, List.of(model), 160, 120, BACKGROUND, 0);
+        assertTrue(renderer.getProgress() < progress);
+
+        assertTrue(renderer.render(camera, List.of(model), 160, 120, BACKGROUND, Long.MAX_VALUE / 2));
+        assertEquals(200 * 200, renderer.getStats().getPolygons());
+    }
+
+    @Test
+    void testResumesAfterOtherRenderingOfSameModel() {
+        Camera camera = new Camera(new Vector3f(0, 0, 30), new Vector3f(0, 0, 0), 1, 1, 0.1f, 100);
+        Model model = createQuadGrid(200, 0);
+
+        FrameBuffer expected = new FrameBuffer(160, 120);
+        expected.clear(BACKGROUND);
+        RenderEngine.renderSolid(expected, camera, model);
+
+        ProgressiveRenderer renderer = new ProgressiveRenderer(new TileRasterizer(16, pool));
+        assertFalse(renderer.render(camera, List.of(model), 160, 120, BACKGROUND, 0));
+
+        // Кадр вдвое меньшего размера (как при адаптивном разрешении) перезаписывает вершины модели
+        FrameBuffer small = new FrameBuffer(80, 60);
+        small.clear(BACKGROUND);
+        RenderEngine.renderSolid(small, camera, model);
+
+        assertTrue(renderer.render(camera, List.of(model), 160, 120, BACKGROUND, Long.MAX_VALUE / 2));
+        assertArrayEquals(expected.getPixels(), renderer.getFrameBuffer().getPixels());
+    }
+
+    @Test
+    void testBlockOrderVisitsEveryBlockOnce() {
+        for (int nBlocks : new int[]{1, 2, 5, 16, 100}) {
+            int bits = ProgressiveRenderer.blockBits(nBlocks);
+            boolean[] seen = new boolean[1 << bits];
+            for (int i = 0; i < (1 << bits); i++) {
+                int block = ProgressiveRenderer.reverseBits(i, bits);
+                assertFalse(seen[block]);
+                seen[block] = true;
+            }
+            assertTrue((1 << bits) >= nBlocks);
+        }
+        // первые блоки разбросаны по всей модели
+        assertEquals(0, ProgressiveRenderer.reverseBits(0, 3));
+        assertEquals(4, ProgressiveRenderer.reverseBits(1, 3));
+        assertEquals(2, ProgressiveRenderer.reverseBits(2, 3));
+    }
+
+    // Сетка n x n из четырёхугольников шириной 20 в плоскости z = depth
+    private static Model createQuadGrid(int n, float depth) {
+        Model model = new Model();
+        float step = 20f / n;
+        for (int y = 0; y <= n; y++) {
+            for (int x = 0; x <= n; x++) {
+                model.vertices.add(new Vector3f(x * step - 10, y * step - 10, depth));
+            }
+        }
+        for (int y = 0; y < n; y++) {
+            for (int x = 0; x < n; x++) {
+                Polygon polygon = new Polygon();
+                int corner = y * (n + 1) + x;
+                polygon.setVertexIndices(new ArrayList<>(List.of(corner, corner + 1, corner + n + 2, corner + n + 1)));
+                model.polygons.add(polygon);
+            }
+        }
+        return model;
+    }
+}
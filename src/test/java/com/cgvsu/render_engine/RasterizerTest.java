@@ -0,0 +1,79 @@
+package com.cgvsu.render_engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RasterizerTest {
+
+    private static final int BACKGROUND = 0xFF000000;
+    private static final int RED = 0xFFFF0000;
+    private static final int GREEN = 0xFF00FF00;
+
+    private static FrameBuffer cleared(int width, int height) {
+        FrameBuffer fb = new FrameBuffer(width, height);
+        fb.clear(BACKGROUND);
+        return fb;
+    }
+
+    @Test
+    void testSharedEdgeIsFilledExactlyOnce() {
+        FrameBuffer first = cleared(32, 32);
+        FrameBuffer second = cleared(32, 32);
+
+        // квадрат [4, 20] x [4, 20], разрезанный по диагонали
+        Rasterizer.fillTriangle(first, 4, 4, 0, 20, 4, 0, 20, 20, 0, RED);
+        Rasterizer.fillTriangle(second, 4, 4, 0, 20, 20, 0, 4, 20, 0, GREEN);
+
+        for (int y = 0; y < 32; y++) {
+            for (int x = 0; x < 32; x++) {
+                int index = y * 32 + x;
+                boolean a = first.getPixels()[index] == RED;
+                boolean b = second.getPixels()[index] == GREEN;
+                boolean insideSquare = x >= 4 && x < 20 && y >= 4 && y < 20;
+                assertFalse(a && b, "pixel " + x + "," + y + " filled twice");
+                assertEquals(insideSquare, a || b, "pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    void testDepthTestKeepsNearestRegardlessOfOrder() {
+        FrameBuffer fb = cleared(16, 16);
+
+        Rasterizer.fillTriangle(fb, 0, 0, 0.2f, 15, 0, 0.2f, 0, 15, 0.2f, RED);
+        Rasterizer.fillTriangle(fb, 0, 0, 0.5f, 15, 0, 0.5f, 0, 15, 0.5f, GREEN);
+        assertEquals(RED, fb.getPixels()[2 * 16 + 2]);
+
+        fb.clear(BACKGROUND);
+        Rasterizer.fillTriangle(fb, 0, 0, 0.5f, 15, 0, 0.5f, 0, 15, 0.5f, GREEN);
+        Rasterizer.fillTriangle(fb, 0, 0, 0.2f, 15, 0, 0.2f, 0, 15, 0.2f, RED);
+        assertEquals(RED, fb.getPixels()[2 * 16 + 2]);
+        assertEquals(0.2f, fb.getDepth()[2 * 16 + 2], 1e-6f);
+    }
+
+    @Test
+    void testWindingDoesNotMatter() {
+        FrameBuffer cw = cleared(16, 16);
+        FrameBuffer ccw = cleared(16, 16);
+
+        Rasterizer.fillTriangle(cw, 1, 1, 0, 14, 3, 0, 5, 13, 0, RED);
+        Rasterizer.fillTriangle(ccw, 1, 1, 0, 5, 13, 0, 14, 3, 0, RED);
+
+        assertArrayEquals(cw.getPixels(), ccw.getPixels());
+    }
+
+    @Test
+    void testClipRectangle() {
+        FrameBuffer fb = cleared(16, 16);
+
+        Rasterizer.fillTriangle(fb, -100, -100, 0, 100, -100, 0, 0, 100, 0, RED, 4, 4, 8, 8);
+
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) {
+                boolean inClip = x >= 4 && x < 8 && y >= 4 && y < 8;
+                assertEquals(inClip ? RED : BACKGROUND, fb.getPixels()[y * 16 + x]);
+            }
+        }
+    }
+}
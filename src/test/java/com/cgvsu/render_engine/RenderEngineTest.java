@@ -0,0 +1,242 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.Matrix4f;
+import com.cgvsu.math.Vector2f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.math.Vector4f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+import com.cgvsu.removers.VertexRemover;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderEngineTest {
+
+    private final Camera camera = new Camera(new Vector3f(3, 4, 20), new Vector3f(0, 0, 0), 1, 1.5f, 0.1f, 100);
+
+    private static Model createRandomModel(int vertexCount) {
+        Random random = new Random(3);
+        Model model = new Model();
+        for (int i = 0; i < vertexCount; i++) {
+            model.vertices.add(new Vector3f(
+                    random.nextFloat() * 10 - 5, random.nextFloat() * 10 - 5, random.nextFloat() * 10 - 5));
+        }
+        for (int i = 0; i + 2 < vertexCount; i++) {
+            Polygon polygon = new Polygon();
+            polygon.setVertexIndices(new ArrayList<>(List.of(i, i + 1, i + 2)));
+            model.polygons.add(polygon);
+        }
+        return model;
+    }
+
+    @Test
+    void testTransformVerticesMatchesPerVertexTransform() {
+        Model model = createRandomModel(100);
+        Matrix4f mvp = RenderEngine.getModelViewProjectionMatrix(camera, model);
+
+        float[] screenVertices = RenderEngine.transformVertices(model, mvp, 640, 480);
+
+        for (int i = 0; i < model.vertices.size(); i++) {
+            Vector3f transformed = GraphicConveyor.multiplyMatrix4ByVector3(mvp, model.vertices.get(i));
+            Vector2f point = GraphicConveyor.vertexToPoint(transformed, 640, 480);
+            assertEquals(point.getX(), screenVertices[i * 3]);
+            assertEquals(point.getY(), screenVertices[i * 3 + 1]);
+            assertEquals(transformed.getZ(), screenVertices[i * 3 + 2]);
+        }
+    }
+
+    @Test
+    void testModelViewProjectionDependsOnCameraInstance() {
+        Model model = createRandomModel(10);
+        Camera far = new Camera(new Vector3f(0, 0, 100), new Vector3f(0, 0, 0), 1, 1, 0.1f, 1000);
+        Camera near = new Camera(new Vector3f(0, 0, 10), new Vector3f(0, 0, 0), 1, 1, 0.1f, 1000);
+        assertEquals(far.getVersion(), near.getVersion());
+
+        Matrix4f farMvp = new Matrix4f(RenderEngine.getModelViewProjectionMatrix(far, model));
+        Matrix4f nearMvp = RenderEngine.getModelViewProjectionMatrix(near, model);
+        Matrix4f expected = new Matrix4f();
+        Matrix4f.mulInto(near.getViewProjectionMatrix(), model.getTransform().getModelMatrix(), expected);
+        assertEquals(expected, nearMvp);
+        assertNotEquals(farMvp, nearMvp);
+    }
+
+    @Test
+    void testBuffersAreReusedBetweenFrames() {
+        Model model = createRandomModel(50);
+        Matrix4f mvp = RenderEngine.getModelViewProjectionMatrix(camera, model);
+
+        float[] positions = RenderEngine.getPositions(model);
+        float[] first = RenderEngine.transformVertices(model, mvp, 640, 480);
+        model.getTransform().getTranslation().setX(2);
+        mvp = RenderEngine.getModelViewProjectionMatrix(camera, model);
+        float[] second = RenderEngine.transformVertices(model, mvp, 640, 480);
+
+        assertSame(first, second);
+        assertSame(positions, RenderEngine.getPositions(model));
+    }
+
+    @Test
+    void testPositionsFollowGeometryChanges() {
+        Model model = createRandomModel(10);
+        assertEquals(30, RenderEngine.getPositions(model).length);
+
+        VertexRemover.deleteVertices(model, Set.of(0), true);
+
+        float[] positions = RenderEngine.getPositions(model);
+        assertEquals(model.vertices.size() * 3, positions.length);
+        assertEquals(model.vertices.get(0).getX(), positions[0]);
+    }
+
+    private static Polygon polygon(Integer... indices) {
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(new ArrayList<>(List.of(indices)));
+        return polygon;
+    }
+
+    // Единичный куб, грани обходятся против часовой стрелки при взгляде снаружи
+    private static Model createCube() {
+        Model model = new Model();
+        for (int i = 0; i < 8; i++) {
+            model.vertices.add(new Vector3f(i & 1, (i >> 1) & 1, (i >> 2) & 1));
+        }
+        model.polygons.add(polygon(0, 2, 3, 1));
+        model.polygons.add(polygon(4, 5, 7, 6));
+        model.polygons.add(polygon(0, 1, 5, 4));
+        model.polygons.add(polygon(2, 6, 7, 3));
+        model.polygons.add(polygon(0, 4, 6, 2));
+        model.polygons.add(polygon(1, 3, 7, 5));
+        return model;
+    }
+
+    private static byte[] classify(Model model, Camera camera, int width, int height) {
+        Matrix4f mvp = RenderEngine.getModelViewProjectionMatrix(camera, model);
+        float[] screenVertices = RenderEngine.transformVertices(model, mvp, width, height);
+        byte[] outcodes = RenderEngine.computeOutcodes(model, mvp);
+        return RenderEngine.classifyPolygons(model, screenVertices, outcodes, null, true);
+    }
+
+    @Test
+    void testBackFaceCullingSkipsHalfOfCube() {
+        Model cube = createCube();
+        Camera view = new Camera(new Vector3f(3, 4, 5), new Vector3f(0.5f, 0.5f, 0.5f), 1, 1, 0.1f, 100);
+        RenderEngine.setBackFaceCulling(true);
+        RenderEngine.getStats().reset();
+        try {
+            byte[] classes = classify(cube, view, 200, 200);
+
+            // видны грани +z, +y и +x
+            assertArrayEquals(new byte[] {
+                    RenderEngine.POLYGON_BACK_FACE, RenderEngine.POLYGON_VISIBLE,
+                    RenderEngine.POLYGON_BACK_FACE, RenderEngine.POLYGON_VISIBLE,
+                    RenderEngine.POLYGON_BACK_FACE, RenderEngine.POLYGON_VISIBLE
+            }, Arrays.copyOf(classes, 6));
+            assertEquals(6, RenderEngine.getStats().getPolygons());
+            assertEquals(3, RenderEngine.getStats().getBackFaceCulled());
+            assertEquals(3, RenderEngine.getStats().getDrawn());
+        } finally {
+            RenderEngine.setBackFaceCulling(false);
+        }
+    }
+
+    @Test
+    void testModelOutsideFrustumIsCulled() {
+        Model cube = createCube();
+        cube.getTransform().getTranslation().setX(500);
+        RenderEngine.getStats().reset();
+
+        classify(cube, camera, 200, 200);
+
+        assertEquals(6, RenderEngine.getStats().getFrustumCulled());
+        assertEquals(0, RenderEngine.getStats().getDrawn());
+    }
+
+    @Test
+    void testPolygonsCrossingNearPlaneAreClipped() {
+        // Пол под камерой уходит за её спину
+        Model floor = new Model();
+        floor.vertices.add(new Vector3f(-50, -1, -50));
+        floor.vertices.add(new Vector3f(50, -1, -50));
+        floor.vertices.add(new Vector3f(50, -1, 50));
+        floor.vertices.add(new Vector3f(-50, -1, 50));
+        floor.polygons.add(polygon(0, 3, 2, 1));
+        Camera inside = new Camera(new Vector3f(0, 0, 0), new Vector3f(0, 0, -1), 1, 1, 0.1f, 100);
+
+        FrameBuffer frameBuffer = new FrameBuffer(64, 64);
+        frameBuffer.clear(0xFF000000);
+        RenderEngine.getStats().reset();
+        RenderEngine.renderSolid(frameBuffer, inside, floor);
+
+        assertEquals(1, RenderEngine.getStats().getNearClipped());
+        // нижняя половина кадра - пол, верхняя - пустая
+        assertNotEquals(0xFF000000, frameBuffer.getPixels()[60 * 64 + 32]);
+        assertEquals(0xFF000000, frameBuffer.getPixels()[4 * 64 + 32]);
+        for (float depth : frameBuffer.getDepth()) {
+            assertTrue(depth == Float.POSITIVE_INFINITY || (depth >= -1 && depth <= 1));
+        }
+    }
+
+    @Test
+    void testModelVisibility() {
+        Camera view = new Camera(new Vector3f(0, 0, 20), new Vector3f(0, 0, 0), 1, 1, 0.1f, 100);
+        Model cube = createCube();
+        RenderEngine.getStats().reset();
+
+        assertTrue(RenderEngine.isVisible(view, cube));
+
+        cube.getTransform().getTranslation().setX(100);
+        assertFalse(RenderEngine.isVisible(view, cube));
+
+        // за камерой
+        cube.getTransform().getTranslation().setX(0);
+        cube.getTransform().getTranslation().setZ(30);
+        assertFalse(RenderEngine.isVisible(view, cube));
+
+        // растянутый к камере и дальше куб (z от 30 до 10) снова пересекает пирамиду видимости
+        cube.getTransform().getScale().setZ(-20);
+        assertTrue(RenderEngine.isVisible(view, cube));
+
+        assertEquals(4, RenderEngine.getStats().getModels());
+        assertEquals(2, RenderEngine.getStats().getModelsCulled());
+        assertFalse(RenderEngine.isVisible(view, new Model()));
+    }
+
+    @Test
+    void testBoxRefinesSphereTest() {
+        Camera view = new Camera(new Vector3f(0, 0, 20), new Vector3f(0, 0, 0), 1, 1, 0.1f, 100);
+        // длинная тонкая палка вдоль z слева от пирамиды: сфера её пересекает, а сама палка - нет
+        Model stick = new Model();
+        stick.vertices.add(new Vector3f(-0.1f, -0.1f, -40));
+        stick.vertices.add(new Vector3f(0.1f, 0.1f, 40));
+        stick.getTransform().getTranslation().setX(-25);
+
+        float radius = stick.getBoundingSphereRadius();
+        Vector4f left = view.getFrustumPlane(Camera.LEFT_PLANE);
+        float centerDistance = left.getX() * -25 + left.getW();
+        assertTrue(Math.abs(centerDistance) < radius);
+
+        assertFalse(RenderEngine.isVisible(view, stick));
+    }
+
+    @Test
+    void testEdgeSegmentsForWireframe() {
+        Model cube = createCube();
+        Camera view = new Camera(new Vector3f(3, 4, 5), new Vector3f(0.5f, 0.5f, 0.5f), 1, 1, 0.1f, 100);
+
+        assertEquals(12, RenderEngine.collectEdgeSegments(view, cube, 200, 200));
+
+        // при отсечении нелицевых граней пропадают рёбра, у которых обе грани не видны
+        RenderEngine.setBackFaceCulling(true);
+        try {
+            assertEquals(9, RenderEngine.collectEdgeSegments(view, cube, 200, 200));
+        } finally {
+            RenderEngine.setBackFaceCulling(false);
+        }
+    }
+}
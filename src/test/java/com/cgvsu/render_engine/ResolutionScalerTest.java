@@ -0,0 +1,51 @@
+package com.cgvsu.render_engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResolutionScalerTest {
+
+    private static final long BUDGET = 16_000_000L;
+
+    @Test
+    void testSlowFramesLowerScaleDownToMinimum() {
+        ResolutionScaler scaler = new ResolutionScaler(BUDGET);
+        scaler.update(BUDGET * 4);
+        float first = scaler.getScale();
+        assertTrue(first < 1 && first > ResolutionScaler.MIN_SCALE, "scale " + first);
+
+        for (int i = 0; i < 50; i++) {
+            scaler.update(BUDGET * 100);
+        }
+        assertEquals(ResolutionScaler.MIN_SCALE, scaler.getScale());
+    }
+
+    @Test
+    void testConvergesWhenTimeIsProportionalToPixels() {
+        ResolutionScaler scaler = new ResolutionScaler(BUDGET);
+        // при полном разрешении кадр занимает 4 бюджета - нужна половина разрешения
+        for (int i = 0; i < 30; i++) {
+            float scale = scaler.getScale();
+            scaler.update((long) (BUDGET * 4 * scale * scale));
+        }
+        assertEquals(0.5f, scaler.getScale(), 0.03f);
+
+        // в пределах допуска доля не меняется
+        float settled = scaler.getScale();
+        scaler.update((long) (BUDGET * 1.05));
+        assertEquals(settled, scaler.getScale());
+    }
+
+    @Test
+    void testFastFramesRestoreFullResolution() {
+        ResolutionScaler scaler = new ResolutionScaler(BUDGET);
+        scaler.update(BUDGET * 16);
+        for (int i = 0; i < 20; i++) {
+            scaler.update(BUDGET / 10);
+        }
+        assertEquals(ResolutionScaler.MAX_SCALE, scaler.getScale());
+
+        assertThrows(IllegalArgumentException.class, () -> new ResolutionScaler(0));
+    }
+}
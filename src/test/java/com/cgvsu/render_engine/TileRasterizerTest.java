@@ -0,0 +1,117 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileRasterizerTest {
+
+    private static final int BACKGROUND = 0xFF000000;
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    private static FrameBuffer cleared(int width, int height) {
+        FrameBuffer fb = new FrameBuffer(width, height);
+        fb.clear(BACKGROUND);
+        return fb;
+    }
+
+    @Test
+    void testTiledOutputMatchesSequential() {
+        int width = 203;
+        int height = 157;
+        Random random = new Random(7);
+        TriangleBuffer triangles = new TriangleBuffer();
+        // больше одной части, чтобы проверить слияние списков плиток
+        int count = TileRasterizer.CHUNK_SIZE + 1000;
+        int first = triangles.reserve(count);
+        for (int i = 0; i < count; i++) {
+            float cx = random.nextFloat() * (width + 40) - 20;
+            float cy = random.nextFloat() * (height + 40) - 20;
+            float size = random.nextFloat() * 60;
+            // часть треугольников на одной глубине: при равенстве побеждает нарисованный раньше
+            float z = random.nextInt(4) == 0 ? 0.5f : random.nextFloat();
+            triangles.set(first + i,
+                    cx + (random.nextFloat() - 0.5f) * size, cy + (random.nextFloat() - 0.5f) * size, z,
+                    cx + (random.nextFloat() - 0.5f) * size, cy + (random.nextFloat() - 0.5f) * size, z,
+                    cx + (random.nextFloat() - 0.5f) * size, cy + (random.nextFloat() - 0.5f) * size,
+                    random.nextFloat(),
+                    0xFF000000 | random.nextInt(0x1000000));
+        }
+
+        FrameBuffer sequential = cleared(width, height);
+        triangles.rasterize(sequential, 0, triangles.size, 0, 0, width, height);
+
+        for (int tileSize : new int[] {1, 16, 64, 512}) {
+            FrameBuffer tiled = cleared(width, height);
+            new TileRasterizer(tileSize, pool).rasterize(tiled, triangles);
+
+            assertArrayEquals(sequential.getPixels(), tiled.getPixels(), "tile size " + tileSize);
+            assertArrayEquals(sequential.getDepth(), tiled.getDepth(), "tile size " + tileSize);
+        }
+    }
+
+    @Test
+    void testRenderSolidSceneMatchesPerModelRendering() {
+        Camera camera = new Camera(new Vector3f(0, 0, 10), new Vector3f(0, 0, 0), 1, 1, 0.1f, 100);
+        List<Model> scene = List.of(createQuadGrid(0), createQuadGrid(0.5f));
+
+        FrameBuffer sequential = cleared(120, 90);
+        for (Model model : scene) {
+            RenderEngine.renderSolid(sequential, camera, model);
+        }
+
+        FrameBuffer tiled = cleared(120, 90);
+        RenderEngine.renderSolid(tiled, camera, scene, new TileRasterizer(16, pool));
+
+        assertNotEquals(BACKGROUND, tiled.getPixels()[45 * 120 + 60]);
+        assertArrayEquals(sequential.getPixels(), tiled.getPixels());
+        assertArrayEquals(sequential.getDepth(), tiled.getDepth());
+    }
+
+    @Test
+    void testInvalidTileSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TileRasterizer(0, pool));
+        assertThrows(IllegalArgumentException.class, () -> new TileRasterizer(48, pool));
+    }
+
+    // Сетка 10x10 из четырёхугольников в плоскости z = depth
+    private static Model createQuadGrid(float depth) {
+        Model model = new Model();
+        int n = 10;
+        for (int y = 0; y <= n; y++) {
+            for (int x = 0; x <= n; x++) {
+                model.vertices.add(new Vector3f(x - n / 2f + depth, y - n / 2f, depth));
+            }
+        }
+        for (int y = 0; y < n; y++) {
+            for (int x = 0; x < n; x++) {
+                Polygon polygon = new Polygon();
+                int corner = y * (n + 1) + x;
+                polygon.setVertexIndices(new ArrayList<>(List.of(corner, corner + 1, corner + n + 2, corner + n + 1)));
+                model.polygons.add(polygon);
+            }
+        }
+        return model;
+    }
+}